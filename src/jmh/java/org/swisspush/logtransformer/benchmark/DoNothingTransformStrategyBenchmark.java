@@ -0,0 +1,53 @@
+package org.swisspush.logtransformer.benchmark;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+import org.swisspush.logtransformer.strategy.DoNothingTransformStrategy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link DoNothingTransformStrategy} executed with the different threading models.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class DoNothingTransformStrategyBenchmark {
+
+    @Param({"1024", "1048576"})
+    public int bodySize;
+
+    @Param({"EVENT_LOOP", "WORKER"})
+    public ThreadingModel threadingModel;
+
+    private Vertx vertx;
+    private String log;
+    private DoNothingTransformStrategy strategy;
+
+    @Setup
+    public void setUp() {
+        vertx = Vertx.vertx();
+        log = "x".repeat(bodySize);
+        strategy = new DoNothingTransformStrategy(vertx, threadingModel);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public List<String> transformLog() throws Exception {
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        vertx.runOnContext(v -> strategy.transformLog(log, res -> result.complete(res.result())));
+        return result.get();
+    }
+}
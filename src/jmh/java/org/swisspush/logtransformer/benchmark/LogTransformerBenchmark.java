@@ -0,0 +1,101 @@
+package org.swisspush.logtransformer.benchmark;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import org.openjdk.jmh.annotations.*;
+import org.swisspush.logtransformer.LogTransformer;
+import org.swisspush.logtransformer.LogTransformerFactory;
+import org.swisspush.logtransformer.logger.BlockingLogTransformLogger;
+import org.swisspush.logtransformer.strategy.DefaultTransformStrategyFinder;
+import org.swisspush.logtransformer.util.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of the {@link LogTransformer} event bus round trip. The log entries are discarded by the
+ * logger, so the benchmark measures the overhead of the transformation pipeline only.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class LogTransformerBenchmark {
+
+    private static final String ADDRESS = "benchmark.logtransformer";
+
+    @Param({"DoNothingTransformStrategy", "SplitStorageExpandLogStrategy", "StreamingSplitStorageExpandLogStrategy"})
+    public String strategy;
+
+    @Param({"10", "1000"})
+    public int subResources;
+
+    @Param({"1024", "1048576"})
+    public int bodySize;
+
+    @Param({"1", "4"})
+    public int instances;
+
+    private Vertx vertx;
+    private String log;
+    private DeliveryOptions deliveryOptions;
+
+    @Setup
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        log = StorageExpandPayloads.storageExpandLog(subResources, bodySize);
+        Configuration config = Configuration.with().address(ADDRESS).build();
+        deliveryOptions = new DeliveryOptions().addHeader(config.getStrategyHeader(), strategy);
+        LogTransformerFactory factory = new LogTransformerFactory(new DiscardingLogger(),
+                new DefaultTransformStrategyFinder(vertx, config.getStrategyHeader()));
+        vertx.deployVerticle(factory, new DeploymentOptions().setConfig(config.asJsonObject()).setInstances(instances))
+                .toCompletionStage().toCompletableFuture().get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public Message<Object> roundTrip() throws Exception {
+        return vertx.eventBus().request(ADDRESS, log, deliveryOptions).toCompletionStage().toCompletableFuture().get();
+    }
+
+    /**
+     * Concurrent round trips to measure the scaling with the number of deployed instances.
+     */
+    @Benchmark
+    @Threads(8)
+    public Message<Object> concurrentRoundTrip() throws Exception {
+        return roundTrip();
+    }
+
+    private static class DiscardingLogger implements BlockingLogTransformLogger {
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            // discard
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+
+        @Override
+        public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+            resultHandler.handle(Future.succeededFuture());
+        }
+    }
+}
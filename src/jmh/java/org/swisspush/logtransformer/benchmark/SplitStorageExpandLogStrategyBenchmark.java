@@ -0,0 +1,58 @@
+package org.swisspush.logtransformer.benchmark;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+import org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy;
+import org.swisspush.logtransformer.strategy.StreamingSplitStorageExpandLogStrategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link SplitStorageExpandLogStrategy} and the {@link StreamingSplitStorageExpandLogStrategy}.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn"})
+public class SplitStorageExpandLogStrategyBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int subResources;
+
+    @Param({"1024", "102400", "1048576", "10485760"})
+    public int bodySize;
+
+    private Vertx vertx;
+    private String log;
+    private SplitStorageExpandLogStrategy splitStrategy;
+    private StreamingSplitStorageExpandLogStrategy streamingSplitStrategy;
+
+    @Setup
+    public void setUp() {
+        vertx = Vertx.vertx();
+        log = StorageExpandPayloads.storageExpandLog(subResources, bodySize);
+        splitStrategy = new SplitStorageExpandLogStrategy(vertx, ThreadingModel.EVENT_LOOP);
+        streamingSplitStrategy = new StreamingSplitStorageExpandLogStrategy(vertx, ThreadingModel.EVENT_LOOP);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return splitStrategy.transformLogBlocking(log);
+    }
+
+    @Benchmark
+    public List<String> streamingSplit() {
+        return streamingSplitStrategy.transformLogBlocking(log);
+    }
+}
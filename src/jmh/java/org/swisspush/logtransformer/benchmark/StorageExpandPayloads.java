@@ -0,0 +1,55 @@
+package org.swisspush.logtransformer.benchmark;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Generates storageExpand log payloads for the benchmarks.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+final class StorageExpandPayloads {
+
+    private StorageExpandPayloads() {
+        // prevent instantiation
+    }
+
+    /**
+     * Creates an encoded storageExpand log.
+     *
+     * @param subResources the number of sub-resources in the response body
+     * @param bodySize the approximate total size of the response body in bytes
+     * @return the encoded storageExpand log
+     */
+    static String storageExpandLog(int subResources, int bodySize) {
+        int paddingPerSubResource = Math.max(0, bodySize / subResources - 64);
+        String padding = "x".repeat(paddingPerSubResource);
+
+        JsonArray subResourceNames = new JsonArray();
+        JsonObject body = new JsonObject();
+        for (int i = 0; i < subResources; i++) {
+            String name = String.valueOf(70000000 + i);
+            subResourceNames.add(name);
+            body.put(name, new JsonObject()
+                    .put("dataId", 70000000 + i)
+                    .put("identCode", "123456")
+                    .put("padding", padding));
+        }
+
+        return new JsonObject()
+                .put("url", "/some/url/that/has/messages/?storageExpand=true")
+                .put("method", "POST")
+                .put("statusCode", 200)
+                .put("statusMessage", "OK")
+                .put("request", new JsonObject()
+                        .put("headers", new JsonObject()
+                                .put("x-appid", "xyz")
+                                .put("x-rp-unique-id", "3723bcfac77301f858cbfe65b43219db")
+                                .put("x-user-username", "johndoe"))
+                        .put("body", new JsonObject().put("subResources", subResourceNames)))
+                .put("response", new JsonObject()
+                        .put("headers", new JsonObject().put("etag", "5cc22c7ccd2328e3d8618cd0a134c9a1b6d6c9c2"))
+                        .put("body", body))
+                .encode();
+    }
+}
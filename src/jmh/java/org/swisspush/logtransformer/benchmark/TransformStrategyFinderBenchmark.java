@@ -0,0 +1,49 @@
+package org.swisspush.logtransformer.benchmark;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import org.openjdk.jmh.annotations.*;
+import org.swisspush.logtransformer.strategy.DefaultTransformStrategyFinder;
+import org.swisspush.logtransformer.strategy.TransformStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link DefaultTransformStrategyFinder#findTransformStrategy(MultiMap)} method.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dorg.slf4j.simpleLogger.defaultLogLevel=error"})
+public class TransformStrategyFinderBenchmark {
+
+    private static final String STRATEGY_HEADER = "transformStrategy";
+
+    @Param({"", "DoNothingTransformStrategy", "SplitStorageExpandLogStrategy", "StreamingSplitStorageExpandLogStrategy", "UnknownStrategy"})
+    public String strategy;
+
+    private Vertx vertx;
+    private DefaultTransformStrategyFinder finder;
+    private MultiMap headers;
+
+    @Setup
+    public void setUp() {
+        vertx = Vertx.vertx();
+        finder = new DefaultTransformStrategyFinder(vertx, STRATEGY_HEADER);
+        headers = MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, strategy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public TransformStrategy findTransformStrategy() {
+        return finder.findTransformStrategy(headers);
+    }
+}
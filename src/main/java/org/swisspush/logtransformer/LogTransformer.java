@@ -1,17 +1,53 @@
 package org.swisspush.logtransformer;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.swisspush.logtransformer.logger.DefaultLogTransformLogger;
+import org.swisspush.logtransformer.logger.BlockingLogTransformLogger;
+import org.swisspush.logtransformer.logger.DeduplicatingLogTransformLogger;
 import org.swisspush.logtransformer.logger.LogTransformLogger;
-import org.swisspush.logtransformer.strategy.TransformStrategy;
+import org.swisspush.logtransformer.logger.SpillingLogTransformLogger;
+import org.swisspush.logtransformer.logger.StructuredLogTransformLogger;
+import org.swisspush.logtransformer.metrics.LogTransformerMetrics;
+import org.swisspush.logtransformer.metrics.MessageRecorder;
+import org.swisspush.logtransformer.metrics.StrategyMetrics;
+import org.swisspush.logtransformer.strategy.BlockingTransformStrategy;
 import org.swisspush.logtransformer.strategy.DefaultTransformStrategyFinder;
+import org.swisspush.logtransformer.strategy.DocumentTransformStrategy;
+import org.swisspush.logtransformer.strategy.TransformStrategy;
 import org.swisspush.logtransformer.strategy.TransformStrategyFinder;
+import org.swisspush.logtransformer.strategy.TransformStrategyWarmUp;
+import org.swisspush.logtransformer.util.AdmissionController;
 import org.swisspush.logtransformer.util.Configuration;
+import org.swisspush.logtransformer.util.LogEntry;
+import org.swisspush.logtransformer.util.TaskExecutor;
+import org.swisspush.logtransformer.util.WorkerPool;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * @author https://github.com/mcweba [Marc-Andre Weber]
@@ -21,6 +57,48 @@ public class LogTransformer extends AbstractVerticle {
     private final Logger log = LoggerFactory.getLogger(LogTransformer.class);
     private LogTransformLogger logTransformLogger;
     private TransformStrategyFinder transformStrategyFinder;
+    private AutoCloseable ownedLogTransformLogger;
+    private SpillingLogTransformLogger spillingLogger;
+    private final Map<ThreadingModel, TaskExecutor> pipelineExecutors = new EnumMap<>(ThreadingModel.class);
+    private final Map<TransformStrategy, WorkerPool> strategyWorkerPools = new IdentityHashMap<>();
+    private final Map<String, WorkerPool> namedStrategyWorkerPools = new HashMap<>();
+    private final Map<String, TaskExecutor> workerPoolExecutors = new HashMap<>();
+    private WorkerPool loggerWorkerPool;
+    private final LogTransformerMetrics metrics;
+    private AdmissionController admissionController;
+    private Configuration.ReplyMode replyMode = Configuration.ReplyMode.WHEN_REQUESTED;
+    private long jfrThresholdNanos = 0;
+
+    /**
+     * The reply of successfully transformed and logged messages. The reply is copied by the event bus codec for
+     * local consumers, so the same instance can be used for all replies.
+     */
+    private static final JsonObject OK_REPLY = new JsonObject().put("status", "ok");
+
+    /**
+     * The failure code of messages rejected because the max number of in-flight messages has been reached
+     */
+    public static final int OVERLOADED_FAILURE_CODE = 503;
+
+    /**
+     * The property of a batch item containing the log
+     */
+    public static final String PROP_BATCH_LOG = "log";
+
+    /**
+     * The property of a batch item containing the headers of the log
+     */
+    public static final String PROP_BATCH_HEADERS = "headers";
+
+    /**
+     * The name prefix of the dedicated worker pools of the strategies
+     */
+    public static final String STRATEGY_WORKER_POOL_PREFIX = "log-transformer-strategy-";
+
+    /**
+     * The name prefix of the dedicated worker pool of the logger
+     */
+    public static final String LOGGER_WORKER_POOL_PREFIX = "log-transformer-logger-";
 
     public LogTransformer(){
         this(null, null);
@@ -35,44 +113,737 @@ public class LogTransformer extends AbstractVerticle {
     }
 
     public LogTransformer(LogTransformLogger logTransformLogger, TransformStrategyFinder transformStrategyFinder) {
+        this(logTransformLogger, transformStrategyFinder, new LogTransformerMetrics());
+    }
+
+    /**
+     * Use this constructor to share the logger, the finder and the metrics between multiple instances, see
+     * {@link LogTransformerFactory}. The provided logger and finder must be thread-safe in this case.
+     *
+     * @param logTransformLogger the logger or null to create a logger based on the configuration
+     * @param transformStrategyFinder the finder or null to create a finder based on the configuration
+     * @param metrics the metrics to record to
+     */
+    public LogTransformer(LogTransformLogger logTransformLogger, TransformStrategyFinder transformStrategyFinder,
+                          LogTransformerMetrics metrics) {
         this.logTransformLogger = logTransformLogger;
         this.transformStrategyFinder = transformStrategyFinder;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return the throughput, latency and error metrics per strategy
+     */
+    public LogTransformerMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
     public void start(Promise<Void> startPromise) throws Exception {
         log.info("LogTransformer started");
 
-        final EventBus eb = vertx.eventBus();
-        Configuration modConfig = Configuration.fromJsonObject(config());
+        Configuration modConfig;
+        try {
+            modConfig = Configuration.fromJsonObject(config());
+        } catch (IllegalArgumentException ex) {
+            log.error("Invalid LogTransformer configuration: " + ex.getMessage());
+            startPromise.fail(ex);
+            return;
+        }
         log.info("Starting LogTransformer module with configuration: " + modConfig);
+        this.replyMode = modConfig.getReplyMode();
+        this.jfrThresholdNanos = TimeUnit.MILLISECONDS.toNanos(modConfig.getJfrThreshold());
 
         if(this.logTransformLogger == null){
-            this.logTransformLogger = new DefaultLogTransformLogger(vertx, modConfig.getLoggerName());
+            this.logTransformLogger = LogTransformerFactory.createLogTransformLogger(vertx, modConfig);
+            if(this.logTransformLogger instanceof AutoCloseable){
+                this.ownedLogTransformLogger = (AutoCloseable) this.logTransformLogger;
+            }
         }
 
+        this.spillingLogger = spillingLogger(this.logTransformLogger);
+
         if(this.transformStrategyFinder == null) {
-            this.transformStrategyFinder = new DefaultTransformStrategyFinder(vertx, modConfig.getStrategyHeader());
+            this.transformStrategyFinder = LogTransformerFactory.createTransformStrategyFinder(vertx, modConfig);
+        }
+
+        createWorkerPools(modConfig);
+
+        warmUp(modConfig).onComplete(warmedUp -> {
+            registerConsumers(modConfig);
+            startPromise.complete();
+        });
+    }
+
+    /**
+     * Warms up the strategies before the consumers are registered, so the first messages are not delayed by class
+     * loading and interpreted code. Strategies with a dedicated pool are warmed up on it. Completed immediately when
+     * the warm-up is disabled.
+     */
+    private Future<Void> warmUp(Configuration modConfig) {
+        if(modConfig.getWarmupIterations() <= 0){
+            return Future.succeededFuture();
+        }
+        return new TransformStrategyWarmUp(vertx, modConfig.getWarmupIterations(), this::strategyWorkerPool)
+                .warmUp(transformStrategyFinder, modConfig.getStrategyHeader(), modConfig.getWarmupSamples());
+    }
+
+    private void registerConsumers(Configuration modConfig) {
+        final EventBus eb = vertx.eventBus();
+        MessageConsumer<Object> consumer = eb.consumer(modConfig.getAddress());
+        admissionController = new AdmissionController(context, consumer, modConfig.getMaxInFlight(), modConfig.isLoadShedding());
+        metrics.registerAdmissionController(admissionController);
+        consumer.handler(event -> {
+            if(!logTransformLogger.isEnabled()){
+                skip(event, OK_REPLY);
+                return;
+            }
+            if(!admissionController.tryAcquire()){
+                fail(event, OVERLOADED_FAILURE_CODE, "Max number of in-flight messages reached");
+                return;
+            }
+            MessageRecorder recorder = MessageRecorder.start(jfrThresholdNanos);
+            TransformStrategy strategy;
+            StrategyMetrics strategyMetrics;
+            try {
+                recorder.beginResolution();
+                strategy = transformStrategyFinder.findTransformStrategy(event.headers());
+                recorder.endResolution(strategy.getName());
+                log.info("About to transform log with strategy '" + strategy.getName() + "'");
+                strategyMetrics = metrics.strategyMetrics(strategy);
+                strategyMetrics.messageReceived();
+            } catch (Throwable t) {
+                admissionController.release();
+                fail(event, 0, errorMessage(t));
+                return;
+            }
+            if(modConfig.isFusedPipeline() && strategy instanceof BlockingTransformStrategy
+                    && logTransformLogger instanceof BlockingLogTransformLogger
+                    && !isExecutedOnStrategyWorkerPool(TaskExecutor.combine(((BlockingTransformStrategy) strategy).getThreadingModel(),
+                            ((BlockingLogTransformLogger) logTransformLogger).getThreadingModel()), strategyWorkerPool(strategy))){
+                transformAndLog(event, (BlockingTransformStrategy) strategy, (BlockingLogTransformLogger) logTransformLogger,
+                        strategyMetrics, recorder);
+            } else if(event.body() instanceof Buffer){
+                transformAndLog(event, strategyMetrics, recorder,
+                        handler -> transformBuffer(strategy, (Buffer) event.body(), handler), this::doLogBuffers);
+            } else {
+                transformAndLog(event, strategyMetrics, recorder,
+                        handler -> transformLog(strategy, event.body().toString(), handler), this::doLog);
+            }
+        });
+
+        if(modConfig.getBatchAddress() != null){
+            MessageConsumer<Object> batchConsumer = eb.consumer(modConfig.getBatchAddress());
+            admissionController.addStream(batchConsumer);
+            batchConsumer.handler(event -> {
+                if(!(event.body() instanceof JsonArray)){
+                    fail(event, 0, "Batch must be a JsonArray");
+                    return;
+                }
+                if(!logTransformLogger.isEnabled()){
+                    JsonArray batch = (JsonArray) event.body();
+                    skip(event, new JsonObject().put("status", "ok").put("items", batch.size()).put("entries", 0));
+                    return;
+                }
+                if(!admissionController.tryAcquire()){
+                    fail(event, OVERLOADED_FAILURE_CODE, "Max number of in-flight messages reached");
+                    return;
+                }
+                List<BatchItem> items;
+                try {
+                    items = batchItems((JsonArray) event.body(), event.headers());
+                } catch (Throwable t) {
+                    admissionController.release();
+                    fail(event, 0, errorMessage(t));
+                    return;
+                }
+                transformAndLogBatch(event, items, modConfig.isFusedPipeline());
+            });
+        }
+
+        if(modConfig.getMetricsAddress() != null){
+            eb.consumer(modConfig.getMetricsAddress(), event -> event.reply(metrics.snapshot()));
+        }
+    }
+
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+        if(admissionController != null){
+            metrics.unregisterAdmissionController(admissionController);
+        }
+        List<Future<Void>> closedExecutors = new ArrayList<>();
+        pipelineExecutors.values().forEach(executor -> closedExecutors.add(executor.close()));
+        pipelineExecutors.clear();
+        closeWorkerPools();
+        Future<Void> closed = Future.join(closedExecutors).mapEmpty();
+        if(ownedLogTransformLogger == null){
+            closed.onComplete(stopPromise);
+            return;
+        }
+        closed.compose(v -> vertx.executeBlocking(() -> {
+            ownedLogTransformLogger.close();
+            return null;
+        })).<Void>mapEmpty().onComplete(stopPromise);
+    }
+
+    /**
+     * Transforms and logs the log asynchronously and replies to the message once the log entries have been logged.
+     */
+    private <T> void transformAndLog(Message<Object> event, StrategyMetrics strategyMetrics, MessageRecorder recorder,
+                                     Consumer<Handler<AsyncResult<List<T>>>> transform,
+                                     BiConsumer<List<T>, Handler<AsyncResult<Void>>> doLog) {
+        recorder.beginTransform(event.body());
+        long transformStart = System.nanoTime();
+        guarded(transform, transformFuture -> {
+            strategyMetrics.transformed(System.nanoTime() - transformStart);
+            if(transformFuture.succeeded()){
+                List<T> logEntries = transformFuture.result();
+                recorder.endTransform(logEntries);
+                recorder.beginLog();
+                long logStart = System.nanoTime();
+                guarded(handler -> doLog.accept(logEntries, handler), (AsyncResult<Void> logFuture) -> {
+                    strategyMetrics.logged(System.nanoTime() - logStart);
+                    if(logFuture.succeeded()){
+                        recorder.endLog(size(logEntries));
+                        succeed(event, strategyMetrics, recorder, size(logEntries));
+                    } else {
+                        fail(event, strategyMetrics, recorder, errorMessage(logFuture.cause()));
+                    }
+                });
+            } else {
+                fail(event, strategyMetrics, recorder, errorMessage(transformFuture.cause()));
+            }
+        });
+    }
+
+    /**
+     * Transforms and logs the log and replies to the message within a single task. UTF-8 encoded logs are
+     * transformed and logged without converting them to a String. A {@link StructuredLogTransformLogger} receives the
+     * log entries unencoded for UTF-8 encoded logs and for strategies producing documents. String logs of other
+     * strategies are transformed with {@link BlockingTransformStrategy#transformLogBlocking(String)}, since the
+     * default {@link BlockingTransformStrategy#transformEntriesBlocking(Buffer)} would convert them to a Buffer and back.
+     */
+    private void transformAndLog(Message<Object> event, BlockingTransformStrategy strategy, BlockingLogTransformLogger logger,
+                                 StrategyMetrics strategyMetrics, MessageRecorder recorder) {
+        recorder.beginQueueWait();
+        queued();
+        pipelineExecutor(TaskExecutor.combine(strategy.getThreadingModel(), logger.getThreadingModel()), null).execute(() -> {
+            dequeued();
+            recorder.endQueueWait();
+            int logEntries;
+            try {
+                recorder.beginTransform(event.body());
+                long transformStart = System.nanoTime();
+                long logStart;
+                if(logger instanceof StructuredLogTransformLogger
+                        && (event.body() instanceof Buffer || strategy instanceof DocumentTransformStrategy)){
+                    Buffer body = event.body() instanceof Buffer ? (Buffer) event.body() : Buffer.buffer(event.body().toString());
+                    List<LogEntry> transformed = strategy.transformEntriesBlocking(body);
+                    logStart = System.nanoTime();
+                    strategyMetrics.transformed(logStart - transformStart);
+                    recorder.endTransform(transformed);
+                    recorder.beginLog();
+                    ((StructuredLogTransformLogger) logger).doLogEntriesBlocking(transformed);
+                    logEntries = size(transformed);
+                } else if(event.body() instanceof Buffer){
+                    List<Buffer> transformed = strategy.transformBufferBlocking((Buffer) event.body());
+                    logStart = System.nanoTime();
+                    strategyMetrics.transformed(logStart - transformStart);
+                    recorder.endTransform(transformed);
+                    recorder.beginLog();
+                    logger.doLogBuffersBlocking(transformed);
+                    logEntries = size(transformed);
+                } else {
+                    List<String> transformed = strategy.transformLogBlocking(event.body().toString());
+                    logStart = System.nanoTime();
+                    strategyMetrics.transformed(logStart - transformStart);
+                    recorder.endTransform(transformed);
+                    recorder.beginLog();
+                    logger.doLogBlocking(transformed);
+                    logEntries = size(transformed);
+                }
+                strategyMetrics.logged(System.nanoTime() - logStart);
+                recorder.endLog(logEntries);
+            } catch (Throwable t) {
+                fail(event, strategyMetrics, recorder, errorMessage(t));
+                return;
+            }
+            succeed(event, strategyMetrics, recorder, logEntries);
+        });
+    }
+
+    /**
+     * Completes a message without transforming it, since the logger would discard the log entries anyway.
+     */
+    private void skip(Message<Object> event, JsonObject reply) {
+        metrics.messageSkipped();
+        if(shouldReply(event)){
+            event.reply(reply);
+        }
+    }
+
+    private void succeed(Message<Object> event, StrategyMetrics strategyMetrics, MessageRecorder recorder, int logEntries) {
+        strategyMetrics.messageSucceeded(logEntries);
+        recorder.commit();
+        admissionController.release();
+        if(shouldReply(event)){
+            event.reply(OK_REPLY);
+        }
+    }
+
+    private void fail(Message<Object> event, StrategyMetrics strategyMetrics, MessageRecorder recorder, String message) {
+        strategyMetrics.messageFailed();
+        recorder.fail();
+        recorder.commit();
+        admissionController.release();
+        fail(event, 0, message);
+    }
+
+    /**
+     * Calls the provided operation and completes the handler with the failure when the operation throws, including
+     * {@link Error}s, so the permit of the message is always released. The handler is completed at most once.
+     */
+    private static <T> void guarded(Consumer<Handler<AsyncResult<T>>> operation, Handler<AsyncResult<T>> handler) {
+        AtomicBoolean completed = new AtomicBoolean();
+        Handler<AsyncResult<T>> completeOnce = result -> {
+            if(completed.compareAndSet(false, true)){
+                handler.handle(result);
+            }
+        };
+        try {
+            operation.accept(completeOnce);
+        } catch (Throwable t) {
+            completeOnce.handle(Future.failedFuture(t));
+        }
+    }
+
+    /**
+     * @return the message of the provided failure or its type when it has no message, e.g. for a NullPointerException
+     */
+    private static String errorMessage(Throwable t) {
+        return t.getMessage() != null ? t.getMessage() : t.toString();
+    }
+
+    /**
+     * Counts a task of the fused pipeline waiting for its execution, so a {@link SpillingLogTransformLogger} spills
+     * when the tasks queue up before reaching the logger.
+     */
+    private void queued() {
+        if(spillingLogger != null){
+            spillingLogger.queued();
+        }
+    }
+
+    private void dequeued() {
+        if(spillingLogger != null){
+            spillingLogger.dequeued();
+        }
+    }
+
+    /**
+     * @return the provided logger or the logger decorated with deduplication when it is a
+     * {@link SpillingLogTransformLogger}, null otherwise
+     */
+    private static SpillingLogTransformLogger spillingLogger(LogTransformLogger logger) {
+        if(logger instanceof DeduplicatingLogTransformLogger){
+            logger = ((DeduplicatingLogTransformLogger) logger).getDelegate();
+        }
+        return logger instanceof SpillingLogTransformLogger ? (SpillingLogTransformLogger) logger : null;
+    }
+
+    private static int size(List<?> logEntries) {
+        return logEntries == null ? 0 : logEntries.size();
+    }
+
+    /**
+     * The pipeline is executed on a virtual thread when the strategy or the logger requires a virtual thread, on a
+     * worker thread when the strategy or the logger requires a worker thread and on the event loop otherwise. Worker
+     * threads are taken from the provided dedicated pool when available and from the shared Vert.x worker pool
+     * otherwise. The tasks of the shared pool are ordered per instance.
+     */
+    private TaskExecutor pipelineExecutor(ThreadingModel threadingModel, WorkerPool workerPool) {
+        if(workerPool != null && threadingModel == ThreadingModel.WORKER){
+            return workerPoolExecutors.computeIfAbsent(workerPool.getName(),
+                    name -> new TaskExecutor(vertx, ThreadingModel.WORKER, workerPool));
+        }
+        return pipelineExecutors.computeIfAbsent(threadingModel, model -> new TaskExecutor(vertx, model));
+    }
+
+    /**
+     * Creates the dedicated worker pools of the strategies and the logger. Vert.x shares the pools by name between
+     * multiple instances. The configured strategy names are resolved with a {@link DefaultTransformStrategyFinder},
+     * so registered aliases and chains get their own pool. Names the finder does not know, and all names of other
+     * finders, are matched case-insensitive to the {@link TransformStrategy#getName() name} of the strategy. The
+     * pool of the logger is ordered, so the log entries of an instance are logged in the order the messages have
+     * been transformed, like on the shared Vert.x worker pool. The pools of the strategies are not ordered.
+     */
+    private void createWorkerPools(Configuration config) {
+        config.getStrategyWorkerPoolSizes().forEach((name, poolSize) -> {
+            if(poolSize <= 0){
+                return;
+            }
+            WorkerPool workerPool = createWorkerPool(STRATEGY_WORKER_POOL_PREFIX + name, poolSize, config.getWorkerPoolMaxExecuteTime(), false);
+            TransformStrategy strategy = transformStrategyFinder instanceof DefaultTransformStrategyFinder
+                    ? ((DefaultTransformStrategyFinder) transformStrategyFinder).getTransformStrategy(name) : null;
+            if(strategy != null){
+                strategyWorkerPools.put(strategy, workerPool);
+            } else {
+                namedStrategyWorkerPools.put(name.toLowerCase(Locale.ROOT), workerPool);
+            }
+        });
+        if(config.getLoggerWorkerPoolSize() > 0){
+            loggerWorkerPool = createWorkerPool(LOGGER_WORKER_POOL_PREFIX + config.getLoggerName(),
+                    config.getLoggerWorkerPoolSize(), config.getWorkerPoolMaxExecuteTime(), true);
+        }
+    }
+
+    private WorkerPool createWorkerPool(String name, int poolSize, long maxExecuteTime, boolean ordered) {
+        log.info("Creating worker pool '" + name + "' with " + poolSize + " threads");
+        WorkerPool workerPool = new WorkerPool(vertx, name, poolSize, maxExecuteTime, ordered);
+        metrics.registerWorkerPool(workerPool);
+        return workerPool;
+    }
+
+    private void closeWorkerPools() {
+        List<WorkerPool> workerPools = new ArrayList<>(strategyWorkerPools.values());
+        workerPools.addAll(namedStrategyWorkerPools.values());
+        if(loggerWorkerPool != null){
+            workerPools.add(loggerWorkerPool);
+        }
+        for (WorkerPool workerPool : workerPools) {
+            metrics.unregisterWorkerPool(workerPool);
+            workerPool.close();
+        }
+        strategyWorkerPools.clear();
+        namedStrategyWorkerPools.clear();
+        workerPoolExecutors.clear();
+        loggerWorkerPool = null;
+    }
+
+    /**
+     * The tasks of a dedicated strategy pool are not ordered, so a fused task executed on it would log the entries of
+     * concurrent messages in any order and from multiple threads at once. Such messages are transformed on the pool of
+     * the strategy and logged like without the fused pipeline instead.
+     *
+     * @return true when a task of the provided threading model would be executed on the provided strategy pool
+     */
+    private static boolean isExecutedOnStrategyWorkerPool(ThreadingModel threadingModel, WorkerPool workerPool) {
+        return workerPool != null && threadingModel == ThreadingModel.WORKER;
+    }
+
+    /**
+     * @return the dedicated worker pool of the provided strategy or null when the strategy uses the shared pool
+     */
+    private WorkerPool strategyWorkerPool(TransformStrategy strategy) {
+        WorkerPool workerPool = strategyWorkerPools.isEmpty() ? null : strategyWorkerPools.get(strategy);
+        if(workerPool != null || namedStrategyWorkerPools.isEmpty()){
+            return workerPool;
+        }
+        return namedStrategyWorkerPools.get(strategy.getName().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the executor of the dedicated worker pool of the provided strategy or null when the strategy executes
+     * the transformation itself. Only {@link BlockingTransformStrategy} implementations using worker threads can be
+     * executed on a dedicated pool
+     */
+    private TaskExecutor strategyExecutor(TransformStrategy strategy) {
+        WorkerPool workerPool = strategyWorkerPool(strategy);
+        if(workerPool == null || !(strategy instanceof BlockingTransformStrategy)
+                || ((BlockingTransformStrategy) strategy).getThreadingModel() != ThreadingModel.WORKER){
+            return null;
+        }
+        return pipelineExecutor(ThreadingModel.WORKER, workerPool);
+    }
+
+    /**
+     * @return the executor of the dedicated worker pool of the logger or null when the logger executes the logging
+     * itself. Only {@link BlockingLogTransformLogger} implementations using worker threads can be executed on a
+     * dedicated pool
+     */
+    private TaskExecutor loggerExecutor() {
+        if(loggerWorkerPool == null || !(logTransformLogger instanceof BlockingLogTransformLogger)
+                || ((BlockingLogTransformLogger) logTransformLogger).getThreadingModel() != ThreadingModel.WORKER){
+            return null;
+        }
+        return pipelineExecutor(ThreadingModel.WORKER, loggerWorkerPool);
+    }
+
+    private void transformLog(TransformStrategy strategy, String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+        TaskExecutor executor = strategyExecutor(strategy);
+        if(executor != null){
+            executor.execute(() -> ((BlockingTransformStrategy) strategy).transformLogBlocking(logToTransform), resultHandler);
+        } else {
+            strategy.transformLog(logToTransform, resultHandler);
+        }
+    }
+
+    private void transformBuffer(TransformStrategy strategy, Buffer logToTransform, Handler<AsyncResult<List<Buffer>>> resultHandler) {
+        TaskExecutor executor = strategyExecutor(strategy);
+        if(executor != null){
+            executor.execute(() -> ((BlockingTransformStrategy) strategy).transformBufferBlocking(logToTransform), resultHandler);
+        } else {
+            strategy.transformBuffer(logToTransform, resultHandler);
+        }
+    }
+
+    private void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        TaskExecutor executor = loggerExecutor();
+        if(executor != null){
+            executor.execute(() -> {
+                ((BlockingLogTransformLogger) logTransformLogger).doLogBlocking(logEntries);
+                return null;
+            }, resultHandler);
+        } else {
+            logTransformLogger.doLog(logEntries, resultHandler);
+        }
+    }
+
+    private void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        TaskExecutor executor = loggerExecutor();
+        if(executor != null){
+            executor.execute(() -> {
+                ((BlockingLogTransformLogger) logTransformLogger).doLogBuffersBlocking(logEntries);
+                return null;
+            }, resultHandler);
+        } else {
+            logTransformLogger.doLogBuffers(logEntries, resultHandler);
+        }
+    }
+
+    /**
+     * Transforms the logs of all items of the batch and logs all transformed log entries with a single call of the
+     * logger. When the strategies of all items and the logger support it, the whole batch is transformed and logged
+     * within a single task, like a single message. Items of strategies with a dedicated pool are transformed on their
+     * pools and logged afterwards instead. The stages of every item are recorded like the ones of a single message.
+     */
+    private void transformAndLogBatch(Message<Object> event, List<BatchItem> items, boolean fusedPipeline) {
+        boolean blocking = fusedPipeline && logTransformLogger instanceof BlockingLogTransformLogger;
+        ThreadingModel threadingModel = blocking ? ((BlockingLogTransformLogger) logTransformLogger).getThreadingModel() : null;
+        WorkerPool workerPool = null;
+        boolean firstItem = true;
+        for (BatchItem item : items) {
+            if(!blocking){
+                break;
+            }
+            if(item.failed){
+                continue;
+            }
+            WorkerPool itemWorkerPool = strategyWorkerPool(item.strategy);
+            if(!(item.strategy instanceof BlockingTransformStrategy) || (!firstItem && itemWorkerPool != workerPool)){
+                blocking = false;
+                break;
+            }
+            threadingModel = TaskExecutor.combine(threadingModel, ((BlockingTransformStrategy) item.strategy).getThreadingModel());
+            workerPool = itemWorkerPool;
+            firstItem = false;
         }
+        blocking = blocking && !isExecutedOnStrategyWorkerPool(threadingModel, workerPool);
 
-        eb.consumer(modConfig.getAddress(), event -> {
-            TransformStrategy strategy = transformStrategyFinder.findTransformStrategy(event.headers());
-            log.info("About to transform log with strategy '" + strategy.getClass().getSimpleName() + "'");
-            strategy.transformLog(event.body().toString(), transformFuture -> {
+        if(blocking){
+            for (BatchItem item : items) {
+                item.recorder.beginQueueWait();
+            }
+            queued();
+            pipelineExecutor(threadingModel, null).execute(() -> {
+                dequeued();
+                for (BatchItem item : items) {
+                    item.recorder.endQueueWait();
+                    if(item.failed){
+                        continue;
+                    }
+                    item.recorder.beginTransform(item.log);
+                    long transformStart = System.nanoTime();
+                    try {
+                        item.logEntries = ((BlockingTransformStrategy) item.strategy).transformLogBlocking(item.log);
+                        item.recorder.endTransform(item.logEntries);
+                    } catch (Throwable t) {
+                        item.fail(errorMessage(t));
+                    }
+                    item.strategyMetrics.transformed(System.nanoTime() - transformStart);
+                }
+                List<String> logEntries = batchLogEntries(items);
+                long logStart = System.nanoTime();
+                try {
+                    ((BlockingLogTransformLogger) logTransformLogger).doLogBlocking(logEntries);
+                } catch (Throwable t) {
+                    failBatch(event, items, errorMessage(t));
+                    return;
+                }
+                succeedBatch(event, items, System.nanoTime() - logStart);
+            });
+            return;
+        }
+
+        List<Future<List<String>>> transformFutures = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            if(item.failed){
+                continue;
+            }
+            Promise<List<String>> promise = Promise.promise();
+            item.recorder.beginTransform(item.log);
+            long transformStart = System.nanoTime();
+            guarded(handler -> transformLog(item.strategy, item.log, handler), promise);
+            transformFutures.add(promise.future().onComplete(transformFuture -> {
+                item.strategyMetrics.transformed(System.nanoTime() - transformStart);
                 if(transformFuture.succeeded()){
-                    logTransformLogger.doLog(transformFuture.result(), logFuture -> {
-                        if(logFuture.succeeded()){
-                            event.reply(new JsonObject().put("status", "ok"));
-                        } else {
-                            event.fail(0, logFuture.cause().getMessage());
-                        }
-                    });
+                    item.logEntries = transformFuture.result();
+                    item.recorder.endTransform(item.logEntries);
                 } else {
-                    event.fail(0, transformFuture.cause().getMessage());
+                    item.fail(errorMessage(transformFuture.cause()));
+                }
+            }));
+        }
+        Future.join(transformFutures).onComplete(transformed -> {
+            List<String> logEntries = batchLogEntries(items);
+            long logStart = System.nanoTime();
+            guarded(handler -> doLog(logEntries, handler), (AsyncResult<Void> logFuture) -> {
+                if(logFuture.succeeded()){
+                    succeedBatch(event, items, System.nanoTime() - logStart);
+                } else {
+                    failBatch(event, items, errorMessage(logFuture.cause()));
                 }
             });
         });
+    }
 
-        startPromise.complete();
+    private List<BatchItem> batchItems(JsonArray batch, MultiMap headers) {
+        List<BatchItem> items = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            BatchItem item = new BatchItem(i, batch.getValue(i), headers);
+            item.strategyMetrics.messageReceived();
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * @return the log entries of all successfully transformed items. The logging of these items is recorded as started
+     */
+    private static List<String> batchLogEntries(List<BatchItem> items) {
+        int size = 0;
+        for (BatchItem item : items) {
+            size += size(item.logEntries);
+        }
+        List<String> logEntries = new ArrayList<>(size);
+        for (BatchItem item : items) {
+            if(!item.failed){
+                item.recorder.beginLog();
+                if(item.logEntries != null){
+                    logEntries.addAll(item.logEntries);
+                }
+            }
+        }
+        return logEntries;
+    }
+
+    private void succeedBatch(Message<Object> event, List<BatchItem> items, long logNanos) {
+        int entries = 0;
+        JsonArray failedItems = new JsonArray();
+        Set<StrategyMetrics> loggedStrategies = new HashSet<>();
+        for (BatchItem item : items) {
+            if(item.failed){
+                item.strategyMetrics.messageFailed();
+                failedItems.add(new JsonObject().put("index", item.index).put("error", item.error));
+            } else {
+                item.recorder.endLog(size(item.logEntries));
+                item.strategyMetrics.messageSucceeded(size(item.logEntries));
+                entries += size(item.logEntries);
+                if(loggedStrategies.add(item.strategyMetrics)){
+                    item.strategyMetrics.logged(logNanos);
+                }
+            }
+            item.recorder.commit();
+        }
+        admissionController.release();
+        if(!shouldReply(event)){
+            return;
+        }
+        JsonObject reply = new JsonObject()
+                .put("status", failedItems.isEmpty() ? "ok" : "partial")
+                .put("items", items.size())
+                .put("entries", entries);
+        if(!failedItems.isEmpty()){
+            reply.put("failedItems", failedItems);
+        }
+        event.reply(reply);
+    }
+
+    private void failBatch(Message<Object> event, List<BatchItem> items, String message) {
+        for (BatchItem item : items) {
+            item.strategyMetrics.messageFailed();
+            if(!item.failed){
+                item.recorder.fail();
+            }
+            item.recorder.commit();
+        }
+        admissionController.release();
+        fail(event, 0, message);
+    }
+
+    private void fail(Message<Object> event, int failureCode, String message) {
+        if(shouldReply(event)){
+            event.fail(failureCode, message);
+        }
+    }
+
+    private boolean shouldReply(Message<Object> event) {
+        switch (replyMode) {
+            case NEVER:
+                return false;
+            case WHEN_REQUESTED:
+                return event.replyAddress() != null;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * A single log of a batch. An item is either the log itself or a JsonObject containing the log in the
+     * <code>log</code> property and optional <code>headers</code> overriding the headers of the batch message. Items
+     * without a log are rejected without being transformed.
+     */
+    private class BatchItem {
+        private final int index;
+        private final String log;
+        private final TransformStrategy strategy;
+        private final StrategyMetrics strategyMetrics;
+        private final MessageRecorder recorder = MessageRecorder.start(jfrThresholdNanos);
+        private List<String> logEntries;
+        private boolean failed;
+        private String error;
+
+        BatchItem(int index, Object item, MultiMap batchHeaders) {
+            this.index = index;
+            MultiMap headers = batchHeaders;
+            Object itemLog = item;
+            if(item instanceof JsonObject){
+                JsonObject itemObj = (JsonObject) item;
+                JsonObject itemHeaders = itemObj.getJsonObject(PROP_BATCH_HEADERS);
+                if(itemHeaders != null){
+                    headers = MultiMap.caseInsensitiveMultiMap().addAll(batchHeaders);
+                    for (Map.Entry<String, Object> header : itemHeaders) {
+                        headers.set(header.getKey(), String.valueOf(header.getValue()));
+                    }
+                }
+                itemLog = itemObj.getValue(PROP_BATCH_LOG);
+            }
+            this.log = itemLog == null ? null : itemLog.toString();
+            recorder.beginResolution();
+            this.strategy = transformStrategyFinder.findTransformStrategy(headers);
+            recorder.endResolution(strategy.getName());
+            this.strategyMetrics = metrics.strategyMetrics(strategy);
+            if(this.log == null){
+                this.failed = true;
+                this.error = "Batch item has no " + PROP_BATCH_LOG;
+            }
+        }
+
+        void fail(String error) {
+            this.failed = true;
+            this.error = error;
+            this.logEntries = null;
+            recorder.fail();
+        }
     }
 }
@@ -0,0 +1,166 @@
+package org.swisspush.logtransformer;
+
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import org.swisspush.logtransformer.logger.BatchingLogTransformLogger;
+import org.swisspush.logtransformer.logger.CompressedRollingLogTransformLogger;
+import org.swisspush.logtransformer.logger.DeduplicatingLogTransformLogger;
+import org.swisspush.logtransformer.logger.DefaultLogTransformLogger;
+import org.swisspush.logtransformer.logger.LogTransformLogger;
+import org.swisspush.logtransformer.logger.MappedSegmentLogTransformLogger;
+import org.swisspush.logtransformer.logger.SpillingLogTransformLogger;
+import org.swisspush.logtransformer.metrics.LogTransformerMetrics;
+import org.swisspush.logtransformer.strategy.DefaultTransformStrategyFinder;
+import org.swisspush.logtransformer.strategy.TransformStrategyFinder;
+import org.swisspush.logtransformer.util.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Creates {@link LogTransformer} instances sharing a single {@link LogTransformLogger}, {@link TransformStrategyFinder}
+ * and {@link LogTransformerMetrics}. The logger and the finder are created eagerly when the factory is created.
+ * </p>
+ * <p>
+ * Use this factory to deploy multiple instances of the {@link LogTransformer}. Every instance consumes the messages
+ * on its own event loop, the messages are distributed round-robin between the instances:
+ * </p>
+ * <pre>
+ * Configuration config = Configuration.with().build();
+ * LogTransformerFactory factory = new LogTransformerFactory(vertx, config);
+ * vertx.deployVerticle(factory, new DeploymentOptions().setConfig(config.asJsonObject()).setInstances(16));
+ * </pre>
+ * <p>
+ * The shared logger is not closed when the instances are undeployed. Call {@link #close()} after all instances have
+ * been undeployed.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class LogTransformerFactory implements Supplier<Verticle>, AutoCloseable {
+
+    private final LogTransformLogger logTransformLogger;
+    private final TransformStrategyFinder transformStrategyFinder;
+    private final LogTransformerMetrics metrics = new LogTransformerMetrics();
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param configuration the configuration used to create the logger and the finder
+     */
+    public LogTransformerFactory(Vertx vertx, Configuration configuration) {
+        this(createLogTransformLogger(vertx, configuration), createTransformStrategyFinder(vertx, configuration));
+    }
+
+    /**
+     * @param logTransformLogger the thread-safe logger shared by all instances
+     * @param transformStrategyFinder the thread-safe finder shared by all instances
+     */
+    public LogTransformerFactory(LogTransformLogger logTransformLogger, TransformStrategyFinder transformStrategyFinder) {
+        this.logTransformLogger = logTransformLogger;
+        this.transformStrategyFinder = transformStrategyFinder;
+    }
+
+    @Override
+    public Verticle get() {
+        return new LogTransformer(logTransformLogger, transformStrategyFinder, metrics);
+    }
+
+    public LogTransformLogger getLogTransformLogger() {
+        return logTransformLogger;
+    }
+
+    public TransformStrategyFinder getTransformStrategyFinder() {
+        return transformStrategyFinder;
+    }
+
+    /**
+     * @return the metrics shared by all instances
+     */
+    public LogTransformerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Closes the shared logger when it holds resources (e.g. the drain thread of a batching logger).
+     */
+    @Override
+    public void close() throws Exception {
+        if (logTransformLogger instanceof AutoCloseable) {
+            ((AutoCloseable) logTransformLogger).close();
+        }
+    }
+
+    static LogTransformLogger createLogTransformLogger(Vertx vertx, Configuration configuration) {
+        LogTransformLogger logger = createTypedLogTransformLogger(vertx, configuration);
+        if (configuration.getSpillThreshold() > 0) {
+            Path journalFile = Paths.get(configuration.getLoggerDirectory(), configuration.getLoggerName() + "-spill.journal");
+            try {
+                logger = SpillingLogTransformLogger.create(logger, journalFile, configuration.getSpillThreshold(),
+                        configuration.getSpillMaxSize(), configuration.getLoggerBatchSize());
+            } catch (IOException ex) {
+                RuntimeException failure = new UncheckedIOException("Could not open the spill journal " + journalFile, ex);
+                closeQuietly(logger, failure);
+                throw failure;
+            } catch (RuntimeException ex) {
+                closeQuietly(logger, ex);
+                throw ex;
+            }
+        }
+        if (configuration.getDedupWindow() > 0) {
+            return DeduplicatingLogTransformLogger.create(vertx, logger, configuration.getDedupCacheSize(),
+                    configuration.getDedupWindow(), configuration.getDedupReportInterval());
+        }
+        return logger;
+    }
+
+    /**
+     * Closes the provided logger when it holds resources. A failure is added to the provided failure.
+     */
+    private static void closeQuietly(LogTransformLogger logger, RuntimeException failure) {
+        if (logger instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) logger).close();
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                failure.addSuppressed(ex);
+            }
+        }
+    }
+
+    private static LogTransformLogger createTypedLogTransformLogger(Vertx vertx, Configuration configuration) {
+        if (configuration.getLoggerType() == Configuration.LoggerType.BATCHING) {
+            return BatchingLogTransformLogger.create(vertx, configuration.getLoggerName(), configuration.getLoggerQueueSize(),
+                    configuration.getLoggerBatchSize(), configuration.getLoggerFlushInterval());
+        }
+        if (configuration.getLoggerType() == Configuration.LoggerType.MAPPED_SEGMENT) {
+            try {
+                return new MappedSegmentLogTransformLogger(vertx, configuration.getLoggerThreadingModel(),
+                        Paths.get(configuration.getLoggerDirectory()), configuration.getLoggerName(),
+                        configuration.getLoggerSegmentSize(), configuration.getLoggerForcePolicy());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not create the segment file in " + configuration.getLoggerDirectory(), ex);
+            }
+        }
+        if (configuration.getLoggerType() == Configuration.LoggerType.COMPRESSED_ROLLING) {
+            try {
+                return CompressedRollingLogTransformLogger.create(vertx, Paths.get(configuration.getLoggerDirectory()),
+                        configuration.getLoggerName(), configuration.getLoggerQueueSize(), configuration.getLoggerBatchSize(),
+                        configuration.getLoggerFlushInterval(), configuration.getLoggerBlockSize(),
+                        configuration.getLoggerRollSize(), configuration.getLoggerRollInterval());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not create the directory " + configuration.getLoggerDirectory(), ex);
+            }
+        }
+        return new DefaultLogTransformLogger(vertx, configuration.getLoggerName(), configuration.getLoggerThreadingModel());
+    }
+
+    static TransformStrategyFinder createTransformStrategyFinder(Vertx vertx, Configuration configuration) {
+        return new DefaultTransformStrategyFinder(vertx, configuration);
+    }
+}
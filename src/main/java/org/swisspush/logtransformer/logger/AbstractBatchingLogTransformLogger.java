@@ -0,0 +1,220 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * Abstract implementation of the {@link LogTransformLogger} interface writing the log entries in batches.
+ * </p>
+ * <p>
+ * The log entries are enqueued into a bounded queue without blocking the caller. A single drain thread collects the
+ * enqueued log entries into a batch until either the batch size is reached or the flush interval has elapsed. The
+ * batch is then written with {@link #writeBatch(List)} and the result handlers of all log entries contained in the
+ * batch are completed. When the queue is full, the result handler is failed immediately.
+ * </p>
+ * <p>
+ * Every result handler is completed exactly once. When the drain thread is interrupted, the logger is closed and the
+ * result handlers of the log entries not written yet are failed.
+ * </p>
+ * <p>
+ * The drain thread is not started by the constructor, so it never sees a partially constructed subclass. Call
+ * {@link #start()} once the logger has been constructed.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public abstract class AbstractBatchingLogTransformLogger implements LogTransformLogger, AutoCloseable {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Vertx vertx;
+    private final BlockingQueue<PendingLog> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread drainThread;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean closed = false;
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param name the name of the drain thread
+     * @param queueSize the max number of pending {@link #doLog(List, Handler)} calls
+     * @param batchSize the max number of log entries written in a single batch
+     * @param flushIntervalMs the max time in milliseconds to wait for more log entries before writing a batch
+     */
+    protected AbstractBatchingLogTransformLogger(Vertx vertx, String name, int queueSize, int batchSize, long flushIntervalMs) {
+        this.vertx = vertx;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.drainThread = new Thread(this::drain, name);
+        this.drainThread.setDaemon(true);
+    }
+
+    /**
+     * Starts the drain thread. Log entries enqueued before are written once the drain thread has been started.
+     *
+     * @throws IllegalStateException when the logger has already been started or closed
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Logger is already started");
+        }
+        drainThread.start();
+    }
+
+    /**
+     * Writes the provided batch of log entries. This method is always called from the same thread.
+     *
+     * @param logEntries the log entries to write
+     * @throws Exception when the log entries could not be written
+     */
+    protected abstract void writeBatch(List<String> logEntries) throws Exception;
+
+    /**
+     * Called on the drain thread when no log entries are pending. Override to flush buffered output.
+     *
+     * @throws Exception when the buffered output could not be flushed
+     */
+    protected void onIdle() throws Exception {
+        // nothing to do by default
+    }
+
+    /**
+     * Called on the drain thread after the last batch has been written. Override to release resources.
+     *
+     * @throws Exception when the resources could not be released
+     */
+    protected void onClose() throws Exception {
+        // nothing to do by default
+    }
+
+    @Override
+    public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        if (closed) {
+            resultHandler.handle(Future.failedFuture("Logger is closed"));
+            return;
+        }
+        if (logEntries == null || logEntries.isEmpty()) {
+            resultHandler.handle(Future.succeededFuture());
+            return;
+        }
+        PendingLog pendingLog = new PendingLog(logEntries, vertx.getOrCreateContext(), resultHandler);
+        if (!queue.offer(pendingLog)) {
+            resultHandler.handle(Future.failedFuture("Logger queue is full"));
+            return;
+        }
+        // the drain thread may have stopped between the check above and the offer. Whoever removes the pending log
+        // from the queue completes it
+        if (closed && queue.remove(pendingLog)) {
+            resultHandler.handle(Future.failedFuture("Logger is closed"));
+        }
+    }
+
+    /**
+     * Writes all pending log entries and stops the drain thread. When the logger has never been started, the pending
+     * log entries are written and the resources are released on the calling thread.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        if (started.compareAndSet(false, true)) {
+            drain();
+            return;
+        }
+        drainThread.join();
+    }
+
+    private void drain() {
+        List<PendingLog> batch = new ArrayList<>();
+        List<String> logEntries = new ArrayList<>();
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingLog first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    onIdle();
+                    continue;
+                }
+                batch.add(first);
+                logEntries.addAll(first.logEntries);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (logEntries.size() < batchSize) {
+                    PendingLog next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    logEntries.addAll(next.logEntries);
+                }
+                write(batch, logEntries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+                fail(batch, "Logger was interrupted");
+                break;
+            } catch (Exception e) {
+                log.error("Error while draining log entries", e);
+            } finally {
+                batch.clear();
+                logEntries.clear();
+            }
+        }
+        List<PendingLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        fail(remaining, "Logger is closed");
+        try {
+            onClose();
+        } catch (Exception e) {
+            log.error("Error while closing logger", e);
+        }
+    }
+
+    private void fail(List<PendingLog> pendingLogs, String message) {
+        AsyncResult<Void> result = Future.failedFuture(message);
+        for (PendingLog pendingLog : pendingLogs) {
+            pendingLog.complete(result);
+        }
+    }
+
+    private void write(List<PendingLog> batch, List<String> logEntries) {
+        AsyncResult<Void> result;
+        try {
+            writeBatch(logEntries);
+            result = Future.succeededFuture();
+        } catch (Exception e) {
+            result = Future.failedFuture(e);
+        }
+        for (PendingLog pendingLog : batch) {
+            pendingLog.complete(result);
+        }
+    }
+
+    private static class PendingLog {
+        private final List<String> logEntries;
+        private final Context context;
+        private final Handler<AsyncResult<Void>> resultHandler;
+
+        PendingLog(List<String> logEntries, Context context, Handler<AsyncResult<Void>> resultHandler) {
+            this.logEntries = logEntries;
+            this.context = context;
+            this.resultHandler = resultHandler;
+        }
+
+        void complete(AsyncResult<Void> result) {
+            context.runOnContext(v -> resultHandler.handle(result));
+        }
+    }
+}
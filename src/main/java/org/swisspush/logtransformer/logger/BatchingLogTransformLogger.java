@@ -0,0 +1,59 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.CachedLogLevel;
+
+import java.util.List;
+
+/**
+ * Implementation of the {@link AbstractBatchingLogTransformLogger} writing the log entries in batches to the
+ * configured logger. Other than the {@link DefaultLogTransformLogger}, no tasks are executed on the Vert.x worker
+ * pool.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class BatchingLogTransformLogger extends AbstractBatchingLogTransformLogger {
+
+    private final Logger log;
+    private final CachedLogLevel logLevel;
+
+    private BatchingLogTransformLogger(Vertx vertx, String loggerName, int queueSize, int batchSize, long flushIntervalMs) {
+        super(vertx, "log-transformer-batching-" + loggerName, queueSize, batchSize, flushIntervalMs);
+        this.log = LoggerFactory.getLogger(loggerName);
+        this.logLevel = new CachedLogLevel(log);
+    }
+
+    /**
+     * Creates a started {@link BatchingLogTransformLogger}
+     *
+     * @param vertx the Vert.x instance
+     * @param loggerName the name of the logger to write the log entries to
+     * @param queueSize the max number of pending {@link #doLog(List, io.vertx.core.Handler)} calls
+     * @param batchSize the max number of log entries written in a single batch
+     * @param flushIntervalMs the max time in milliseconds to wait for more log entries before writing a batch
+     * @return the started logger
+     */
+    public static BatchingLogTransformLogger create(Vertx vertx, String loggerName, int queueSize, int batchSize, long flushIntervalMs) {
+        BatchingLogTransformLogger logger = new BatchingLogTransformLogger(vertx, loggerName, queueSize, batchSize, flushIntervalMs);
+        logger.start();
+        return logger;
+    }
+
+    /**
+     * @return whether the info level of the logger is enabled. Level changes are picked up within
+     * {@value CachedLogLevel#DEFAULT_REFRESH_INTERVAL_MS}ms
+     */
+    @Override
+    public boolean isEnabled() {
+        return logLevel.isInfoEnabled();
+    }
+
+    @Override
+    protected void writeBatch(List<String> logEntries) {
+        for (String logEntry : logEntries) {
+            log.info(logEntry);
+        }
+    }
+}
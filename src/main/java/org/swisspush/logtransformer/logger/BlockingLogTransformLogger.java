@@ -0,0 +1,44 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.BufferUtils;
+
+import java.util.List;
+
+/**
+ * A {@link LogTransformLogger} which is able to log the provided log entries synchronously. This allows the
+ * transformation and the logging of the transformed log to be executed in a single task.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public interface BlockingLogTransformLogger extends LogTransformLogger {
+
+    /**
+     * Logs the provided log entries synchronously line-by-line. Depending on the {@link ThreadingModel}, this method
+     * is called on the event loop or on a thread which is allowed to block.
+     *
+     * @param logEntries a list of log entries to log line-by-line
+     * @throws Exception when the log entries could not be logged
+     */
+    void doLogBlocking(List<String> logEntries) throws Exception;
+
+    /**
+     * Logs the provided UTF-8 encoded log entries synchronously line-by-line.
+     * <p>
+     * The default implementation converts the log entries to Strings and delegates to {@link #doLogBlocking(List)}.
+     * Override this method to log the entries without String conversion.
+     * </p>
+     *
+     * @param logEntries a list of UTF-8 encoded log entries to log line-by-line
+     * @throws Exception when the log entries could not be logged
+     */
+    default void doLogBuffersBlocking(List<Buffer> logEntries) throws Exception {
+        doLogBlocking(BufferUtils.toStrings(logEntries));
+    }
+
+    /**
+     * @return the {@link ThreadingModel} used to execute {@link #doLogBlocking(List)}
+     */
+    ThreadingModel getThreadingModel();
+}
@@ -0,0 +1,202 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.Vertx;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>
+ * Implementation of the {@link AbstractBatchingLogTransformLogger} writing the log entries line-by-line into rolling
+ * GZIP compressed files. The compression is executed on the drain thread of the logger.
+ * </p>
+ * <p>
+ * The log entries are collected into blocks of the configured block size. Every block is compressed into a separate
+ * GZIP member, so every block can be decompressed independently. The files are valid GZIP files and can be read with
+ * the usual tools (e.g. <code>zcat</code>). A block is written when it is full, when no log entries are pending and
+ * when the logger is closed.
+ * </p>
+ * <p>
+ * The files are named <code>&lt;name&gt;-&lt;creation time&gt;-&lt;sequence&gt;.log.gz</code>. A new file is started
+ * when the current file has reached the roll size or is older than the roll interval.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class CompressedRollingLogTransformLogger extends AbstractBatchingLogTransformLogger {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+    private static final byte NEW_LINE = '\n';
+
+    private final Path directory;
+    private final String name;
+    private final int blockSize;
+    private final long rollSize;
+    private final long rollIntervalMs;
+    private final long creationTime = System.currentTimeMillis();
+
+    private final Block block;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] deflated = new byte[64 * 1024];
+
+    private int sequence = 0;
+    private OutputStream out;
+    private long fileSize;
+    private long fileCreationTime;
+
+    private CompressedRollingLogTransformLogger(Vertx vertx, Path directory, String name, int queueSize, int batchSize,
+                                                long flushIntervalMs, int blockSize, long rollSize, long rollIntervalMs) {
+        super(vertx, "log-transformer-compressed-" + name, queueSize, batchSize, flushIntervalMs);
+        this.directory = directory;
+        this.name = name;
+        this.blockSize = blockSize;
+        this.rollSize = rollSize;
+        this.rollIntervalMs = rollIntervalMs;
+        this.block = new Block(blockSize);
+    }
+
+    /**
+     * Creates the directory and a started {@link CompressedRollingLogTransformLogger}
+     *
+     * @param vertx the Vert.x instance
+     * @param directory the directory to create the files in. Will be created when not existing
+     * @param name the name prefix of the files
+     * @param queueSize the max number of pending {@link #doLog(List, io.vertx.core.Handler)} calls
+     * @param batchSize the max number of log entries written in a single batch
+     * @param flushIntervalMs the max time in milliseconds to wait for more log entries before writing a batch
+     * @param blockSize the uncompressed size in bytes of a compressed block
+     * @param rollSize the compressed size in bytes after which a new file is started
+     * @param rollIntervalMs the time in milliseconds after which a new file is started
+     * @return the started logger
+     * @throws IOException when the directory could not be created
+     */
+    public static CompressedRollingLogTransformLogger create(Vertx vertx, Path directory, String name, int queueSize,
+                                                             int batchSize, long flushIntervalMs, int blockSize,
+                                                             long rollSize, long rollIntervalMs) throws IOException {
+        Path createdDirectory = Files.createDirectories(directory);
+        CompressedRollingLogTransformLogger logger = new CompressedRollingLogTransformLogger(vertx, createdDirectory, name,
+                queueSize, batchSize, flushIntervalMs, blockSize, rollSize, rollIntervalMs);
+        logger.start();
+        return logger;
+    }
+
+    @Override
+    protected void writeBatch(List<String> logEntries) throws IOException {
+        rollWhenDue();
+        if (out == null) {
+            openFile();
+        }
+        for (String logEntry : logEntries) {
+            block.writeBytes(logEntry.getBytes(StandardCharsets.UTF_8));
+            block.write(NEW_LINE);
+            if (block.size() >= blockSize) {
+                writeBlock();
+            }
+        }
+    }
+
+    @Override
+    protected void onIdle() throws IOException {
+        writeBlock();
+        if (out != null) {
+            out.flush();
+        }
+        rollWhenDue();
+    }
+
+    @Override
+    protected void onClose() throws IOException {
+        try {
+            writeBlock();
+            closeFile();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (block.size() == 0) {
+            return;
+        }
+        if (out == null) {
+            openFile();
+        }
+        crc.reset();
+        crc.update(block.bytes(), 0, block.size());
+        deflater.reset();
+        deflater.setInput(block.bytes(), 0, block.size());
+        deflater.finish();
+
+        out.write(GZIP_HEADER);
+        long written = GZIP_HEADER.length + GZIP_TRAILER_LENGTH;
+        while (!deflater.finished()) {
+            int length = deflater.deflate(deflated);
+            out.write(deflated, 0, length);
+            written += length;
+        }
+        writeIntLE((int) crc.getValue());
+        writeIntLE(block.size());
+        fileSize += written;
+        block.reset();
+
+        if (fileSize >= rollSize) {
+            closeFile();
+        }
+    }
+
+    private void rollWhenDue() throws IOException {
+        if (out != null && System.currentTimeMillis() - fileCreationTime >= rollIntervalMs) {
+            writeBlock();
+            closeFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path path = directory.resolve(String.format("%s-%d-%06d.log.gz", name, creationTime, ++sequence));
+        out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), deflated.length);
+        fileSize = 0;
+        fileCreationTime = System.currentTimeMillis();
+    }
+
+    private void closeFile() throws IOException {
+        if (out != null) {
+            try {
+                out.close();
+            } finally {
+                out = null;
+            }
+        }
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    /**
+     * Block of uncompressed log entries providing access to its internal array to avoid copying
+     */
+    private static class Block extends ByteArrayOutputStream {
+
+        Block(int size) {
+            super(size);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.swisspush.logtransformer.logger;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.LogEntry;
+import org.swisspush.logtransformer.util.LongHashCache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * Decorator of a {@link LogTransformLogger} suppressing log entries which have already been logged within a time
+ * window. This reduces the output of repeated identical log entries, e.g. when clients poll the same collections.
+ * </p>
+ * <p>
+ * The log entries are identified by a 64-bit hash of their UTF-8 encoded content, stored in a bounded
+ * {@link LongHashCache}. When the cache is full, the entries seen longest ago are evicted, so a duplicate is not
+ * suppressed in every case. An identical log entry is logged at least once per window. The log entries are marked as
+ * seen only after the delegate has logged them successfully, so a failed log entry is not suppressed when it is
+ * retried. The number of suppressed log entries is logged periodically.
+ * </p>
+ * <p>
+ * Use {@link #create(Vertx, LogTransformLogger, int, long, long)} to create the decorator. When the delegate is a
+ * {@link BlockingLogTransformLogger} or a {@link StructuredLogTransformLogger}, the decorator is one as well. The
+ * structured log entries are passed to the delegate unencoded, they are only written into the hash.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class DeduplicatingLogTransformLogger implements LogTransformLogger, AutoCloseable {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.farmHashFingerprint64();
+
+    private final Logger log = LoggerFactory.getLogger(DeduplicatingLogTransformLogger.class);
+
+    private final Vertx vertx;
+    private final LogTransformLogger delegate;
+    private final LongHashCache cache;
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder suppressedSinceReport = new LongAdder();
+    private final long reportTimerId;
+
+    /**
+     * Creates a decorator of the provided logger.
+     *
+     * @param vertx the Vert.x instance
+     * @param delegate the logger to log the not suppressed log entries with
+     * @param cacheSize the max number of log entries remembered
+     * @param windowMs the time in milliseconds in which identical log entries are suppressed
+     * @param reportIntervalMs the interval in milliseconds to log the number of suppressed log entries. 0 or less to disable
+     * @return the decorator, implementing {@link BlockingLogTransformLogger} and {@link StructuredLogTransformLogger}
+     * when the delegate does
+     */
+    public static DeduplicatingLogTransformLogger create(Vertx vertx, LogTransformLogger delegate, int cacheSize,
+                                                         long windowMs, long reportIntervalMs) {
+        if (delegate instanceof StructuredLogTransformLogger) {
+            return new Structured(vertx, (StructuredLogTransformLogger) delegate, cacheSize, windowMs, reportIntervalMs);
+        }
+        if (delegate instanceof BlockingLogTransformLogger) {
+            return new Blocking(vertx, (BlockingLogTransformLogger) delegate, cacheSize, windowMs, reportIntervalMs);
+        }
+        return new DeduplicatingLogTransformLogger(vertx, delegate, cacheSize, windowMs, reportIntervalMs);
+    }
+
+    protected DeduplicatingLogTransformLogger(Vertx vertx, LogTransformLogger delegate, int cacheSize, long windowMs,
+                                              long reportIntervalMs) {
+        this.vertx = vertx;
+        this.delegate = delegate;
+        this.cache = new LongHashCache(cacheSize, windowMs);
+        this.reportTimerId = reportIntervalMs > 0 ? vertx.setPeriodic(reportIntervalMs, id -> report()) : -1;
+    }
+
+    /**
+     * @return the logger decorated by this logger
+     */
+    public LogTransformLogger getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the total number of suppressed log entries
+     */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    /**
+     * @return whether the delegate is enabled
+     */
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        Deduplicated<String> deduplicated = deduplicate(logEntries);
+        delegate.doLog(deduplicated.logEntries, markSeenOnSuccess(deduplicated, resultHandler));
+    }
+
+    @Override
+    public void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        Deduplicated<Buffer> deduplicated = deduplicateBuffers(logEntries);
+        delegate.doLogBuffers(deduplicated.logEntries, markSeenOnSuccess(deduplicated, resultHandler));
+    }
+
+    /**
+     * Stops the periodic report and closes the delegate when it holds resources.
+     */
+    @Override
+    public void close() throws Exception {
+        if (reportTimerId >= 0) {
+            vertx.cancelTimer(reportTimerId);
+        }
+        report();
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    protected Deduplicated<String> deduplicate(List<String> logEntries) {
+        return deduplicate(logEntries, logEntry -> HASH_FUNCTION.hashString(logEntry, StandardCharsets.UTF_8).asLong());
+    }
+
+    protected Deduplicated<Buffer> deduplicateBuffers(List<Buffer> logEntries) {
+        return deduplicate(logEntries, logEntry -> HASH_FUNCTION.hashBytes(logEntry.getBytes()).asLong());
+    }
+
+    /**
+     * The log entries are written into the hash, so their hashes equal the ones of the encoded log entries
+     */
+    protected Deduplicated<LogEntry> deduplicateEntries(List<LogEntry> logEntries) {
+        return deduplicate(logEntries, logEntry -> {
+            Hasher hasher = HASH_FUNCTION.newHasher();
+            try {
+                logEntry.writeTo(Funnels.asOutputStream(hasher));
+            } catch (IOException ex) {
+                throw new EncodeException("Log entry could not be encoded: " + ex.getMessage(), ex);
+            }
+            return hasher.hash().asLong();
+        });
+    }
+
+    /**
+     * @return the log entries not seen within the window, containing the provided list when no log entry has been
+     * suppressed and a new list without the suppressed log entries otherwise
+     */
+    private <T> Deduplicated<T> deduplicate(List<T> logEntries, ToLongFunction<T> hash) {
+        if (logEntries == null || logEntries.isEmpty()) {
+            return new Deduplicated<>(logEntries, new long[0], 0);
+        }
+        long now = System.currentTimeMillis();
+        long[] hashes = new long[logEntries.size()];
+        int hashCount = 0;
+        Set<Long> logged = logEntries.size() > 1 ? new HashSet<>() : null;
+        List<T> deduplicated = null;
+        for (int i = 0; i < logEntries.size(); i++) {
+            T logEntry = logEntries.get(i);
+            if (logEntry == null) {
+                if (deduplicated != null) {
+                    deduplicated.add(null);
+                }
+                continue;
+            }
+            long entryHash = hash.applyAsLong(logEntry);
+            if (cache.isSeen(entryHash, now) || (logged != null && !logged.add(entryHash))) {
+                if (deduplicated == null) {
+                    deduplicated = new ArrayList<>(logEntries.subList(0, i));
+                }
+                suppressed.increment();
+                suppressedSinceReport.increment();
+                continue;
+            }
+            hashes[hashCount++] = entryHash;
+            if (deduplicated != null) {
+                deduplicated.add(logEntry);
+            }
+        }
+        return new Deduplicated<>(deduplicated == null ? logEntries : deduplicated, hashes, hashCount);
+    }
+
+    /**
+     * Marks the logged log entries as seen once the delegate has logged them successfully
+     */
+    private Handler<AsyncResult<Void>> markSeenOnSuccess(Deduplicated<?> deduplicated, Handler<AsyncResult<Void>> resultHandler) {
+        return result -> {
+            if (result.succeeded()) {
+                markSeen(deduplicated);
+            }
+            resultHandler.handle(result);
+        };
+    }
+
+    protected void markSeen(Deduplicated<?> deduplicated) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < deduplicated.hashCount; i++) {
+            cache.markSeen(deduplicated.hashes[i], now);
+        }
+    }
+
+    private void report() {
+        long count = suppressedSinceReport.sumThenReset();
+        if (count > 0) {
+            log.info("Suppressed " + count + " duplicate log entries");
+        }
+    }
+
+    /**
+     * Log entries to log together with the hashes to mark as seen once they have been logged
+     */
+    protected static final class Deduplicated<T> {
+        private final List<T> logEntries;
+        private final long[] hashes;
+        private final int hashCount;
+
+        Deduplicated(List<T> logEntries, long[] hashes, int hashCount) {
+            this.logEntries = logEntries;
+            this.hashes = hashes;
+            this.hashCount = hashCount;
+        }
+    }
+
+    /**
+     * Decorator of a {@link BlockingLogTransformLogger}, allowing the transformation and the logging to be executed
+     * in a single task
+     */
+    private static class Blocking extends DeduplicatingLogTransformLogger implements BlockingLogTransformLogger {
+
+        private final BlockingLogTransformLogger blockingDelegate;
+
+        Blocking(Vertx vertx, BlockingLogTransformLogger delegate, int cacheSize, long windowMs, long reportIntervalMs) {
+            super(vertx, delegate, cacheSize, windowMs, reportIntervalMs);
+            this.blockingDelegate = delegate;
+        }
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) throws Exception {
+            Deduplicated<String> deduplicated = deduplicate(logEntries);
+            blockingDelegate.doLogBlocking(deduplicated.logEntries);
+            markSeen(deduplicated);
+        }
+
+        @Override
+        public void doLogBuffersBlocking(List<Buffer> logEntries) throws Exception {
+            Deduplicated<Buffer> deduplicated = deduplicateBuffers(logEntries);
+            blockingDelegate.doLogBuffersBlocking(deduplicated.logEntries);
+            markSeen(deduplicated);
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return blockingDelegate.getThreadingModel();
+        }
+    }
+
+    /**
+     * Decorator of a {@link StructuredLogTransformLogger}, passing the structured log entries to the delegate
+     */
+    private static class Structured extends Blocking implements StructuredLogTransformLogger {
+
+        private final StructuredLogTransformLogger structuredDelegate;
+
+        Structured(Vertx vertx, StructuredLogTransformLogger delegate, int cacheSize, long windowMs, long reportIntervalMs) {
+            super(vertx, delegate, cacheSize, windowMs, reportIntervalMs);
+            this.structuredDelegate = delegate;
+        }
+
+        @Override
+        public void doLogEntriesBlocking(List<LogEntry> logEntries) throws Exception {
+            Deduplicated<LogEntry> deduplicated = deduplicateEntries(logEntries);
+            structuredDelegate.doLogEntriesBlocking(deduplicated.logEntries);
+            markSeen(deduplicated);
+        }
+    }
+}
@@ -2,34 +2,84 @@ package org.swisspush.logtransformer.logger;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.CachedLogLevel;
+import org.swisspush.logtransformer.util.TaskExecutor;
 
 import java.util.List;
 
 /**
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
-public class DefaultLogTransformLogger implements LogTransformLogger {
+public class DefaultLogTransformLogger implements BlockingLogTransformLogger {
 
     private final Logger log;
-    private Vertx vertx;
+    private final CachedLogLevel logLevel;
+    private TaskExecutor taskExecutor;
 
     public DefaultLogTransformLogger(Vertx vertx, String loggerName) {
-        this.vertx = vertx;
+        this(vertx, loggerName, ThreadingModel.WORKER);
+    }
+
+    public DefaultLogTransformLogger(Vertx vertx, String loggerName, ThreadingModel threadingModel) {
+        this.taskExecutor = new TaskExecutor(vertx, threadingModel);
         this.log = LoggerFactory.getLogger(loggerName);
+        this.logLevel = new CachedLogLevel(log);
     }
 
     @Override
     public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
-        vertx.executeBlocking(future -> {
-            if (logEntries != null) {
-                for (String logEntry : logEntries) {
-                    log.info(logEntry);
-                }
+        taskExecutor.execute(() -> {
+            doLogBlocking(logEntries);
+            return null;
+        }, resultHandler);
+    }
+
+    @Override
+    public void doLogBlocking(List<String> logEntries) {
+        if (logEntries != null) {
+            for (String logEntry : logEntries) {
+                log.info(logEntry);
             }
-            future.complete();
+        }
+    }
+
+    @Override
+    public void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        taskExecutor.execute(() -> {
+            doLogBuffersBlocking(logEntries);
+            return null;
         }, resultHandler);
     }
+
+    /**
+     * Logs the provided UTF-8 encoded log entries without collecting them into an intermediate list of Strings. Every
+     * log entry is decoded exactly once, since SLF4J only accepts Strings.
+     */
+    @Override
+    public void doLogBuffersBlocking(List<Buffer> logEntries) {
+        if (logEntries != null) {
+            for (Buffer logEntry : logEntries) {
+                log.info(logEntry == null ? null : logEntry.toString());
+            }
+        }
+    }
+
+    /**
+     * @return whether the info level of the logger is enabled. Level changes are picked up within
+     * {@value CachedLogLevel#DEFAULT_REFRESH_INTERVAL_MS}ms
+     */
+    @Override
+    public boolean isEnabled() {
+        return logLevel.isInfoEnabled();
+    }
+
+    @Override
+    public ThreadingModel getThreadingModel() {
+        return taskExecutor.getThreadingModel();
+    }
 }
@@ -2,6 +2,8 @@ package org.swisspush.logtransformer.logger;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.BufferUtils;
 
 import java.util.List;
 
@@ -18,4 +20,31 @@ public interface LogTransformLogger {
      * @param logEntries a list of log entries to log line-by-line
      */
     void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler);
+
+    /**
+     * Logs the provided UTF-8 encoded log entries asynchronously line-by-line.
+     * <p>
+     * The default implementation converts the log entries to Strings and delegates to {@link #doLog(List, Handler)}.
+     * Override this method to log the entries without String conversion.
+     * </p>
+     *
+     * @param logEntries a list of UTF-8 encoded log entries to log line-by-line
+     */
+    default void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        doLog(BufferUtils.toStrings(logEntries), resultHandler);
+    }
+
+    /**
+     * Returns whether logged log entries are written at all. When false, the LogTransformer skips the transformation
+     * of the logs and completes the messages without logging them.
+     * <p>
+     * This method is called for every message and must be cheap, e.g. return a cached value. Changes (e.g. of the log
+     * level) should be picked up within a short time. The default implementation always returns true.
+     * </p>
+     *
+     * @return true when logged log entries are written, false when they would be discarded
+     */
+    default boolean isEnabled() {
+        return true;
+    }
 }
@@ -0,0 +1,351 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.LogEntry;
+import org.swisspush.logtransformer.util.TaskExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Implementation of the {@link LogTransformLogger} interface appending the UTF-8 encoded log entries directly into
+ * memory-mapped segment files, bypassing the logging framework. Every log entry is terminated by a newline.
+ * </p>
+ * <p>
+ * The segment files are pre-allocated with the configured segment size and named
+ * <code>&lt;name&gt;-&lt;creation time&gt;-&lt;pid&gt;-&lt;logger id&gt;-&lt;sequence&gt;.log</code>. The process id
+ * and the logger id (counting the loggers created in the process) keep the segment files of different logger
+ * instances apart, even when they are created within the same millisecond in the same directory. Writers reserve
+ * their range in the current segment with an atomic cursor and copy the log entries without locking, so a single
+ * logger instance can be shared by multiple LogTransformer instances. The log entries of a single
+ * {@link #doLog(List, Handler)} call are written contiguously unless they exceed the segment size. When a reservation
+ * does not fit into the current segment, a new segment is created. The full segment is forced, truncated to its
+ * written length and closed once all its writers have completed. When the last writer completes on an event loop
+ * thread, this is done on a worker thread.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class MappedSegmentLogTransformLogger implements StructuredLogTransformLogger, AutoCloseable {
+
+    /**
+     * Defines when the written log entries are forced to the storage device
+     */
+    public enum ForcePolicy {
+        /**
+         * The log entries are never forced explicitly. The operating system writes them eventually
+         */
+        NEVER,
+        /**
+         * The log entries are forced when a segment is full and when the logger is closed
+         */
+        ON_ROLL,
+        /**
+         * The log entries are forced after every write. Use this policy only with a threading model allowed to block
+         */
+        ALWAYS
+    }
+
+    private static final byte NEW_LINE = '\n';
+    private static final long PID = ProcessHandle.current().pid();
+    private static final AtomicInteger LOGGER_IDS = new AtomicInteger();
+
+    private final Logger log = LoggerFactory.getLogger(MappedSegmentLogTransformLogger.class);
+
+    private final Vertx vertx;
+    private final TaskExecutor taskExecutor;
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final ForcePolicy forcePolicy;
+    private final long creationTime = System.currentTimeMillis();
+    private final int loggerId = LOGGER_IDS.incrementAndGet();
+    private final AtomicInteger segmentSequence = new AtomicInteger();
+    private final AtomicReference<Segment> currentSegment = new AtomicReference<>();
+    private final Object rollLock = new Object();
+    private volatile boolean closed = false;
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param threadingModel the {@link ThreadingModel} used to execute {@link #doLogBlocking(List)}
+     * @param directory the directory to create the segment files in. Will be created when not existing
+     * @param name the name prefix of the segment files
+     * @param segmentSize the size of a segment file in bytes
+     * @param forcePolicy the {@link ForcePolicy}
+     * @throws IOException when the first segment file could not be created
+     */
+    public MappedSegmentLogTransformLogger(Vertx vertx, ThreadingModel threadingModel, Path directory, String name,
+                                           long segmentSize, ForcePolicy forcePolicy) throws IOException {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + Integer.MAX_VALUE + " bytes");
+        }
+        this.vertx = vertx;
+        this.taskExecutor = new TaskExecutor(vertx, threadingModel);
+        this.directory = directory;
+        this.name = name;
+        this.segmentSize = (int) segmentSize;
+        this.forcePolicy = forcePolicy;
+        Files.createDirectories(directory);
+        this.currentSegment.set(openSegment());
+    }
+
+    @Override
+    public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        taskExecutor.execute(() -> {
+            doLogBlocking(logEntries);
+            return null;
+        }, resultHandler);
+    }
+
+    @Override
+    public void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        taskExecutor.execute(() -> {
+            doLogBuffersBlocking(logEntries);
+            return null;
+        }, resultHandler);
+    }
+
+    @Override
+    public void doLogBlocking(List<String> logEntries) throws IOException {
+        if (logEntries == null || logEntries.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] encodedLogEntries = new ByteBuffer[logEntries.size()];
+        for (int i = 0; i < encodedLogEntries.length; i++) {
+            encodedLogEntries[i] = ByteBuffer.wrap(logEntries.get(i).getBytes(StandardCharsets.UTF_8));
+        }
+        write(encodedLogEntries);
+    }
+
+    @Override
+    public void doLogBuffersBlocking(List<Buffer> logEntries) throws IOException {
+        if (logEntries == null || logEntries.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] encodedLogEntries = new ByteBuffer[logEntries.size()];
+        for (int i = 0; i < encodedLogEntries.length; i++) {
+            encodedLogEntries[i] = ByteBuffer.wrap(logEntries.get(i).getBytes());
+        }
+        write(encodedLogEntries);
+    }
+
+    /**
+     * Encodes all log entries with {@link LogEntry#writeTo(java.io.OutputStream)} into a single buffer, without an
+     * intermediate String or buffer per log entry. The segment range can only be reserved once the length is known, so
+     * the encoded log entries are copied into the segment afterwards.
+     */
+    @Override
+    public void doLogEntriesBlocking(List<LogEntry> logEntries) throws IOException {
+        if (logEntries == null || logEntries.isEmpty()) {
+            return;
+        }
+        EncodingBuffer out = new EncodingBuffer();
+        int[] ends = new int[logEntries.size()];
+        for (int i = 0; i < ends.length; i++) {
+            logEntries.get(i).writeTo(out);
+            ends[i] = out.size();
+        }
+        ByteBuffer[] encodedLogEntries = new ByteBuffer[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            encodedLogEntries[i] = out.slice(i == 0 ? 0 : ends[i - 1], ends[i]);
+        }
+        write(encodedLogEntries);
+    }
+
+    @Override
+    public ThreadingModel getThreadingModel() {
+        return taskExecutor.getThreadingModel();
+    }
+
+    /**
+     * Stops accepting log entries and closes the current segment once all pending writes have completed.
+     */
+    @Override
+    public void close() {
+        synchronized (rollLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            currentSegment.get().seal();
+        }
+        taskExecutor.close();
+    }
+
+    private void write(ByteBuffer[] logEntries) throws IOException {
+        long length = 0;
+        for (ByteBuffer logEntry : logEntries) {
+            length += logEntry.remaining() + 1;
+            if (logEntry.remaining() + 1 > segmentSize) {
+                throw new IOException("Log entry of " + logEntry.remaining() + " bytes exceeds the segment size of " + segmentSize + " bytes");
+            }
+        }
+        if (length <= segmentSize) {
+            append(logEntries, 0, logEntries.length, (int) length);
+            return;
+        }
+        for (int i = 0; i < logEntries.length; i++) {
+            append(logEntries, i, i + 1, logEntries[i].remaining() + 1);
+        }
+    }
+
+    private void append(ByteBuffer[] logEntries, int from, int to, int length) throws IOException {
+        while (true) {
+            if (closed) {
+                throw new IllegalStateException("Logger is closed");
+            }
+            Segment segment = currentSegment.get();
+            if (!segment.acquire()) {
+                // segment has been completed in the meantime, retry with the next segment
+                continue;
+            }
+            try {
+                long position = segment.reserve(length);
+                if (position + length <= segmentSize) {
+                    segment.write((int) position, logEntries, from, to);
+                    if (forcePolicy == ForcePolicy.ALWAYS) {
+                        segment.force();
+                    }
+                    return;
+                }
+                if (position <= segmentSize) {
+                    // the first reservation not fitting into the segment marks the end of the written log entries
+                    segment.end = position;
+                }
+            } finally {
+                segment.release();
+            }
+            roll(segment);
+        }
+    }
+
+    private void roll(Segment fullSegment) throws IOException {
+        synchronized (rollLock) {
+            if (closed || currentSegment.get() != fullSegment) {
+                return;
+            }
+            currentSegment.set(openSegment());
+            fullSegment.seal();
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path path = directory.resolve(String.format("%s-%d-%d-%d-%06d.log", name, creationTime, PID, loggerId,
+                segmentSequence.incrementAndGet()));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * A single segment file. The segment holds one reference as long as it is the current segment and one reference
+     * per active writer. It is completed when the last reference has been released.
+     */
+    private final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger references = new AtomicInteger(1);
+        private volatile long end = -1;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        boolean acquire() {
+            while (true) {
+                int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        long reserve(int length) {
+            return cursor.getAndAdd(length);
+        }
+
+        void write(int position, ByteBuffer[] logEntries, int from, int to) {
+            ByteBuffer target = buffer.duplicate();
+            target.position(position);
+            for (int i = from; i < to; i++) {
+                target.put(logEntries[i].duplicate());
+                target.put(NEW_LINE);
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void seal() {
+            release();
+        }
+
+        void release() {
+            if (references.decrementAndGet() != 0) {
+                return;
+            }
+            if (Context.isOnEventLoopThread()) {
+                vertx.executeBlocking(() -> {
+                    complete();
+                    return null;
+                }, false);
+            } else {
+                complete();
+            }
+        }
+
+        private void complete() {
+            long length = end >= 0 ? end : Math.min(cursor.get(), segmentSize);
+            try {
+                if (forcePolicy != ForcePolicy.NEVER) {
+                    buffer.force();
+                }
+                channel.truncate(length);
+                channel.close();
+            } catch (IOException ex) {
+                log.error("Could not complete log segment " + path, ex);
+            }
+        }
+    }
+
+    /**
+     * Growable buffer the log entries are encoded into. The encoded log entries are exposed as views on the buffer
+     * without copying them.
+     */
+    private static final class EncodingBuffer extends ByteArrayOutputStream {
+        ByteBuffer slice(int from, int to) {
+            return ByteBuffer.wrap(buf, from, to - from);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.buffer.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Append-only file of log entries used by the {@link SpillingLogTransformLogger}. Every log entry is stored as a
+ * record of its length followed by its UTF-8 encoded bytes, so log entries may contain line breaks.
+ * </p>
+ * <p>
+ * The log entries are read in the order they have been appended. A read is only removed from the journal when it is
+ * committed, so a failed replay can be retried. When all log entries have been committed, the file is truncated.
+ * Log entries still contained when the journal is opened (e.g. after a restart) are read again.
+ * </p>
+ * <p>
+ * The max size limits the log entries not yet committed. Under sustained load the journal may never become empty, so
+ * once half of the max size has been committed, the remaining log entries are copied into a new file replacing the
+ * journal file. The file therefore never exceeds one and a half times the max size.
+ * </p>
+ * <p>
+ * A journal file is used by a single journal only. The journal holds an exclusive lock on the file
+ * <code>&lt;journal file&gt;.lock</code> while it is open, opening a journal file already in use by another journal
+ * (of the same or another process) fails.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+class SpillJournal implements AutoCloseable {
+
+    private static final int HEADER_SIZE = 4;
+    private static final int READ_BLOCK_SIZE = 1024 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(SpillJournal.class);
+
+    private final Path file;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private FileChannel channel;
+    private final long maxSize;
+    private long readPosition = 0;
+    private long writePosition;
+
+    /**
+     * @param file the journal file. Created when it does not exist
+     * @param maxSize the max size of the journal file in bytes
+     * @throws IOException when the journal file could not be opened or is used by another journal
+     */
+    SpillJournal(Path file, long maxSize) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.file = file;
+        this.maxSize = maxSize;
+        this.lockChannel = FileChannel.open(file.resolveSibling(file.getFileName() + ".lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            this.lock = tryLock(lockChannel);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            lockChannel.close();
+            throw ex;
+        }
+        this.writePosition = recover();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of bytes appended and not yet committed
+     */
+    synchronized long getSize() {
+        return writePosition - readPosition;
+    }
+
+    synchronized boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+
+    /**
+     * Appends the provided log entries. The log entries are written to the operating system, but not forced to the disk.
+     *
+     * @param logEntries the UTF-8 encoded log entries to append
+     * @throws IOException when the log entries could not be written or the journal is full
+     */
+    synchronized void append(List<Buffer> logEntries) throws IOException {
+        int size = 0;
+        for (Buffer logEntry : logEntries) {
+            size += HEADER_SIZE + logEntry.length();
+        }
+        if (getSize() + size > maxSize) {
+            throw new IOException("Spill journal " + file + " is full");
+        }
+        ByteBuffer records = ByteBuffer.allocate(size);
+        for (Buffer logEntry : logEntries) {
+            records.putInt(logEntry.length());
+            records.put(logEntry.getBytes());
+        }
+        records.flip();
+        long position = writePosition;
+        while (records.hasRemaining()) {
+            position += channel.write(records, position);
+        }
+        writePosition = position;
+    }
+
+    /**
+     * Reads the oldest not committed log entries. The same log entries are read again until they are committed.
+     *
+     * @param maxEntries the max number of log entries to read
+     * @return the log entries read, empty when the journal is empty
+     * @throws IOException when the journal could not be read
+     */
+    synchronized Batch read(int maxEntries) throws IOException {
+        List<Buffer> logEntries = new ArrayList<>();
+        long position = readPosition;
+        ByteBuffer block = null;
+        while (logEntries.size() < maxEntries && position < writePosition) {
+            if (block == null || block.remaining() < HEADER_SIZE) {
+                block = readBlock(position, HEADER_SIZE);
+            }
+            int length = block.getInt();
+            if (block.remaining() < length) {
+                block = readBlock(position + HEADER_SIZE, length);
+            }
+            byte[] logEntry = new byte[length];
+            block.get(logEntry);
+            logEntries.add(Buffer.buffer(logEntry));
+            position += HEADER_SIZE + length;
+        }
+        return new Batch(logEntries, position);
+    }
+
+    /**
+     * Removes the log entries of the provided batch from the journal. Truncates the file when no log entries are left
+     * and compacts it when half of the max size has been committed.
+     *
+     * @param batch the batch returned by {@link #read(int)}
+     * @throws IOException when the file could not be truncated or compacted
+     */
+    synchronized void commit(Batch batch) throws IOException {
+        readPosition = batch.end;
+        if (readPosition == writePosition) {
+            channel.truncate(0);
+            readPosition = 0;
+            writePosition = 0;
+        } else if (readPosition >= maxSize / 2) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    private FileLock tryLock(FileChannel lockChannel) throws IOException {
+        FileLock fileLock;
+        try {
+            fileLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            throw new IOException("Spill journal " + file + " is used by another logger");
+        }
+        return fileLock;
+    }
+
+    /**
+     * Copies the log entries not yet committed into a new file and atomically replaces the journal file with it, so
+     * the journal is complete whenever the process stops.
+     */
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            long position = readPosition;
+            while (position < writePosition) {
+                position += channel.transferTo(position, writePosition - position, target);
+            }
+            target.force(false);
+        }
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log.debug("Compacted spill journal " + file + " by " + readPosition + " bytes");
+        writePosition -= readPosition;
+        readPosition = 0;
+    }
+
+    private ByteBuffer readBlock(long position, int minSize) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate((int) Math.min(writePosition - position, Math.max(minSize, READ_BLOCK_SIZE)));
+        while (block.hasRemaining()) {
+            if (channel.read(block, position + block.position()) < 0) {
+                break;
+            }
+        }
+        block.flip();
+        if (block.remaining() < minSize) {
+            throw new IOException("Spill journal " + file + " is corrupt at position " + position);
+        }
+        return block;
+    }
+
+    /**
+     * @return the end of the last complete record. An incomplete record of an interrupted write is removed
+     */
+    private long recover() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            while (header.hasRemaining() && channel.read(header, position + header.position()) >= 0) {
+                // read the complete header
+            }
+            int length = header.getInt(0);
+            long end = position + HEADER_SIZE + length;
+            if (length < 0 || end > size) {
+                break;
+            }
+            position = end;
+        }
+        if (position < size) {
+            log.warn("Removing " + (size - position) + " bytes of an incomplete log entry from spill journal " + file);
+            channel.truncate(position);
+        }
+        if (position > 0) {
+            log.info("Spill journal " + file + " contains " + position + " bytes of log entries to replay");
+        }
+        return position;
+    }
+
+    /**
+     * Log entries read from the journal
+     */
+    static class Batch {
+        private final List<Buffer> logEntries;
+        private final long end;
+
+        Batch(List<Buffer> logEntries, long end) {
+            this.logEntries = logEntries;
+            this.end = end;
+        }
+
+        List<Buffer> getLogEntries() {
+            return logEntries;
+        }
+    }
+}
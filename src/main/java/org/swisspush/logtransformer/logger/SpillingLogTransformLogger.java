@@ -0,0 +1,445 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Decorator of a {@link LogTransformLogger} spilling log entries into a local journal file when the delegate falls
+ * behind. This keeps the memory bounded and the messages acknowledged quickly while the destination of the delegate
+ * (e.g. a slow disk or a blocked appender) stalls.
+ * </p>
+ * <p>
+ * The log entries passed to the delegate and not yet completed are counted as in-flight. Calls of the blocking
+ * methods queued for execution (e.g. the tasks of the fused pipeline waiting for a worker thread) are counted with
+ * {@link #queued()} and {@link #dequeued()} and count as one in-flight log entry each, so the log entries are spilled
+ * as well when the backlog builds up in a task queue. When the in-flight log entries would exceed the spill threshold,
+ * the log entries are appended to the journal instead and the result handler is completed immediately. As long as the journal is not empty, all log entries are appended to the journal to keep
+ * their order. A single replay thread passes the journaled log entries to the delegate in batches whenever the
+ * in-flight log entries are below the threshold. A failed batch is retried.
+ * </p>
+ * <p>
+ * The log entries are appended to the journal by a single writer thread without forcing them to the disk, so the
+ * calling thread (e.g. an event loop) never waits for the file. The result handler is completed on the context of the
+ * caller once the log entries have been appended. The blocking methods of a {@link BlockingLogTransformLogger}
+ * delegate append on the calling thread, which is allowed to block. Log entries not replayed when the logger is
+ * closed remain in the journal and are replayed when the logger is created again. Log entries are replayed
+ * at least once. When the journal has reached its max size, the log entries are failed.
+ * </p>
+ * <p>
+ * Use {@link #create(LogTransformLogger, Path, int, long, int)} to create the decorator. When the delegate is a
+ * {@link BlockingLogTransformLogger} or a {@link StructuredLogTransformLogger}, the decorator is one as well. Structured
+ * log entries are only encoded when they are spilled.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class SpillingLogTransformLogger implements LogTransformLogger, AutoCloseable {
+
+    static final long RETRY_INTERVAL_MS = 1000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Logger log = LoggerFactory.getLogger(SpillingLogTransformLogger.class);
+
+    private final LogTransformLogger delegate;
+    private final SpillJournal journal;
+    private final int threshold;
+    private final int batchSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger pendingSpills = new AtomicInteger();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final Thread replayThread;
+    private final ExecutorService spillWriter;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a decorator of the provided logger.
+     *
+     * @param delegate the logger to log the log entries with
+     * @param journalFile the journal file. The log entries contained are replayed
+     * @param threshold the max number of in-flight log entries before log entries are spilled into the journal
+     * @param maxJournalSize the max size of the journal file in bytes
+     * @param batchSize the max number of log entries replayed in a single call of the delegate
+     * @return the decorator, implementing {@link BlockingLogTransformLogger} and {@link StructuredLogTransformLogger}
+     * when the delegate does
+     * @throws IOException when the journal file could not be opened
+     */
+    public static SpillingLogTransformLogger create(LogTransformLogger delegate, Path journalFile, int threshold,
+                                                    long maxJournalSize, int batchSize) throws IOException {
+        SpillingLogTransformLogger logger;
+        if (delegate instanceof StructuredLogTransformLogger) {
+            logger = new Structured((StructuredLogTransformLogger) delegate, journalFile, threshold, maxJournalSize, batchSize);
+        } else if (delegate instanceof BlockingLogTransformLogger) {
+            logger = new Blocking((BlockingLogTransformLogger) delegate, journalFile, threshold, maxJournalSize, batchSize);
+        } else {
+            logger = new SpillingLogTransformLogger(delegate, journalFile, threshold, maxJournalSize, batchSize);
+        }
+        logger.start();
+        return logger;
+    }
+
+    protected SpillingLogTransformLogger(LogTransformLogger delegate, Path journalFile, int threshold,
+                                         long maxJournalSize, int batchSize) throws IOException {
+        this.delegate = delegate;
+        this.journal = new SpillJournal(journalFile, maxJournalSize);
+        this.threshold = threshold;
+        this.batchSize = batchSize;
+        this.replayThread = new Thread(this::replay, "log-transformer-spill-" + journalFile.getFileName());
+        this.replayThread.setDaemon(true);
+        this.spillWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-transformer-spill-writer-" + journalFile.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the replay thread once the logger has been constructed, since the log entries of a recovered journal
+     * are replayed right away. Called by {@link #create(LogTransformLogger, Path, int, long, int)}.
+     */
+    protected void start() {
+        replayThread.start();
+    }
+
+    /**
+     * @return the logger decorated by this logger
+     */
+    public LogTransformLogger getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the total number of log entries appended to the journal
+     */
+    public long getSpilled() {
+        return spilled.sum();
+    }
+
+    /**
+     * @return the total number of log entries replayed from the journal
+     */
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    /**
+     * @return the number of queued calls not yet started, see {@link #queued()}
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return the number of bytes in the journal not yet replayed
+     */
+    public long getJournalSize() {
+        return journal.getSize();
+    }
+
+    /**
+     * @return whether the delegate is enabled
+     */
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        int count = size(logEntries);
+        if (!reserve(count)) {
+            spill(toBuffers(logEntries), resultHandler);
+            return;
+        }
+        delegate.doLog(logEntries, result -> {
+            release(count);
+            resultHandler.handle(result);
+        });
+    }
+
+    @Override
+    public void doLogBuffers(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        int count = size(logEntries);
+        if (!reserve(count)) {
+            spill(logEntries, resultHandler);
+            return;
+        }
+        delegate.doLogBuffers(logEntries, result -> {
+            release(count);
+            resultHandler.handle(result);
+        });
+    }
+
+    /**
+     * Counts a call of this logger which has been queued for execution and not yet started. Every call of this method
+     * must be followed by a call of {@link #dequeued()} once the queued task starts.
+     */
+    public void queued() {
+        queued.incrementAndGet();
+    }
+
+    /**
+     * Stops counting a call of this logger counted with {@link #queued()}.
+     */
+    public void dequeued() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * Appends the pending log entries, stops the replay thread and closes the journal and the delegate. The log entries
+     * not yet replayed remain in the journal.
+     */
+    @Override
+    public void close() throws Exception {
+        closed = true;
+        spillWriter.shutdown();
+        spillWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        LockSupport.unpark(replayThread);
+        replayThread.join();
+        journal.close();
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    /**
+     * Reserves the provided number of in-flight log entries. The queued calls count as in-flight log entries as well.
+     * A single call exceeding the threshold on its own is passed to the delegate when no other log entries are
+     * in-flight.
+     *
+     * @return true when the log entries can be passed to the delegate, false when they have to be spilled
+     */
+    protected boolean reserve(int count) {
+        if (pendingSpills.get() > 0 || !journal.isEmpty()) {
+            return false;
+        }
+        int current = inFlight.addAndGet(count) + queued.get();
+        if (current > threshold && current > count) {
+            release(count);
+            return false;
+        }
+        return true;
+    }
+
+    protected boolean isClosed() {
+        return closed;
+    }
+
+    protected void release(int count) {
+        inFlight.addAndGet(-count);
+    }
+
+    /**
+     * Appends the provided log entries to the journal on the writer thread. The log entries count as journaled as soon
+     * as this method returns, so later log entries are journaled as well and keep their order.
+     */
+    protected void spill(List<Buffer> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+        if (closed) {
+            resultHandler.handle(Future.failedFuture("Logger is closed"));
+            return;
+        }
+        Context context = Vertx.currentContext();
+        pendingSpills.incrementAndGet();
+        try {
+            spillWriter.execute(() -> {
+                AsyncResult<Void> result = append(logEntries);
+                pendingSpills.decrementAndGet();
+                if (context != null) {
+                    context.runOnContext(v -> resultHandler.handle(result));
+                } else {
+                    resultHandler.handle(result);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingSpills.decrementAndGet();
+            resultHandler.handle(Future.failedFuture("Logger is closed"));
+        }
+    }
+
+    /**
+     * Appends the provided log entries to the journal on the calling thread.
+     */
+    protected AsyncResult<Void> append(List<Buffer> logEntries) {
+        try {
+            journal.append(logEntries);
+        } catch (IOException ex) {
+            return Future.failedFuture(ex);
+        }
+        spilled.add(logEntries.size());
+        LockSupport.unpark(replayThread);
+        return Future.succeededFuture();
+    }
+
+    /**
+     * Passes the provided journaled log entries to the delegate and waits for the result.
+     *
+     * @param logEntries the log entries to replay
+     * @throws Exception when the delegate failed to log the log entries
+     */
+    protected void replayBatch(List<Buffer> logEntries) throws Exception {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        delegate.doLogBuffers(logEntries, result -> {
+            if (result.succeeded()) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(result.cause());
+            }
+        });
+        future.get();
+    }
+
+    private void replay() {
+        while (!closed) {
+            if (journal.isEmpty() || inFlight.get() + queued.get() >= threshold) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            SpillJournal.Batch batch = null;
+            try {
+                batch = journal.read(batchSize);
+                int count = batch.getLogEntries().size();
+                inFlight.addAndGet(count);
+                try {
+                    replayBatch(batch.getLogEntries());
+                } finally {
+                    inFlight.addAndGet(-count);
+                }
+                journal.commit(batch);
+                replayed.add(count);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Could not replay " + (batch == null ? "" : batch.getLogEntries().size() + " ")
+                        + "log entries from spill journal " + journal.getFile() + ". Retrying in " + RETRY_INTERVAL_MS + "ms", e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_INTERVAL_MS));
+            }
+        }
+    }
+
+    private static int size(List<?> logEntries) {
+        return logEntries == null ? 0 : logEntries.size();
+    }
+
+    private static List<Buffer> toBuffers(List<String> logEntries) {
+        List<Buffer> buffers = new ArrayList<>(size(logEntries));
+        if (logEntries != null) {
+            for (String logEntry : logEntries) {
+                buffers.add(Buffer.buffer(logEntry));
+            }
+        }
+        return buffers;
+    }
+
+    /**
+     * Decorator of a {@link BlockingLogTransformLogger}, allowing the transformation and the logging to be executed
+     * in a single task. The in-flight log entries are the ones currently logged by the delegate.
+     */
+    private static class Blocking extends SpillingLogTransformLogger implements BlockingLogTransformLogger {
+
+        private final BlockingLogTransformLogger blockingDelegate;
+
+        Blocking(BlockingLogTransformLogger delegate, Path journalFile, int threshold, long maxJournalSize,
+                 int batchSize) throws IOException {
+            super(delegate, journalFile, threshold, maxJournalSize, batchSize);
+            this.blockingDelegate = delegate;
+        }
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) throws Exception {
+            int count = size(logEntries);
+            if (!reserve(count)) {
+                spillBlocking(toBuffers(logEntries));
+                return;
+            }
+            try {
+                blockingDelegate.doLogBlocking(logEntries);
+            } finally {
+                release(count);
+            }
+        }
+
+        @Override
+        public void doLogBuffersBlocking(List<Buffer> logEntries) throws Exception {
+            int count = size(logEntries);
+            if (!reserve(count)) {
+                spillBlocking(logEntries);
+                return;
+            }
+            try {
+                blockingDelegate.doLogBuffersBlocking(logEntries);
+            } finally {
+                release(count);
+            }
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return blockingDelegate.getThreadingModel();
+        }
+
+        @Override
+        protected void replayBatch(List<Buffer> logEntries) throws Exception {
+            blockingDelegate.doLogBuffersBlocking(logEntries);
+        }
+
+        protected void spillBlocking(List<Buffer> logEntries) throws Exception {
+            AsyncResult<Void> result = isClosed() ? Future.failedFuture("Logger is closed") : append(logEntries);
+            if (result.failed()) {
+                throw result.cause() instanceof Exception ? (Exception) result.cause() : new Exception(result.cause());
+            }
+        }
+    }
+
+    /**
+     * Decorator of a {@link StructuredLogTransformLogger}, passing the structured log entries to the delegate. The log
+     * entries are encoded when they are spilled.
+     */
+    private static class Structured extends Blocking implements StructuredLogTransformLogger {
+
+        private final StructuredLogTransformLogger structuredDelegate;
+
+        Structured(StructuredLogTransformLogger delegate, Path journalFile, int threshold, long maxJournalSize,
+                   int batchSize) throws IOException {
+            super(delegate, journalFile, threshold, maxJournalSize, batchSize);
+            this.structuredDelegate = delegate;
+        }
+
+        @Override
+        public void doLogEntriesBlocking(List<LogEntry> logEntries) throws Exception {
+            int count = size(logEntries);
+            if (!reserve(count)) {
+                spillBlocking(LogEntry.toBuffers(logEntries));
+                return;
+            }
+            try {
+                structuredDelegate.doLogEntriesBlocking(logEntries);
+            } finally {
+                release(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.swisspush.logtransformer.logger;
+
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.util.List;
+
+/**
+ * <p>
+ * A {@link BlockingLogTransformLogger} encoding the log entries itself. The transformed log entries are passed as
+ * {@link LogEntry}, so the logger can serialize them straight into its output, e.g. with
+ * {@link LogEntry#writeTo(com.fasterxml.jackson.core.JsonGenerator)}, without an intermediate String per log entry.
+ * </p>
+ * <p>
+ * The LogTransformer passes the log entries of
+ * {@link org.swisspush.logtransformer.strategy.BlockingTransformStrategy#transformEntriesBlocking(io.vertx.core.buffer.Buffer)}
+ * to this logger when the pipeline is fused, the log is a {@link io.vertx.core.buffer.Buffer} or the strategy
+ * implements {@link org.swisspush.logtransformer.strategy.DocumentTransformStrategy}. Implementations writing bytes
+ * can use {@link LogEntry#writeTo(java.io.OutputStream)}, which copies an already encoded log entry as is.
+ * </p>
+ * <p>
+ * The {@link DeduplicatingLogTransformLogger} and the {@link SpillingLogTransformLogger} decorating a structured
+ * logger are structured loggers as well.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public interface StructuredLogTransformLogger extends BlockingLogTransformLogger {
+
+    /**
+     * Logs the provided log entries synchronously line-by-line. Depending on the {@link #getThreadingModel()}, this
+     * method is called on the event loop or on a thread which is allowed to block.
+     *
+     * @param logEntries a list of log entries to log line-by-line
+     * @throws Exception when the log entries could not be logged
+     */
+    void doLogEntriesBlocking(List<LogEntry> logEntries) throws Exception;
+}
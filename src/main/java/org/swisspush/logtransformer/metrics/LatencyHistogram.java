@@ -0,0 +1,100 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Lock-free latency histogram with power of two buckets in microseconds. Recording a value is a few striped
+ * {@link LongAdder} increments, so the histogram can be updated from any thread without contention.
+ * </p>
+ * <p>
+ * The percentiles are approximated by the (inclusive) upper bound of the bucket containing the percentile.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the provided duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets[bucket(micros)].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @param percentile the percentile between 0.0 and 1.0
+     * @return the approximated percentile in microseconds
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts[i];
+            if (cumulated >= target) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * @return a snapshot of the histogram. Values are in microseconds
+     */
+    public JsonObject snapshot() {
+        long snapshotCount = count.sum();
+        long snapshotTotal = totalMicros.sum();
+        return new JsonObject()
+                .put("count", snapshotCount)
+                .put("totalMicros", snapshotTotal)
+                .put("meanMicros", snapshotCount == 0 ? 0 : snapshotTotal / snapshotCount)
+                .put("maxMicros", maxMicros.get())
+                .put("p50Micros", getPercentileMicros(0.5))
+                .put("p90Micros", getPercentileMicros(0.9))
+                .put("p99Micros", getPercentileMicros(0.99));
+    }
+
+    private static int bucket(long micros) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long upperBound(int bucket) {
+        return (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,22 @@
+package org.swisspush.logtransformer.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The transformed log entries of a message have been logged.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@Name("org.swisspush.logtransformer.Log")
+@Label("Log")
+@Description("Logging of the transformed log entries of a message")
+class LogEvent extends StageEvent {
+
+    @Label("Log Entries")
+    int entries;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,136 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.json.JsonObject;
+import org.swisspush.logtransformer.strategy.TransformStrategy;
+import org.swisspush.logtransformer.util.AdmissionController;
+import org.swisspush.logtransformer.util.WorkerPool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Collects the {@link StrategyMetrics} per {@link TransformStrategy}. The metrics are identified by the
+ * {@link TransformStrategy#getName() name} of the strategy. The in-flight and rejected messages of all registered {@link AdmissionController}s are summed
+ * up. The messages skipped because the logger is disabled are counted globally. The registered {@link WorkerPool}s are
+ * summed up per name, the requested pool size is the one of the first registered pool. Vert.x keeps the size of the
+ * first created pool with the same name, so the actual size differs when a pool with the same name has been created
+ * elsewhere before. The metrics can be shared by multiple LogTransformer instances.
+ * </p>
+ * <p>
+ * A snapshot of all metrics looks like this:
+ * </p>
+ * <pre>
+ * {
+ *   "inFlight": 12, "rejected": 0, "paused": false, "skipped": 0,
+ *   "strategies": {
+ *     "SplitStorageExpandLogStrategy": {
+ *       "messagesIn": 120, "messagesOut": 119, "failures": 1, "entries": 3570, "fallbacks": 2,
+ *       "transformTime": {"count": 120, "totalMicros": 51200, "meanMicros": 426, "maxMicros": 2011, "p50Micros": 512, "p90Micros": 1024, "p99Micros": 2011},
+ *       "logTime": {...}
+ *     }
+ *   },
+ *   "workerPools": {
+ *     "log-transformer-strategy-SplitStorageExpandLogStrategy": {"requestedPoolSize": 4, "queued": 10, "active": 4, "completed": 120, "meanQueueMicros": 850}
+ *   }
+ * }
+ * </pre>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class LogTransformerMetrics {
+
+    private final Map<String, StrategyMetrics> strategyMetrics = new ConcurrentHashMap<>();
+    private final List<AdmissionController> admissionControllers = new CopyOnWriteArrayList<>();
+    private final List<WorkerPool> workerPools = new CopyOnWriteArrayList<>();
+    private final LongAdder skipped = new LongAdder();
+
+    public void registerAdmissionController(AdmissionController admissionController) {
+        admissionControllers.add(admissionController);
+    }
+
+    public void unregisterAdmissionController(AdmissionController admissionController) {
+        admissionControllers.remove(admissionController);
+    }
+
+    public void registerWorkerPool(WorkerPool workerPool) {
+        workerPools.add(workerPool);
+    }
+
+    public void unregisterWorkerPool(WorkerPool workerPool) {
+        workerPools.remove(workerPool);
+    }
+
+    /**
+     * Records a message which has not been transformed because the logger is disabled.
+     */
+    public void messageSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * @return the number of messages not transformed because the logger is disabled
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * @param strategy the strategy
+     * @return the metrics of the provided strategy
+     */
+    public StrategyMetrics strategyMetrics(TransformStrategy strategy) {
+        String name = strategy.getName();
+        StrategyMetrics metrics = strategyMetrics.get(name);
+        if (metrics == null) {
+            metrics = strategyMetrics.computeIfAbsent(name, n -> new StrategyMetrics(strategy));
+        }
+        return metrics;
+    }
+
+    /**
+     * @return a snapshot of the metrics of all strategies
+     */
+    public JsonObject snapshot() {
+        int inFlight = 0;
+        long rejected = 0;
+        boolean paused = false;
+        for (AdmissionController admissionController : admissionControllers) {
+            inFlight += admissionController.getInFlight();
+            rejected += admissionController.getRejected();
+            paused |= admissionController.isPaused();
+        }
+        JsonObject strategies = new JsonObject();
+        strategyMetrics.forEach((name, metrics) -> strategies.put(name, metrics.snapshot()));
+        return new JsonObject()
+                .put("inFlight", inFlight)
+                .put("rejected", rejected)
+                .put("paused", paused)
+                .put("skipped", getSkipped())
+                .put("strategies", strategies)
+                .put("workerPools", workerPoolsSnapshot());
+    }
+
+    private JsonObject workerPoolsSnapshot() {
+        Map<String, long[]> totals = new TreeMap<>();
+        for (WorkerPool workerPool : workerPools) {
+            long[] total = totals.computeIfAbsent(workerPool.getName(), name -> new long[]{workerPool.getRequestedPoolSize(), 0, 0, 0, 0});
+            total[1] += workerPool.getQueued();
+            total[2] += workerPool.getActive();
+            total[3] += workerPool.getCompleted();
+            total[4] += workerPool.getQueueNanos();
+        }
+        JsonObject snapshot = new JsonObject();
+        totals.forEach((name, total) -> snapshot.put(name, new JsonObject()
+                .put("requestedPoolSize", total[0])
+                .put("queued", total[1])
+                .put("active", total[2])
+                .put("completed", total[3])
+                .put("meanQueueMicros", total[3] == 0 ? 0 : total[4] / total[3] / 1000)));
+        return snapshot;
+    }
+}
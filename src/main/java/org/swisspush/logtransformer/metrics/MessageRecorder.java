@@ -0,0 +1,195 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.buffer.Buffer;
+import jdk.jfr.EventType;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Records the stages of a single message as JDK Flight Recorder events: the resolution of the strategy, the wait for a
+ * thread, the transformation and the logging. Every event contains the name of the strategy.
+ * </p>
+ * <p>
+ * The events are committed with {@link #commit()} once the message has completed, and only when the message took at
+ * least the threshold. This way, a recording contains the stages of the slow messages only. The thresholds of the
+ * single events configured in the recording settings apply additionally.
+ * </p>
+ * <p>
+ * When none of the events is enabled in a running recording, {@link #start(long)} returns a recorder doing nothing,
+ * so the recorder can be left on in production. A recorder is used by one message at a time and must not be shared.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class MessageRecorder {
+
+    private static final EventType RESOLUTION_EVENT_TYPE = EventType.getEventType(StrategyResolutionEvent.class);
+    private static final EventType QUEUE_WAIT_EVENT_TYPE = EventType.getEventType(QueueWaitEvent.class);
+    private static final EventType TRANSFORM_EVENT_TYPE = EventType.getEventType(TransformEvent.class);
+    private static final EventType LOG_EVENT_TYPE = EventType.getEventType(LogEvent.class);
+
+    private static final MessageRecorder DISABLED = new MessageRecorder(false, 0);
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final long start;
+    private String strategy;
+    private StrategyResolutionEvent resolutionEvent;
+    private QueueWaitEvent queueWaitEvent;
+    private TransformEvent transformEvent;
+    private LogEvent logEvent;
+
+    private MessageRecorder(boolean enabled, long thresholdNanos) {
+        this.enabled = enabled;
+        this.thresholdNanos = thresholdNanos;
+        this.start = enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Starts recording a message.
+     *
+     * @param thresholdNanos the min duration in nanoseconds of a message to commit its events
+     * @return the recorder of the message, doing nothing when no event is enabled
+     */
+    public static MessageRecorder start(long thresholdNanos) {
+        if (!RESOLUTION_EVENT_TYPE.isEnabled() && !QUEUE_WAIT_EVENT_TYPE.isEnabled()
+                && !TRANSFORM_EVENT_TYPE.isEnabled() && !LOG_EVENT_TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        return new MessageRecorder(true, thresholdNanos);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void beginResolution() {
+        if (enabled) {
+            resolutionEvent = new StrategyResolutionEvent();
+            resolutionEvent.begin();
+        }
+    }
+
+    /**
+     * @param strategy the name of the resolved strategy, added to all events of the message
+     */
+    public void endResolution(String strategy) {
+        if (enabled) {
+            resolutionEvent.end();
+            this.strategy = strategy;
+        }
+    }
+
+    public void beginQueueWait() {
+        if (enabled) {
+            queueWaitEvent = new QueueWaitEvent();
+            queueWaitEvent.begin();
+        }
+    }
+
+    public void endQueueWait() {
+        if (enabled) {
+            queueWaitEvent.end();
+        }
+    }
+
+    /**
+     * @param log the log to transform, used to record its size
+     */
+    public void beginTransform(Object log) {
+        if (enabled) {
+            transformEvent = new TransformEvent();
+            transformEvent.inputSize = sizeOf(log);
+            transformEvent.begin();
+        }
+    }
+
+    /**
+     * @param logEntries the transformed log entries, used to record their number and size
+     */
+    public void endTransform(List<?> logEntries) {
+        if (enabled) {
+            transformEvent.end();
+            transformEvent.succeeded = true;
+            transformEvent.entries = logEntries == null ? 0 : logEntries.size();
+            transformEvent.outputSize = sizeOf(logEntries);
+        }
+    }
+
+    public void beginLog() {
+        if (enabled) {
+            logEvent = new LogEvent();
+            logEvent.begin();
+        }
+    }
+
+    /**
+     * @param logEntries the number of logged log entries
+     */
+    public void endLog(int logEntries) {
+        if (enabled) {
+            logEvent.end();
+            logEvent.succeeded = true;
+            logEvent.entries = logEntries;
+        }
+    }
+
+    /**
+     * Ends the stage in progress as failed.
+     */
+    public void fail() {
+        if (!enabled) {
+            return;
+        }
+        if (logEvent != null) {
+            logEvent.end();
+        } else if (transformEvent != null) {
+            transformEvent.end();
+        }
+    }
+
+    /**
+     * Commits the recorded events when the message took at least the threshold.
+     */
+    public void commit() {
+        if (!enabled || System.nanoTime() - start < thresholdNanos) {
+            return;
+        }
+        commit(resolutionEvent);
+        commit(queueWaitEvent);
+        commit(transformEvent);
+        commit(logEvent);
+    }
+
+    private void commit(StageEvent event) {
+        if (event != null && event.shouldCommit()) {
+            event.strategy = strategy;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the length of a Buffer or a String, the total length of a list of them or -1 when unknown
+     */
+    private static long sizeOf(Object log) {
+        if (log instanceof Buffer) {
+            return ((Buffer) log).length();
+        }
+        if (log instanceof String) {
+            return ((String) log).length();
+        }
+        if (log instanceof List) {
+            long size = 0;
+            for (Object logEntry : (List<?>) log) {
+                long entrySize = sizeOf(logEntry);
+                if (entrySize < 0) {
+                    return -1;
+                }
+                size += entrySize;
+            }
+            return size;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,16 @@
+package org.swisspush.logtransformer.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A message has waited for a thread to transform and log it.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@Name("org.swisspush.logtransformer.QueueWait")
+@Label("Queue Wait")
+@Description("Time a message waited for a thread to transform and log it")
+class QueueWaitEvent extends StageEvent {
+}
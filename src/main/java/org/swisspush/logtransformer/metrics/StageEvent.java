@@ -0,0 +1,17 @@
+package org.swisspush.logtransformer.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class of the JDK Flight Recorder events recorded per message and stage, see {@link MessageRecorder}.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@Category("Log Transformer")
+abstract class StageEvent extends Event {
+
+    @Label("Strategy")
+    String strategy;
+}
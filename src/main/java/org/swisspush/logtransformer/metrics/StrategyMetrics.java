@@ -0,0 +1,115 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.json.JsonObject;
+import org.swisspush.logtransformer.strategy.AbstractTransformStrategy;
+import org.swisspush.logtransformer.strategy.TransformStrategy;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput, latency and error metrics of a single {@link TransformStrategy}.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class StrategyMetrics {
+
+    private final TransformStrategy strategy;
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder entries = new LongAdder();
+    private final LatencyHistogram transformTime = new LatencyHistogram();
+    private final LatencyHistogram logTime = new LatencyHistogram();
+
+    StrategyMetrics(TransformStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * A message to transform has been received.
+     */
+    public void messageReceived() {
+        messagesIn.increment();
+    }
+
+    /**
+     * The log of a message has been transformed.
+     *
+     * @param nanos the duration of the transformation in nanoseconds
+     */
+    public void transformed(long nanos) {
+        transformTime.record(nanos);
+    }
+
+    /**
+     * The transformed log entries of a message have been logged.
+     *
+     * @param nanos the duration of the logging in nanoseconds
+     */
+    public void logged(long nanos) {
+        logTime.record(nanos);
+    }
+
+    /**
+     * A message has been transformed and logged successfully.
+     *
+     * @param logEntries the number of log entries emitted
+     */
+    public void messageSucceeded(int logEntries) {
+        messagesOut.increment();
+        entries.add(logEntries);
+    }
+
+    /**
+     * A message could not be transformed or logged.
+     */
+    public void messageFailed() {
+        failures.increment();
+    }
+
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getEntries() {
+        return entries.sum();
+    }
+
+    /**
+     * @return the number of logs which could not be transformed and have been logged unchanged instead. Only
+     * available for strategies extending the {@link AbstractTransformStrategy}
+     */
+    public long getFallbacks() {
+        if (strategy instanceof AbstractTransformStrategy) {
+            return ((AbstractTransformStrategy) strategy).getFallbacks();
+        }
+        return 0;
+    }
+
+    public LatencyHistogram getTransformTime() {
+        return transformTime;
+    }
+
+    public LatencyHistogram getLogTime() {
+        return logTime;
+    }
+
+    public JsonObject snapshot() {
+        return new JsonObject()
+                .put("messagesIn", getMessagesIn())
+                .put("messagesOut", getMessagesOut())
+                .put("failures", getFailures())
+                .put("entries", getEntries())
+                .put("fallbacks", getFallbacks())
+                .put("transformTime", transformTime.snapshot())
+                .put("logTime", logTime.snapshot());
+    }
+}
@@ -0,0 +1,16 @@
+package org.swisspush.logtransformer.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The {@link org.swisspush.logtransformer.strategy.TransformStrategy} of a message has been resolved.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@Name("org.swisspush.logtransformer.StrategyResolution")
+@Label("Strategy Resolution")
+@Description("Resolution of the transform strategy of a message")
+class StrategyResolutionEvent extends StageEvent {
+}
@@ -0,0 +1,30 @@
+package org.swisspush.logtransformer.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The log of a message has been transformed.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@Name("org.swisspush.logtransformer.Transform")
+@Label("Transform")
+@Description("Transformation of the log of a message")
+class TransformEvent extends StageEvent {
+
+    @Label("Log Entries")
+    int entries;
+
+    @Label("Input Size")
+    @Description("Size of the log. Characters for String logs, -1 when unknown")
+    long inputSize;
+
+    @Label("Output Size")
+    @Description("Total size of the transformed log entries. Characters for String logs, -1 when unknown")
+    long outputSize;
+
+    @Label("Succeeded")
+    boolean succeeded;
+}
@@ -0,0 +1,42 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.TaskExecutor;
+
+import java.util.List;
+
+/**
+ * Abstract implementation of the {@link BlockingTransformStrategy} interface. The asynchronous
+ * {@link #transformLog(String, Handler)} and {@link #transformBuffer(Buffer, Handler)} execute
+ * {@link #transformLogBlocking(String)} and {@link #transformBufferBlocking(Buffer)} based on the configured
+ * {@link ThreadingModel}.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public abstract class AbstractBlockingTransformStrategy extends AbstractTransformStrategy implements BlockingTransformStrategy {
+
+    private final TaskExecutor taskExecutor;
+
+    protected AbstractBlockingTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+        this.taskExecutor = new TaskExecutor(vertx, threadingModel);
+    }
+
+    @Override
+    public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+        taskExecutor.execute(() -> transformLogBlocking(logToTransform), resultHandler);
+    }
+
+    @Override
+    public void transformBuffer(Buffer logToTransform, Handler<AsyncResult<List<Buffer>>> resultHandler) {
+        taskExecutor.execute(() -> transformBufferBlocking(logToTransform), resultHandler);
+    }
+
+    @Override
+    public ThreadingModel getThreadingModel() {
+        return taskExecutor.getThreadingModel();
+    }
+}
@@ -1,5 +1,6 @@
 package org.swisspush.logtransformer.strategy;
 
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
@@ -8,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Abstract implementation of the {@link TransformStrategy} interface providing functionality
@@ -18,6 +20,14 @@ import java.util.List;
 public abstract class AbstractTransformStrategy implements TransformStrategy {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @return the number of logs which could not be transformed and have been logged unchanged instead
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
 
     /**
      * Logs the provided errorMessage to the log and returns the original (not transformed) log input.
@@ -28,6 +38,24 @@ public abstract class AbstractTransformStrategy implements TransformStrategy {
      * @return returns a list containing the original log input
      */
     protected List<String> doNothingInCaseOfError(String logToTransform, String errorMessage) {
+        fallbacks.increment();
+        log.error(errorMessage + ". Logging original log input instead");
+        if(logToTransform == null){
+            return new ArrayList<>();
+        }
+        return Collections.singletonList(logToTransform);
+    }
+
+    /**
+     * Logs the provided errorMessage to the log and returns the original (not transformed) UTF-8 encoded log input.
+     * Use this method when the provided log input cannot be transformed correctly.
+     *
+     * @param logToTransform the UTF-8 encoded log input to transform
+     * @param errorMessage the error message to write to the log
+     * @return returns a list containing the original log input
+     */
+    protected List<Buffer> doNothingInCaseOfBufferError(Buffer logToTransform, String errorMessage) {
+        fallbacks.increment();
         log.error(errorMessage + ". Logging original log input instead");
         if(logToTransform == null){
             return new ArrayList<>();
@@ -52,4 +80,22 @@ public abstract class AbstractTransformStrategy implements TransformStrategy {
             throw new LogContentException("Log could not be converted to JSON", ex);
         }
     }
+
+    /**
+     * Parses the provided UTF-8 encoded log input into a JsonObject.
+     *
+     * @param logToTransform the UTF-8 encoded log input to transform
+     * @return a JsonObject representation of the log input
+     * @throws LogContentException when log input was <code>null</code> or could not be parsed into a JsonObject
+     */
+    protected JsonObject parseBufferLogToJsonObject(Buffer logToTransform) throws LogContentException {
+        try{
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return new JsonObject(logToTransform);
+        }catch (DecodeException | ClassCastException ex){
+            throw new LogContentException("Log could not be converted to JSON", ex);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.BufferUtils;
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.util.List;
+
+/**
+ * A {@link TransformStrategy} which is able to transform the log input synchronously. This allows the
+ * transformation and the logging of the transformed log to be executed in a single task.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public interface BlockingTransformStrategy extends TransformStrategy {
+
+    /**
+     * Transforms the provided logToTransform synchronously. Depending on the {@link ThreadingModel}, this method
+     * is called on the event loop or on a thread which is allowed to block.
+     *
+     * @param logToTransform the log to transform
+     * @return the transformed log entries
+     * @throws Exception when the log could not be transformed
+     */
+    List<String> transformLogBlocking(String logToTransform) throws Exception;
+
+    /**
+     * Transforms the provided UTF-8 encoded logToTransform synchronously.
+     * <p>
+     * The default implementation converts the log from and to Strings and delegates to
+     * {@link #transformLogBlocking(String)}. Override this method to transform the log without String conversion.
+     * </p>
+     *
+     * @param logToTransform the UTF-8 encoded log to transform
+     * @return the UTF-8 encoded transformed log entries
+     * @throws Exception when the log could not be transformed
+     */
+    default List<Buffer> transformBufferBlocking(Buffer logToTransform) throws Exception {
+        return BufferUtils.toBuffers(transformLogBlocking(logToTransform == null ? null : logToTransform.toString()));
+    }
+
+    /**
+     * Transforms the provided UTF-8 encoded logToTransform synchronously into log entries encoded by the logger, see
+     * {@link org.swisspush.logtransformer.logger.StructuredLogTransformLogger}.
+     * <p>
+     * The default implementation delegates to {@link #transformBufferBlocking(Buffer)}. Override this method to
+     * provide the log entries e.g. as {@link io.vertx.core.json.JsonObject} without encoding them.
+     * </p>
+     *
+     * @param logToTransform the UTF-8 encoded log to transform
+     * @return the transformed log entries
+     * @throws Exception when the log could not be transformed
+     */
+    default List<LogEntry> transformEntriesBlocking(Buffer logToTransform) throws Exception {
+        return LogEntry.ofBuffers(transformBufferBlocking(logToTransform));
+    }
+
+    /**
+     * @return the {@link ThreadingModel} used to execute {@link #transformLogBlocking(String)}
+     */
+    ThreadingModel getThreadingModel();
+}
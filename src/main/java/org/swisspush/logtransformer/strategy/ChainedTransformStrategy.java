@@ -0,0 +1,172 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.swisspush.logtransformer.util.LogEntry;
+import org.swisspush.logtransformer.util.TaskExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A {@link TransformStrategy} executing multiple strategies one after the other. Every log entry of a stage is
+ * transformed by the next stage. A chain is selected with the strategy names separated by {@value #SEPARATOR}, e.g.
+ * <code>SplitStorageExpandLogStrategy|MyStrategy</code>.
+ * </p>
+ * <p>
+ * The log is parsed once before the first stage implementing {@link DocumentTransformStrategy} and the log entries
+ * are encoded once after the last stage. These stages exchange the parsed log entries. Other stages must implement
+ * {@link BlockingTransformStrategy}. Leading stages receive the original log, the log entries of later stages are
+ * encoded before and parsed after the stage. {@link DoNothingTransformStrategy} stages pass the log entries on as they
+ * are.
+ * </p>
+ * <p>
+ * When any stage fails, the original log input is logged. The chain is executed with the
+ * {@link TaskExecutor#combine(io.vertx.core.ThreadingModel, io.vertx.core.ThreadingModel) combined} threading model
+ * of all stages.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class ChainedTransformStrategy extends AbstractBlockingTransformStrategy implements DocumentTransformStrategy {
+
+    public static final String SEPARATOR = "|";
+
+    private final List<BlockingTransformStrategy> stages;
+    private final String name;
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param stages the strategies to execute one after the other
+     */
+    public ChainedTransformStrategy(Vertx vertx, List<BlockingTransformStrategy> stages) {
+        super(vertx, stages.stream().map(BlockingTransformStrategy::getThreadingModel)
+                .reduce(TaskExecutor::combine).orElseThrow(() -> new IllegalArgumentException("A chain requires at least one strategy")));
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        this.name = stages.stream().map(TransformStrategy::getName).collect(Collectors.joining(SEPARATOR));
+    }
+
+    /**
+     * @return the names of all stages separated by {@value #SEPARATOR}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public List<BlockingTransformStrategy> getStages() {
+        return stages;
+    }
+
+    @Override
+    public List<String> transformLogBlocking(String logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            List<LogEntry> logEntries = transform(Buffer.buffer(logToTransform));
+            List<String> stringLogEntries = new ArrayList<>(logEntries.size());
+            for (LogEntry logEntry : logEntries) {
+                stringLogEntries.add(logEntry.encode());
+            }
+            return stringLogEntries;
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfError(logToTransform, ex.getMessage());
+        }
+    }
+
+    @Override
+    public List<Buffer> transformBufferBlocking(Buffer logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return LogEntry.toBuffers(transform(logToTransform));
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfBufferError(logToTransform, ex.getMessage());
+        }
+    }
+
+    /**
+     * When the last stage implements {@link DocumentTransformStrategy}, the log entries are provided as
+     * {@link JsonObject} and encoded by the logger.
+     */
+    @Override
+    public List<LogEntry> transformEntriesBlocking(Buffer logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return transform(logToTransform);
+        } catch (LogContentException ex) {
+            return LogEntry.ofBuffers(doNothingInCaseOfBufferError(logToTransform, ex.getMessage()));
+        }
+    }
+
+    @Override
+    public List<JsonObject> transformDocument(JsonObject document) throws LogContentException {
+        return transformDocuments(Collections.singletonList(document), 0);
+    }
+
+    /**
+     * The leading stages not implementing {@link DocumentTransformStrategy} receive the original log, so the log is
+     * only parsed when a stage requires the parsed document.
+     */
+    private List<LogEntry> transform(Buffer logToTransform) throws LogContentException {
+        List<Buffer> logEntries = Collections.singletonList(logToTransform);
+        int stage = 0;
+        while (stage < stages.size() && !(stages.get(stage) instanceof DocumentTransformStrategy)) {
+            List<Buffer> transformed = new ArrayList<>(logEntries.size());
+            for (Buffer logEntry : logEntries) {
+                transformed.addAll(transformBuffer(stages.get(stage), logEntry));
+            }
+            logEntries = transformed;
+            stage++;
+        }
+        if (stage == stages.size()) {
+            return LogEntry.ofBuffers(logEntries);
+        }
+        List<JsonObject> documents = new ArrayList<>(logEntries.size());
+        for (Buffer logEntry : logEntries) {
+            documents.add(parseBufferLogToJsonObject(logEntry));
+        }
+        documents = transformDocuments(documents, stage);
+        List<LogEntry> entries = new ArrayList<>(documents.size());
+        for (JsonObject document : documents) {
+            entries.add(LogEntry.of(document));
+        }
+        return entries;
+    }
+
+    private List<JsonObject> transformDocuments(List<JsonObject> documents, int firstStage) throws LogContentException {
+        for (BlockingTransformStrategy stage : stages.subList(firstStage, stages.size())) {
+            if (stage instanceof DoNothingTransformStrategy) {
+                continue;
+            }
+            List<JsonObject> transformed = new ArrayList<>(documents.size());
+            for (JsonObject document : documents) {
+                if (stage instanceof DocumentTransformStrategy) {
+                    transformed.addAll(((DocumentTransformStrategy) stage).transformDocument(document));
+                } else {
+                    for (Buffer logEntry : transformBuffer(stage, document.toBuffer())) {
+                        transformed.add(parseBufferLogToJsonObject(logEntry));
+                    }
+                }
+            }
+            documents = transformed;
+        }
+        return documents;
+    }
+
+    private List<Buffer> transformBuffer(BlockingTransformStrategy stage, Buffer logEntry) throws LogContentException {
+        try {
+            return stage.transformBufferBlocking(logEntry);
+        } catch (Exception ex) {
+            throw new LogContentException("Strategy '" + stage.getName() + "' of chain '" + name + "' failed: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -1,28 +1,126 @@
 package org.swisspush.logtransformer.strategy;
 
 import io.vertx.core.MultiMap;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.Configuration;
+
+import java.lang.reflect.Constructor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
+ * <p>
  * Default implementation of the {@link TransformStrategyFinder}
+ * </p>
+ * <p>
+ * The strategies are registered once when the finder is created. The following sources are used, where later
+ * sources override strategies with the same name:
+ * </p>
+ * <ol>
+ *     <li>The built-in strategies of this module</li>
+ *     <li>The {@link TransformStrategyProvider} implementations found with the {@link ServiceLoader}</li>
+ *     <li>The strategy classes provided in the configuration</li>
+ * </ol>
+ * <p>
+ * The strategy names are matched case-insensitive. The resolved strategy of every header value is cached, so that
+ * resolving a strategy is a single map lookup and unknown header values are only logged once.
+ * </p>
+ * <p>
+ * Multiple strategy names separated by {@value ChainedTransformStrategy#SEPARATOR} resolve to a
+ * {@link ChainedTransformStrategy}. All strategies of a chain must implement {@link BlockingTransformStrategy}.
+ * Header values naming the same strategies (e.g. differing in case or whitespace) resolve to the same chain instance.
+ * Since the header is provided by the clients, a chain consists of at most {@value #MAX_CHAIN_LENGTH} strategies and
+ * at most {@value #MAX_CHAINS} distinct chains are created. Further chains resolve to the
+ * {@link DoNothingTransformStrategy}.
+ * </p>
+ * <p>
+ * The finder is thread-safe and can be shared between multiple LogTransformer instances.
+ * </p>
  *
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
 public class DefaultTransformStrategyFinder implements TransformStrategyFinder {
 
+    static final int MAX_CACHED_STRATEGY_VALUES = 1000;
+    static final int MAX_CHAIN_LENGTH = 10;
+    static final int MAX_CHAINS = 100;
+
     private final String strategyHeader;
     private final Logger log = LoggerFactory.getLogger(DefaultTransformStrategyFinder.class);
 
-    private Vertx vertx;
-
-    private DoNothingTransformStrategy doNothingTransformStrategy;
-    private SplitStorageExpandLogStrategy splitStorageExpandLogStrategy;
+    private final Vertx vertx;
+    private final Map<String, ThreadingModel> threadingModels = new HashMap<>();
+    private final Map<String, TransformStrategy> strategies = new HashMap<>();
+    private final Set<String> builtInStrategyNames = new HashSet<>();
+    private final Map<String, TransformStrategy> resolvedStrategies = new ConcurrentHashMap<>();
+    private final Map<String, ChainedTransformStrategy> chains = new ConcurrentHashMap<>();
+    private final TransformStrategy doNothingTransformStrategy;
 
     public DefaultTransformStrategyFinder(Vertx vertx, String strategyHeader) {
+        this(vertx, strategyHeader, Collections.emptyMap());
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param strategyHeader the name of the header property containing the strategy
+     * @param threadingModels the {@link ThreadingModel} per strategy name. Strategies not contained use {@link ThreadingModel#WORKER}
+     */
+    public DefaultTransformStrategyFinder(Vertx vertx, String strategyHeader, Map<String, ThreadingModel> threadingModels) {
+        this(vertx, strategyHeader, threadingModels, Collections.emptyMap());
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param strategyHeader the name of the header property containing the strategy
+     * @param threadingModels the {@link ThreadingModel} per strategy name. Strategies not contained use {@link ThreadingModel#WORKER}
+     * @param strategyClasses the fully qualified class name of custom {@link TransformStrategy} implementations per
+     *                        strategy name. The classes must provide a public constructor with the arguments
+     *                        ({@link Vertx}, {@link ThreadingModel}), ({@link Vertx}) or no arguments
+     * @throws IllegalArgumentException when a strategy class could not be instantiated
+     */
+    public DefaultTransformStrategyFinder(Vertx vertx, String strategyHeader, Map<String, ThreadingModel> threadingModels,
+                                          Map<String, String> strategyClasses) {
+        this(vertx, strategyHeader, threadingModels, strategyClasses, Configuration.with().build());
+    }
+
+    /**
+     * Creates the finder with the strategy related values of the provided {@link Configuration}.
+     *
+     * @param vertx the Vert.x instance
+     * @param configuration the configuration
+     * @throws IllegalArgumentException when a strategy class could not be instantiated
+     */
+    public DefaultTransformStrategyFinder(Vertx vertx, Configuration configuration) {
+        this(vertx, configuration.getStrategyHeader(), configuration.getStrategyThreadingModels(),
+                configuration.getStrategies(), configuration);
+    }
+
+    /**
+     * @param strategyConfiguration the configuration providing the settings of the built-in strategies
+     */
+    private DefaultTransformStrategyFinder(Vertx vertx, String strategyHeader, Map<String, ThreadingModel> threadingModels,
+                                           Map<String, String> strategyClasses, Configuration strategyConfiguration) {
         this.vertx = vertx;
         this.strategyHeader = strategyHeader;
+        threadingModels.forEach((name, threadingModel) -> this.threadingModels.put(normalize(name), threadingModel));
+
+        register("DoNothingTransformStrategy", DoNothingTransformStrategy::new);
+        register("SplitStorageExpandLogStrategy", (v, threadingModel) -> new SplitStorageExpandLogStrategy(v, threadingModel,
+                strategyConfiguration.getParallelSplitThreshold()));
+        register("StreamingSplitStorageExpandLogStrategy", StreamingSplitStorageExpandLogStrategy::new);
+        register("TruncatingTransformStrategy", (v, threadingModel) -> new TruncatingTransformStrategy(v, threadingModel,
+                strategyConfiguration.getTruncateFieldSize(), strategyConfiguration.getTruncateEntrySize()));
+        builtInStrategyNames.addAll(strategies.keySet());
+        for (TransformStrategyProvider provider : ServiceLoader.load(TransformStrategyProvider.class)) {
+            register(provider.getStrategyName(), provider::createTransformStrategy);
+        }
+        strategyClasses.forEach((name, className) -> register(name, (v, threadingModel) -> instantiate(name, className, threadingModel)));
+
+        this.doNothingTransformStrategy = strategies.get(normalize("DoNothingTransformStrategy"));
     }
 
     /**
@@ -34,29 +132,149 @@ public class DefaultTransformStrategyFinder implements TransformStrategyFinder {
     @Override
     public TransformStrategy findTransformStrategy(MultiMap headers){
         String strategy = headers.get(strategyHeader);
+        if(strategy == null){
+            return doNothingTransformStrategy;
+        }
+        TransformStrategy transformStrategy = resolvedStrategies.get(strategy);
+        if(transformStrategy != null){
+            return transformStrategy;
+        }
+        return resolve(strategy);
+    }
+
+    /**
+     * @return the normalized names of all registered strategies
+     */
+    public Set<String> getStrategyNames() {
+        return Collections.unmodifiableSet(strategies.keySet());
+    }
+
+    /**
+     * @return the normalized names of the built-in strategies of this module, except the ones overridden by a
+     * {@link TransformStrategyProvider} or a configured strategy class
+     */
+    public Set<String> getBuiltInStrategyNames() {
+        return Collections.unmodifiableSet(builtInStrategyNames);
+    }
 
-        if(isEmpty(strategy)){
-            return getDoNothingTransformStrategy();
-        } else if("SplitStorageExpandLogStrategy".equalsIgnoreCase(strategy)){
-            return getSplitStorageExpandLogStrategy();
+    /**
+     * Returns the strategy registered with the provided name or the chain of the provided names. In contrast to
+     * {@link #findTransformStrategy(MultiMap)}, no {@link DoNothingTransformStrategy} is returned for unknown names.
+     * Names and chains resolve to the same instance as the corresponding header values.
+     *
+     * @param name the registered name of a strategy or multiple names separated by {@value ChainedTransformStrategy#SEPARATOR}
+     * @return the strategy or null when no strategy is registered with the provided name
+     */
+    public TransformStrategy getTransformStrategy(String name) {
+        return name.contains(ChainedTransformStrategy.SEPARATOR) ? resolveChain(name) : strategies.get(normalize(name));
+    }
+
+    private TransformStrategy resolve(String strategy) {
+        TransformStrategy transformStrategy = getTransformStrategy(strategy);
+        if(transformStrategy == null){
+            transformStrategy = doNothingTransformStrategy;
+            if(!isEmpty(strategy)){
+                log.warn("No log transform strategy found for value '" + strategy + "'. Using DoNothingTransformStrategy instead");
+            }
+        }
+        if(resolvedStrategies.size() >= MAX_CACHED_STRATEGY_VALUES){
+            resolvedStrategies.clear();
         }
+        resolvedStrategies.put(strategy, transformStrategy);
+        return transformStrategy;
+    }
 
-        log.warn("No log transform strategy found for value '" + strategy + "'. Using DoNothingTransformStrategy instead");
-        return getDoNothingTransformStrategy();
+    private TransformStrategy resolveChain(String chain) {
+        List<String> names = new ArrayList<>();
+        List<BlockingTransformStrategy> stages = new ArrayList<>();
+        for (String name : chain.split(Pattern.quote(ChainedTransformStrategy.SEPARATOR))) {
+            if(isEmpty(name)){
+                continue;
+            }
+            String normalizedName = normalize(name.trim());
+            TransformStrategy stage = strategies.get(normalizedName);
+            if(!(stage instanceof BlockingTransformStrategy)){
+                if(stage != null){
+                    log.warn("Log transform strategy '" + name.trim() + "' cannot be chained because it does not implement "
+                            + BlockingTransformStrategy.class.getSimpleName());
+                }
+                return null;
+            }
+            names.add(normalizedName);
+            stages.add((BlockingTransformStrategy) stage);
+        }
+        if(stages.isEmpty()){
+            return null;
+        }
+        if(stages.size() > MAX_CHAIN_LENGTH){
+            log.warn("Log transform strategy chain '" + chain + "' exceeds the max length of " + MAX_CHAIN_LENGTH + " strategies");
+            return null;
+        }
+        String key = String.join(ChainedTransformStrategy.SEPARATOR, names);
+        ChainedTransformStrategy chainedStrategy = chains.get(key);
+        if(chainedStrategy != null){
+            return chainedStrategy;
+        }
+        synchronized (chains) {
+            if(chains.size() >= MAX_CHAINS && !chains.containsKey(key)){
+                log.warn("Max number of " + MAX_CHAINS + " log transform strategy chains reached. Chain '" + chain + "' is not created");
+                return null;
+            }
+            return chains.computeIfAbsent(key, k -> new ChainedTransformStrategy(vertx, stages));
+        }
     }
 
-    private DoNothingTransformStrategy getDoNothingTransformStrategy(){
-        if(doNothingTransformStrategy == null){
-            doNothingTransformStrategy = new DoNothingTransformStrategy(vertx);
+    private void register(String name, StrategyFactory factory) {
+        String normalizedName = normalize(name);
+        ThreadingModel threadingModel = threadingModels.getOrDefault(normalizedName, ThreadingModel.WORKER);
+        TransformStrategy strategy = factory.create(vertx, threadingModel);
+        if(strategy == null){
+            log.warn("Log transform strategy '" + name + "' is not registered because no strategy has been created");
+            return;
+        }
+        TransformStrategy previous = strategies.put(normalizedName, strategy);
+        if(previous != null){
+            builtInStrategyNames.remove(normalizedName);
+            log.info("Log transform strategy '" + name + "' of type " + previous.getClass().getName() + " has been overridden");
         }
-        return doNothingTransformStrategy;
     }
 
-    private SplitStorageExpandLogStrategy getSplitStorageExpandLogStrategy(){
-        if(splitStorageExpandLogStrategy == null){
-            splitStorageExpandLogStrategy = new SplitStorageExpandLogStrategy(vertx);
+    private TransformStrategy instantiate(String name, String className, ThreadingModel threadingModel) {
+        try {
+            Class<?> clazz = Class.forName(className);
+            if(!TransformStrategy.class.isAssignableFrom(clazz)){
+                throw new IllegalArgumentException("Class '" + className + "' of log transform strategy '" + name
+                        + "' does not implement " + TransformStrategy.class.getSimpleName());
+            }
+            Constructor<?> constructor = findConstructor(clazz, Vertx.class, ThreadingModel.class);
+            if(constructor != null){
+                return (TransformStrategy) constructor.newInstance(vertx, threadingModel);
+            }
+            constructor = findConstructor(clazz, Vertx.class);
+            if(constructor != null){
+                return (TransformStrategy) constructor.newInstance(vertx);
+            }
+            constructor = findConstructor(clazz);
+            if(constructor != null){
+                return (TransformStrategy) constructor.newInstance();
+            }
+            throw new IllegalArgumentException("Class '" + className + "' of log transform strategy '" + name
+                    + "' has no supported public constructor");
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalArgumentException("Could not instantiate class '" + className + "' of log transform strategy '" + name + "'", ex);
         }
-        return splitStorageExpandLogStrategy;
+    }
+
+    private static Constructor<?> findConstructor(Class<?> clazz, Class<?>... parameterTypes){
+        try {
+            return clazz.getConstructor(parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    private static String normalize(String name){
+        return name.toLowerCase(Locale.ROOT);
     }
 
     private boolean isEmpty(String stringToTest){
@@ -66,4 +284,9 @@ public class DefaultTransformStrategyFinder implements TransformStrategyFinder {
         String trimmed = stringToTest.trim();
         return trimmed.length() == 0;
     }
+
+    @FunctionalInterface
+    private interface StrategyFactory {
+        TransformStrategy create(Vertx vertx, ThreadingModel threadingModel);
+    }
 }
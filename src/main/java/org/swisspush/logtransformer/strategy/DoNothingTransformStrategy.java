@@ -2,27 +2,55 @@ package org.swisspush.logtransformer.strategy;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.TaskExecutor;
 
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Implementation of the {@link TransformStrategy} doing no transformation at all.
+ * Implementation of the {@link TransformStrategy} doing no transformation at all. It works on the log as is and never
+ * parses it, so a pass-through stage of a {@link ChainedTransformStrategy} does not fail on non-JSON input.
  *
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
-public class DoNothingTransformStrategy implements TransformStrategy {
+public class DoNothingTransformStrategy implements BlockingTransformStrategy {
 
-    private Vertx vertx;
+    private TaskExecutor taskExecutor;
 
     public DoNothingTransformStrategy(Vertx vertx) {
-        this.vertx = vertx;
+        this(vertx, ThreadingModel.WORKER);
+    }
+
+    public DoNothingTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+        this.taskExecutor = new TaskExecutor(vertx, threadingModel);
     }
 
     @Override
     public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
-        vertx.executeBlocking(future -> future.complete(Collections.singletonList(logToTransform)), resultHandler);
+        taskExecutor.execute(() -> transformLogBlocking(logToTransform), resultHandler);
+    }
+
+    @Override
+    public List<String> transformLogBlocking(String logToTransform) {
+        return Collections.singletonList(logToTransform);
+    }
+
+    @Override
+    public void transformBuffer(Buffer logToTransform, Handler<AsyncResult<List<Buffer>>> resultHandler) {
+        taskExecutor.execute(() -> transformBufferBlocking(logToTransform), resultHandler);
+    }
+
+    @Override
+    public List<Buffer> transformBufferBlocking(Buffer logToTransform) {
+        return Collections.singletonList(logToTransform);
+    }
+
+    @Override
+    public ThreadingModel getThreadingModel() {
+        return taskExecutor.getThreadingModel();
     }
 
 }
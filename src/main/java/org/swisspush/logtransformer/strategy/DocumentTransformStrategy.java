@@ -0,0 +1,27 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+
+/**
+ * A {@link BlockingTransformStrategy} which is able to transform an already parsed log. This allows multiple
+ * strategies to be chained with a {@link ChainedTransformStrategy}, where the log is parsed and the log entries are
+ * encoded only once for the whole chain.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public interface DocumentTransformStrategy extends BlockingTransformStrategy {
+
+    /**
+     * Transforms the provided parsed log synchronously. The strategy takes ownership of the provided document and is
+     * allowed to modify it or to reuse parts of it in the returned log entries. The returned log entries may share
+     * nested values with each other (e.g. the request of a split log), so a strategy must not modify the nested values
+     * of the provided document in place. It replaces them with a modified copy instead.
+     *
+     * @param document the parsed log to transform
+     * @return the transformed log entries
+     * @throws LogContentException when the log could not be transformed
+     */
+    List<JsonObject> transformDocument(JsonObject document) throws LogContentException;
+}
@@ -1,18 +1,32 @@
 package org.swisspush.logtransformer.strategy;
 
-import io.vertx.core.AsyncResult;
-import io.vertx.core.Handler;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.JacksonCodec;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A custom {@link TransformStrategy} which splits a JsonObject log into multiple log entries.
+ * <p>
+ * The fields shared by all log entries are encoded only once into a {@link StorageExpandEntryTemplate}. The log
+ * entries are rendered by concatenating the template with the name and the encoded body of each sub-resource.
+ * </p>
+ * <p>
+ * Logs with at least <code>parallelSplitThreshold</code> sub-resources are rendered in parallel on the common
+ * {@link java.util.concurrent.ForkJoinPool}. The order of the log entries is the same as when rendered sequentially.
+ * </p>
  *
  * @author https://github.com/mcweba [Marc-Andre Weber]
  */
-public class SplitStorageExpandLogStrategy extends AbstractTransformStrategy {
+public class SplitStorageExpandLogStrategy extends AbstractBlockingTransformStrategy implements DocumentTransformStrategy {
 
     public static final String PROP_URL = "url";
     public static final String PROP_METHOD = "method";
@@ -22,36 +36,99 @@ public class SplitStorageExpandLogStrategy extends AbstractTransformStrategy {
     public static final String PROP_BODY = "body";
     public static final String PARAM_STORAGE_EXPAND = "?storageExpand=true";
 
-    private Vertx vertx;
-
     public SplitStorageExpandLogStrategy(Vertx vertx) {
-        this.vertx = vertx;
+        this(vertx, ThreadingModel.WORKER);
+    }
+
+    private final int parallelSplitThreshold;
+
+    public SplitStorageExpandLogStrategy(Vertx vertx, ThreadingModel threadingModel) {
+        this(vertx, threadingModel, 0);
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param threadingModel the {@link ThreadingModel} to execute the transformation with
+     * @param parallelSplitThreshold the min number of sub-resources to render the log entries in parallel. 0 or less to disable
+     */
+    public SplitStorageExpandLogStrategy(Vertx vertx, ThreadingModel threadingModel, int parallelSplitThreshold) {
+        super(vertx, threadingModel);
+        this.parallelSplitThreshold = parallelSplitThreshold;
     }
 
     @Override
-    public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
-        vertx.executeBlocking(future -> {
-            try {
-                List<String> logEntries = new ArrayList<>();
-                JsonObject storageExpandLog = verifyLogInput(logToTransform);
-                Map<String, JsonObject> subRequestsMap = extractSubLogEntries(storageExpandLog);
-                JsonObject skeleton = buildLogEntryJsonObjectSkeleton(storageExpandLog);
-                for (Map.Entry<String, JsonObject> subRequest : subRequestsMap.entrySet()) {
-                    JsonObject subRequestObj = skeleton.copy();
-                    subRequestObj.put(PROP_URL, subRequestObj.getString(PROP_URL).replace(PARAM_STORAGE_EXPAND, subRequest.getKey()));
-                    subRequestObj.getJsonObject(PROP_RESPONSE).put(PROP_BODY, subRequest.getValue());
-                    logEntries.add(subRequestObj.encode());
-                }
-                future.complete(logEntries);
-            } catch (LogContentException ex) {
-                future.complete(doNothingInCaseOfError(logToTransform, ex.getMessage()));
+    public List<String> transformLogBlocking(String logToTransform) {
+        try {
+            List<String> logEntries = new ArrayList<>();
+            for (Buffer logEntry : split(verifyLogInput(parseStringLogToJsonObject(logToTransform)))) {
+                logEntries.add(logEntry.toString());
             }
-        }, resultHandler);
+            return logEntries;
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfError(logToTransform, ex.getMessage());
+        }
+    }
+
+    @Override
+    public List<Buffer> transformBufferBlocking(Buffer logToTransform) {
+        try {
+            return split(verifyLogInput(parseBufferLogToJsonObject(logToTransform)));
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfBufferError(logToTransform, ex.getMessage());
+        }
+    }
+
+    private List<Buffer> split(JsonObject storageExpandLog) throws LogContentException {
+        Map<String, JsonObject> subRequestsMap = extractSubLogEntries(storageExpandLog);
+        StorageExpandEntryTemplate template = buildLogEntryTemplate(buildLogEntryJsonObjectSkeleton(storageExpandLog));
+        if (parallelSplitThreshold > 0 && subRequestsMap.size() >= parallelSplitThreshold) {
+            List<Map.Entry<String, JsonObject>> subRequests = new ArrayList<>(subRequestsMap.entrySet());
+            return IntStream.range(0, subRequests.size()).parallel()
+                    .mapToObj(i -> template.render(subRequests.get(i).getKey(), subRequests.get(i).getValue().toBuffer()))
+                    .collect(Collectors.toList());
+        }
+        List<Buffer> logEntries = new ArrayList<>(subRequestsMap.size());
+        for (Map.Entry<String, JsonObject> subRequest : subRequestsMap.entrySet()) {
+            logEntries.add(template.render(subRequest.getKey(), subRequest.getValue().toBuffer()));
+        }
+        return logEntries;
     }
 
-    private JsonObject verifyLogInput(String logToTransform) throws LogContentException {
-        JsonObject storageExpandLog = parseStringLogToJsonObject(logToTransform);
+    /**
+     * Splits the provided log into a log entry per sub-resource. The log entries only get their own top-level object
+     * and response object, the other values of the skeleton are shared and the sub-resource bodies are moved from the
+     * provided log into the log entries. Like {@link #transformLogBlocking(String)}, logs with at least
+     * <code>parallelSplitThreshold</code> sub-resources are split in parallel.
+     */
+    @Override
+    public List<JsonObject> transformDocument(JsonObject document) throws LogContentException {
+        JsonObject storageExpandLog = verifyLogInput(document);
+        Map<String, JsonObject> subRequestsMap = extractSubLogEntries(storageExpandLog);
+        JsonObject skeleton = buildLogEntryJsonObjectSkeleton(storageExpandLog);
+        String urlPrefix = urlPrefix(skeleton.getString(PROP_URL));
+        List<Map.Entry<String, JsonObject>> subRequests = new ArrayList<>(subRequestsMap.entrySet());
+        if (parallelSplitThreshold > 0 && subRequests.size() >= parallelSplitThreshold) {
+            return IntStream.range(0, subRequests.size()).parallel()
+                    .mapToObj(i -> buildLogEntry(skeleton, urlPrefix, subRequests.get(i)))
+                    .collect(Collectors.toList());
+        }
+        List<JsonObject> logEntries = new ArrayList<>(subRequests.size());
+        for (Map.Entry<String, JsonObject> subRequest : subRequests) {
+            logEntries.add(buildLogEntry(skeleton, urlPrefix, subRequest));
+        }
+        return logEntries;
+    }
 
+    private static JsonObject buildLogEntry(JsonObject skeleton, String urlPrefix, Map.Entry<String, JsonObject> subRequest) {
+        JsonObject logEntry = shallowCopy(skeleton);
+        logEntry.put(PROP_URL, urlPrefix + subRequest.getKey());
+        JsonObject response = shallowCopy(skeleton.getJsonObject(PROP_RESPONSE));
+        response.put(PROP_BODY, subRequest.getValue());
+        logEntry.put(PROP_RESPONSE, response);
+        return logEntry;
+    }
+
+    private JsonObject verifyLogInput(JsonObject storageExpandLog) throws LogContentException {
         try {
             if(!storageExpandLog.containsKey(PROP_URL) || storageExpandLog.getString(PROP_URL) == null || !storageExpandLog.getString(PROP_URL).endsWith("/" + PARAM_STORAGE_EXPAND)){
                 throw new LogContentException("Property '"+PROP_URL+"' is missing or has invalid content");
@@ -106,12 +183,65 @@ public class SplitStorageExpandLogStrategy extends AbstractTransformStrategy {
         }
     }
 
+    /**
+     * The skeleton is only encoded into the template and never modified afterwards, so a shallow copy of the
+     * changed objects is sufficient. This way the (potentially large) response body is not copied.
+     */
     private JsonObject buildLogEntryJsonObjectSkeleton(JsonObject storageExpandLog) {
-        JsonObject skeleton = storageExpandLog.copy();
+        JsonObject skeleton = shallowCopy(storageExpandLog);
         skeleton.put(PROP_METHOD, "GET");
-        skeleton.getJsonObject(PROP_REQUEST).remove(PROP_BODY);
-        skeleton.getJsonObject(PROP_RESPONSE).remove(PROP_HEADERS);
-        skeleton.getJsonObject(PROP_RESPONSE).remove(PROP_BODY);
+        JsonObject request = shallowCopy(storageExpandLog.getJsonObject(PROP_REQUEST));
+        request.remove(PROP_BODY);
+        skeleton.put(PROP_REQUEST, request);
+        JsonObject response = shallowCopy(storageExpandLog.getJsonObject(PROP_RESPONSE));
+        response.remove(PROP_HEADERS);
+        response.remove(PROP_BODY);
+        skeleton.put(PROP_RESPONSE, response);
         return skeleton;
     }
+
+    /**
+     * @return the verified url without the trailing storageExpand parameter. The sub-resource name is appended to it
+     */
+    private static String urlPrefix(String url) {
+        return url.substring(0, url.length() - PARAM_STORAGE_EXPAND.length());
+    }
+
+    private static JsonObject shallowCopy(JsonObject jsonObject) {
+        return new JsonObject(new LinkedHashMap<>(jsonObject.getMap()));
+    }
+
+    /**
+     * Encodes the skeleton into a template. The fields are written in the order of the skeleton, the url gets the
+     * sub-resource name slot in place of the storageExpand parameter and the body slot is appended to the response,
+     * the same position the body would get when put into the skeleton.
+     */
+    private StorageExpandEntryTemplate buildLogEntryTemplate(JsonObject skeleton) throws LogContentException {
+        try {
+            StorageExpandEntryTemplate.Builder builder = StorageExpandEntryTemplate.builder();
+            JsonGenerator generator = builder.generator();
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> field : skeleton) {
+                if (PROP_URL.equals(field.getKey())) {
+                    builder.writeUrlField(urlPrefix((String) field.getValue()));
+                } else if (PROP_RESPONSE.equals(field.getKey())) {
+                    generator.writeFieldName(PROP_RESPONSE);
+                    generator.writeStartObject();
+                    for (Map.Entry<String, Object> responseField : (JsonObject) field.getValue()) {
+                        generator.writeFieldName(responseField.getKey());
+                        JacksonCodec.encodeJson(responseField.getValue(), generator);
+                    }
+                    builder.writeBodyField();
+                    generator.writeEndObject();
+                } else {
+                    generator.writeFieldName(field.getKey());
+                    JacksonCodec.encodeJson(field.getValue(), generator);
+                }
+            }
+            generator.writeEndObject();
+            return builder.build();
+        } catch (IOException | EncodeException ex) {
+            throw new LogContentException("Log entry template could not be built", ex);
+        }
+    }
 }
@@ -0,0 +1,127 @@
+package org.swisspush.logtransformer.strategy;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pre-encoded skeleton of a split storageExpand log entry. The skeleton is encoded once into fixed byte segments
+ * separated by slots for the sub-resource name (appended to the url) and the sub-resource body. A log entry is
+ * rendered by concatenating the fixed segments with the content of the slots.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+class StorageExpandEntryTemplate {
+
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    enum Slot {
+        KEY, BODY
+    }
+
+    private final byte[][] segments;
+    private final Slot[] slots;
+    private final int fixedLength;
+
+    private StorageExpandEntryTemplate(byte[][] segments, Slot[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * Renders a log entry for the provided sub-resource.
+     *
+     * @param key the name of the sub-resource, will be appended to the url
+     * @param body the JSON encoded body of the sub-resource
+     * @return the encoded log entry
+     */
+    Buffer render(String key, Buffer body) {
+        byte[] quotedKey = JsonStringEncoder.getInstance().quoteAsUTF8(key);
+        Buffer entry = Buffer.buffer(fixedLength + quotedKey.length + body.length());
+        entry.appendBytes(segments[0]);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == Slot.KEY) {
+                entry.appendBytes(quotedKey);
+            } else {
+                entry.appendBuffer(body);
+            }
+            entry.appendBytes(segments[i + 1]);
+        }
+        return entry;
+    }
+
+    static Builder builder() throws IOException {
+        return new Builder();
+    }
+
+    /**
+     * Builder encoding the skeleton through a {@link JsonGenerator}. The fixed parts of the skeleton are written
+     * with the {@link #generator()}, the slots are written with {@link #writeUrlField(String)} and {@link #writeBodyField()}.
+     */
+    static class Builder {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final JsonGenerator generator;
+        private final List<Integer> slotPositions = new ArrayList<>();
+        private final List<Slot> slots = new ArrayList<>();
+
+        private Builder() throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        }
+
+        JsonGenerator generator() {
+            return generator;
+        }
+
+        /**
+         * Writes the url field. The sub-resource name slot is placed directly after the provided url prefix.
+         */
+        void writeUrlField(String urlPrefix) throws IOException {
+            generator.writeFieldName(SplitStorageExpandLogStrategy.PROP_URL);
+            generator.writeRawValue("\"" + new String(JsonStringEncoder.getInstance().quoteAsString(urlPrefix)));
+            mark(Slot.KEY);
+            generator.writeRaw('"');
+        }
+
+        /**
+         * Writes the body field with the sub-resource body slot as value.
+         */
+        void writeBodyField() throws IOException {
+            generator.writeFieldName(SplitStorageExpandLogStrategy.PROP_BODY);
+            generator.writeRawValue("");
+            mark(Slot.BODY);
+        }
+
+        private void mark(Slot slot) throws IOException {
+            generator.flush();
+            slotPositions.add(out.size());
+            slots.add(slot);
+        }
+
+        StorageExpandEntryTemplate build() throws IOException {
+            generator.close();
+            byte[] encoded = out.toByteArray();
+            byte[][] segments = new byte[slots.size() + 1][];
+            int start = 0;
+            for (int i = 0; i < slots.size(); i++) {
+                int end = slotPositions.get(i);
+                segments[i] = Arrays.copyOfRange(encoded, start, end);
+                start = end;
+            }
+            segments[slots.size()] = Arrays.copyOfRange(encoded, start, encoded.length);
+            return new StorageExpandEntryTemplate(segments, slots.toArray(new Slot[0]));
+        }
+    }
+}
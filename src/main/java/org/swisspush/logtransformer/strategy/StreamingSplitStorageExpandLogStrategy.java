@@ -0,0 +1,290 @@
+package org.swisspush.logtransformer.strategy;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.jackson.JacksonCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy.*;
+
+/**
+ * A streaming variant of the {@link SplitStorageExpandLogStrategy} producing semantically equivalent log entries.
+ * <p>
+ * The log is read in a single pass over the Jackson token stream. The sub-resources in <code>response.body</code>
+ * are never parsed into a JsonObject. Their raw bytes are written into the log entries instead. Use this
+ * strategy for large storageExpand responses with many sub-resources.
+ * </p>
+ * <p>
+ * Because the raw bytes are copied, the log entries are not byte-for-byte equal to the ones of the
+ * {@link SplitStorageExpandLogStrategy}: whitespace between the tokens and escape sequences like <code>&#92;u0041</code>
+ * are kept as they are in the original log, and duplicate keys within a sub-resource are all emitted instead of the
+ * last one winning. Only sub-resources containing line breaks are re-encoded.
+ * </p>
+ * <p>
+ * In contrast to the {@link SplitStorageExpandLogStrategy}, the log entries are returned in the order of the
+ * sub-resources in the original log.
+ * </p>
+ * <p>
+ * This strategy works natively on UTF-8 encoded {@link Buffer} logs, see {@link #transformBuffer(Buffer, io.vertx.core.Handler)}.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class StreamingSplitStorageExpandLogStrategy extends AbstractBlockingTransformStrategy {
+
+    public StreamingSplitStorageExpandLogStrategy(Vertx vertx) {
+        this(vertx, ThreadingModel.WORKER);
+    }
+
+    public StreamingSplitStorageExpandLogStrategy(Vertx vertx, ThreadingModel threadingModel) {
+        super(vertx, threadingModel);
+    }
+
+    @Override
+    public List<String> transformLogBlocking(String logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            List<String> logEntries = new ArrayList<>();
+            for (Buffer logEntry : split(Buffer.buffer(logToTransform))) {
+                logEntries.add(logEntry.toString());
+            }
+            return logEntries;
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfError(logToTransform, ex.getMessage());
+        }
+    }
+
+    /**
+     * Transforms the provided UTF-8 encoded log without converting it to a String. The returned log entries are
+     * UTF-8 encoded as well.
+     */
+    @Override
+    public List<Buffer> transformBufferBlocking(Buffer logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return split(logToTransform);
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfBufferError(logToTransform, ex.getMessage());
+        }
+    }
+
+    private List<Buffer> split(Buffer log) throws LogContentException {
+        StorageExpandLogReader reader = new StorageExpandLogReader();
+        try (JsonParser parser = JacksonCodec.createParser(log)) {
+            reader.read(parser);
+        } catch (DecodeException | IOException ex) {
+            throw new LogContentException("Log could not be converted to JSON", ex);
+        }
+        reader.verify();
+
+        List<Buffer> logEntries = new ArrayList<>(reader.subResources.size());
+        for (SubResource subResource : reader.subResources) {
+            logEntries.add(reader.template.render(subResource.key, compact(log.slice(subResource.start, subResource.end))));
+        }
+        return logEntries;
+    }
+
+    /**
+     * Sub-resources are copied as raw bytes. Line breaks are only allowed as whitespace in JSON, so a sub-resource
+     * containing line breaks is re-encoded to keep the log entry on a single line.
+     */
+    private static Buffer compact(Buffer json) throws LogContentException {
+        for (int i = 0; i < json.length(); i++) {
+            byte b = json.getByte(i);
+            if (b == '\n' || b == '\r') {
+                try (JsonParser parser = JacksonCodec.createParser(json)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(json.length());
+                    try (JsonGenerator generator = StorageExpandEntryTemplate.JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                        parser.nextToken();
+                        generator.copyCurrentStructure(parser);
+                    }
+                    return Buffer.buffer(out.toByteArray());
+                } catch (IOException ex) {
+                    throw new LogContentException("Log could not be converted to JSON", ex);
+                }
+            }
+        }
+        return json;
+    }
+
+    private static class SubResource {
+        private final String key;
+        private final int start;
+        private final int end;
+
+        SubResource(String key, int start, int end) {
+            this.key = key;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Reads the storageExpand log in a single pass. The skeleton of the log entries is written into the
+     * {@link StorageExpandEntryTemplate} while reading, the sub-resources are only recorded by their position.
+     */
+    private static class StorageExpandLogReader {
+        private static final String INVALID_CONTENT = "Property '%s' is missing or has invalid content";
+        private static final String UNEXPECTED_TYPE = "Property '%s' has an unexpected type";
+
+        private final List<SubResource> subResources = new ArrayList<>();
+        private StorageExpandEntryTemplate template;
+
+        private String urlError = String.format(INVALID_CONTENT, PROP_URL);
+        private String responseError = String.format(INVALID_CONTENT, PROP_RESPONSE);
+        private String bodyError = String.format(INVALID_CONTENT, PROP_RESPONSE + "." + PROP_BODY);
+        private String requestError = String.format(INVALID_CONTENT, PROP_REQUEST);
+        private String subResourceError;
+
+        void read(JsonParser parser) throws IOException {
+            StorageExpandEntryTemplate.Builder builder = StorageExpandEntryTemplate.builder();
+            JsonGenerator generator = builder.generator();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodeException("Log is not a JSON object");
+            }
+            boolean methodWritten = false;
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case PROP_URL:
+                        readUrl(parser, token, builder);
+                        break;
+                    case PROP_METHOD:
+                        generator.writeStringField(PROP_METHOD, "GET");
+                        parser.skipChildren();
+                        methodWritten = true;
+                        break;
+                    case PROP_REQUEST:
+                        readRequest(parser, token, generator);
+                        break;
+                    case PROP_RESPONSE:
+                        readResponse(parser, token, builder);
+                        break;
+                    default:
+                        generator.writeFieldName(name);
+                        generator.copyCurrentStructure(parser);
+                }
+            }
+            if (!methodWritten) {
+                generator.writeStringField(PROP_METHOD, "GET");
+            }
+            generator.writeEndObject();
+            if (parser.nextToken() != null) {
+                throw new DecodeException("Unexpected content after JSON object");
+            }
+            template = builder.build();
+        }
+
+        private void readUrl(JsonParser parser, JsonToken token, StorageExpandEntryTemplate.Builder builder) throws IOException {
+            String url = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+            if (url != null && url.endsWith("/" + PARAM_STORAGE_EXPAND)) {
+                builder.writeUrlField(url.substring(0, url.length() - PARAM_STORAGE_EXPAND.length()));
+                urlError = null;
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        private void readRequest(JsonParser parser, JsonToken token, JsonGenerator generator) throws IOException {
+            if (token != JsonToken.START_OBJECT) {
+                if (token != JsonToken.VALUE_NULL) {
+                    requestError = String.format(UNEXPECTED_TYPE, PROP_REQUEST);
+                }
+                parser.skipChildren();
+                return;
+            }
+            requestError = null;
+            generator.writeFieldName(PROP_REQUEST);
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (PROP_BODY.equals(name)) {
+                    parser.skipChildren();
+                } else {
+                    generator.writeFieldName(name);
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        private void readResponse(JsonParser parser, JsonToken token, StorageExpandEntryTemplate.Builder builder) throws IOException {
+            if (token != JsonToken.START_OBJECT) {
+                if (token != JsonToken.VALUE_NULL) {
+                    responseError = String.format(UNEXPECTED_TYPE, PROP_RESPONSE);
+                }
+                parser.skipChildren();
+                return;
+            }
+            responseError = null;
+            JsonGenerator generator = builder.generator();
+            generator.writeFieldName(PROP_RESPONSE);
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if (PROP_HEADERS.equals(name)) {
+                    parser.skipChildren();
+                } else if (PROP_BODY.equals(name)) {
+                    readBody(parser, valueToken);
+                } else {
+                    generator.writeFieldName(name);
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            builder.writeBodyField();
+            generator.writeEndObject();
+        }
+
+        private void readBody(JsonParser parser, JsonToken token) throws IOException {
+            if (token != JsonToken.START_OBJECT) {
+                if (token != JsonToken.VALUE_NULL) {
+                    bodyError = String.format(UNEXPECTED_TYPE, PROP_RESPONSE + "." + PROP_BODY);
+                }
+                parser.skipChildren();
+                return;
+            }
+            bodyError = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if (valueToken == JsonToken.START_OBJECT) {
+                    int start = (int) parser.getTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    int end = (int) parser.getCurrentLocation().getByteOffset();
+                    subResources.add(new SubResource(key, start, end));
+                } else {
+                    if (subResourceError == null) {
+                        subResourceError = valueToken == JsonToken.VALUE_NULL ? "No message body found" : "Unexpected property type found";
+                    }
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        void verify() throws LogContentException {
+            for (String error : new String[]{urlError, responseError, bodyError, requestError, subResourceError}) {
+                if (error != null) {
+                    throw new LogContentException(error);
+                }
+            }
+        }
+    }
+}
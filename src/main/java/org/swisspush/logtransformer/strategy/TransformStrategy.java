@@ -2,6 +2,8 @@ package org.swisspush.logtransformer.strategy;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import org.swisspush.logtransformer.util.BufferUtils;
 
 import java.util.List;
 
@@ -20,4 +22,26 @@ public interface TransformStrategy {
      *
      */
     void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler);
+
+    /**
+     * Transforms the provided UTF-8 encoded logToTransform and returns a list of UTF-8 encoded log entries asynchronous.
+     * <p>
+     * The default implementation converts the log from and to Strings and delegates to
+     * {@link #transformLog(String, Handler)}. Override this method to transform the log without String conversion.
+     * </p>
+     *
+     * @param logToTransform the UTF-8 encoded log to transform
+     * @param resultHandler the handler containing the transformed log
+     */
+    default void transformBuffer(Buffer logToTransform, Handler<AsyncResult<List<Buffer>>> resultHandler) {
+        transformLog(logToTransform == null ? null : logToTransform.toString(),
+                result -> resultHandler.handle(result.map(BufferUtils::toBuffers)));
+    }
+
+    /**
+     * @return the name of the strategy used in the log output and the metrics. Defaults to the simple class name
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
 }
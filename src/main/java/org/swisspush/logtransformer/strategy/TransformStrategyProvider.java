@@ -0,0 +1,35 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+
+/**
+ * <p>
+ * Service provider interface to register custom {@link TransformStrategy} implementations in the
+ * {@link DefaultTransformStrategyFinder} without changing the finder.
+ * </p>
+ * <p>
+ * Implementations are discovered with the {@link java.util.ServiceLoader}. List the fully qualified class names of the
+ * implementations in a <code>META-INF/services/org.swisspush.logtransformer.strategy.TransformStrategyProvider</code>
+ * file on the classpath.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public interface TransformStrategyProvider {
+
+    /**
+     * @return the strategy name used in the strategy header. The name is matched case-insensitive
+     */
+    String getStrategyName();
+
+    /**
+     * Creates the {@link TransformStrategy}. Called once when the {@link DefaultTransformStrategyFinder} is created.
+     *
+     * @param vertx the Vert.x instance
+     * @param threadingModel the configured {@link ThreadingModel} of the strategy
+     * @return the {@link TransformStrategy} implementation. When null is returned, a warning is logged and no strategy
+     * is registered
+     */
+    TransformStrategy createTransformStrategy(Vertx vertx, ThreadingModel threadingModel);
+}
@@ -0,0 +1,189 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swisspush.logtransformer.util.WorkerPool;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import static org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy.*;
+
+/**
+ * <p>
+ * Warms up the strategies of a {@link TransformStrategyFinder} by transforming a sample log repeatedly, so that the
+ * classes are loaded, Jackson is initialized and the hot code paths are compiled before the first message arrives.
+ * The transformed log entries are discarded and nothing is logged.
+ * </p>
+ * <p>
+ * The strategies are resolved by name with the finder. The built-in strategies of a
+ * {@link DefaultTransformStrategyFinder} transform a built-in storageExpand log, see {@link #defaultSample()}. Other
+ * strategies (or chains) are only warmed up when a sample is configured, since they may not accept the built-in log
+ * and would then count fallbacks and log errors. Samples of names the finder does not know are logged and skipped.
+ * </p>
+ * <p>
+ * A {@link BlockingTransformStrategy} transforms the sample with {@link BlockingTransformStrategy#transformLogBlocking(String)}
+ * and {@link BlockingTransformStrategy#transformEntriesBlocking(Buffer)} on a worker thread, the strategies are warmed
+ * up in parallel. The worker thread is taken from the dedicated pool of the strategy when it has one. Other strategies transform the sample with {@link TransformStrategy#transformLog(String, io.vertx.core.Handler)}
+ * one iteration after the other. A failing strategy is logged and does not fail the warm-up.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class TransformStrategyWarmUp {
+
+    private final Logger log = LoggerFactory.getLogger(TransformStrategyWarmUp.class);
+
+    private final Vertx vertx;
+    private final int iterations;
+    private final Function<TransformStrategy, WorkerPool> workerPools;
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param iterations the number of times every strategy transforms its sample
+     */
+    public TransformStrategyWarmUp(Vertx vertx, int iterations) {
+        this(vertx, iterations, strategy -> null);
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param iterations the number of times every strategy transforms its sample
+     * @param workerPools provides the dedicated worker pool of a strategy or null when the strategy has none
+     */
+    public TransformStrategyWarmUp(Vertx vertx, int iterations, Function<TransformStrategy, WorkerPool> workerPools) {
+        this.vertx = vertx;
+        this.iterations = iterations;
+        this.workerPools = workerPools;
+    }
+
+    /**
+     * Warms up the strategies of the provided finder.
+     *
+     * @param finder the finder to resolve the strategies with
+     * @param strategyHeader the name of the header property containing the strategy
+     * @param samples the sample log per strategy name. Built-in strategies not contained use the {@link #defaultSample()}
+     * @return a future completed when all strategies have been warmed up. The future is never failed
+     */
+    public Future<Void> warmUp(TransformStrategyFinder finder, String strategyHeader, Map<String, String> samples) {
+        Map<TransformStrategy, String> strategies = resolve(finder, strategyHeader, samples);
+        long start = System.currentTimeMillis();
+        List<Future<Void>> futures = new ArrayList<>(strategies.size());
+        strategies.forEach((strategy, sample) -> futures.add(warmUp(strategy, sample)));
+        return Future.join(futures).transform(result -> {
+            log.info("Warmed up " + strategies.size() + " log transform strategies with " + iterations + " iterations in "
+                    + (System.currentTimeMillis() - start) + "ms");
+            return Future.succeededFuture();
+        });
+    }
+
+    /**
+     * Warms up the provided strategy.
+     *
+     * @param strategy the strategy to warm up
+     * @param sample the log to transform
+     * @return a future completed when the strategy has transformed the sample for the configured number of iterations
+     */
+    public Future<Void> warmUp(TransformStrategy strategy, String sample) {
+        Future<Void> future;
+        if (strategy instanceof BlockingTransformStrategy) {
+            BlockingTransformStrategy blockingStrategy = (BlockingTransformStrategy) strategy;
+            Callable<Void> task = () -> {
+                for (int i = 0; i < iterations; i++) {
+                    blockingStrategy.transformLogBlocking(sample);
+                    blockingStrategy.transformEntriesBlocking(Buffer.buffer(sample));
+                }
+                return null;
+            };
+            WorkerPool workerPool = workerPools.apply(strategy);
+            future = workerPool != null ? workerPool.executeBlocking(task) : vertx.executeBlocking(task, false);
+        } else {
+            Promise<Void> promise = Promise.promise();
+            transformAsync(strategy, sample, iterations, promise);
+            future = promise.future();
+        }
+        return future.recover(cause -> {
+            log.warn("Warm-up of log transform strategy '" + strategy.getName() + "' failed: " + cause.getMessage());
+            return Future.succeededFuture();
+        });
+    }
+
+    /**
+     * @return a storageExpand log with two sub-resources, accepted by all built-in strategies
+     */
+    public static String defaultSample() {
+        JsonObject subResource = new JsonObject()
+                .put("dataId", 70000007)
+                .put("identCode", "123456")
+                .put("deliveryDate", "2014-11-27T01:00:00+01:00")
+                .put("displayInfo", new JsonObject().put("validFrom", "2013-01-02T01:00:00+01:00").put("validTo", "2014-12-31T01:00:00+01:00"));
+        return new JsonObject()
+                .put(PROP_URL, "/warmup/resources/" + PARAM_STORAGE_EXPAND)
+                .put(PROP_METHOD, "POST")
+                .put("statusCode", 200)
+                .put(PROP_REQUEST, new JsonObject()
+                        .put(PROP_HEADERS, new JsonObject().put("x-rp-unique-id", "3723bcfac77301f858cbfe65b43219db"))
+                        .put(PROP_BODY, new JsonObject().put("subResources", new JsonArray().add("70000007").add("70000008"))))
+                .put(PROP_RESPONSE, new JsonObject()
+                        .put(PROP_HEADERS, new JsonObject().put("etag", "5cc22c7ccd2328e3d8618cd0a134c9a1b6d6c9c2"))
+                        .put(PROP_BODY, new JsonObject().put("70000007", subResource).put("70000008", subResource.copy().put("dataId", 70000008))))
+                .encode();
+    }
+
+    /**
+     * @return the strategies to warm up with their sample log
+     */
+    Map<TransformStrategy, String> resolve(TransformStrategyFinder finder, String strategyHeader, Map<String, String> samples) {
+        Map<TransformStrategy, String> strategies = new IdentityHashMap<>();
+        if (finder instanceof DefaultTransformStrategyFinder) {
+            String defaultSample = defaultSample();
+            for (String name : ((DefaultTransformStrategyFinder) finder).getBuiltInStrategyNames()) {
+                strategies.put(resolve(finder, strategyHeader, name), defaultSample);
+            }
+        }
+        samples.forEach((name, sample) -> {
+            TransformStrategy strategy = finder instanceof DefaultTransformStrategyFinder
+                    ? ((DefaultTransformStrategyFinder) finder).getTransformStrategy(name)
+                    : resolve(finder, strategyHeader, name);
+            if (strategy == null) {
+                log.warn("No log transform strategy found for warm-up sample '" + name + "'. Skipping the sample");
+                return;
+            }
+            strategies.put(strategy, sample);
+        });
+        return strategies;
+    }
+
+    private static TransformStrategy resolve(TransformStrategyFinder finder, String strategyHeader, String name) {
+        return finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(strategyHeader, name));
+    }
+
+    /**
+     * Transforms the sample once per event loop iteration, so that strategies completing synchronously do not
+     * recurse.
+     */
+    private void transformAsync(TransformStrategy strategy, String sample, int remaining, Promise<Void> promise) {
+        if (remaining <= 0) {
+            promise.complete();
+            return;
+        }
+        strategy.transformLog(sample, result -> {
+            if (result.failed()) {
+                promise.fail(result.cause());
+            } else {
+                vertx.runOnContext(v -> transformAsync(strategy, sample, remaining - 1, promise));
+            }
+        });
+    }
+}
@@ -0,0 +1,419 @@
+package org.swisspush.logtransformer.strategy;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.JacksonCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Bounds the size of a log by truncating oversized values. The log is copied in a single pass over the Jackson token
+ * stream into a single log entry:
+ * </p>
+ * <ul>
+ *     <li>String values longer than <code>maxFieldSize</code> bytes are cut and end with {@value #TRUNCATED_SUFFIX}.
+ *     The length of a string is measured on its raw bytes, so the skipped part is never decoded</li>
+ *     <li>When the log entry reaches <code>maxEntrySize</code> bytes, all remaining fields and array elements are
+ *     skipped and the property {@value #PROP_TRUNCATED} is set on the log entry, replacing an existing property of
+ *     that name. A log entry can exceed the limit by the size of a single value</li>
+ * </ul>
+ * <p>
+ * A log which is not a JSON object is logged as is, cut to <code>maxEntrySize</code> bytes. A limit of 0 or less
+ * disables the corresponding truncation.
+ * </p>
+ * <p>
+ * This strategy works natively on UTF-8 encoded {@link Buffer} logs, see {@link #transformBuffer(Buffer, io.vertx.core.Handler)}.
+ * As a {@link DocumentTransformStrategy}, it truncates the parsed log entries of a {@link ChainedTransformStrategy}
+ * without encoding them. Put it after the splitting stage, e.g.
+ * <code>SplitStorageExpandLogStrategy|TruncatingTransformStrategy</code>, to bound every split log entry. The sizes
+ * of a parsed log entry are measured on the UTF-8 encoded string values and estimated for the JSON syntax.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class TruncatingTransformStrategy extends AbstractBlockingTransformStrategy implements DocumentTransformStrategy {
+
+    public static final int DEFAULT_MAX_FIELD_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
+    public static final String TRUNCATED_SUFFIX = "...[truncated]";
+    public static final String PROP_TRUNCATED = "truncated";
+
+    private static final byte[] TRUNCATED_SUFFIX_BYTES = TRUNCATED_SUFFIX.getBytes(StandardCharsets.UTF_8);
+
+    private final int maxFieldSize;
+    private final int maxEntrySize;
+
+    public TruncatingTransformStrategy(Vertx vertx) {
+        this(vertx, ThreadingModel.WORKER);
+    }
+
+    public TruncatingTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+        this(vertx, threadingModel, DEFAULT_MAX_FIELD_SIZE, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param threadingModel the threading model to transform the logs with
+     * @param maxFieldSize the max size in bytes of a string value. 0 or less for no limit
+     * @param maxEntrySize the max size in bytes of the log entry. 0 or less for no limit
+     */
+    public TruncatingTransformStrategy(Vertx vertx, ThreadingModel threadingModel, int maxFieldSize, int maxEntrySize) {
+        super(vertx, threadingModel);
+        this.maxFieldSize = maxFieldSize > 0 ? maxFieldSize : Integer.MAX_VALUE;
+        this.maxEntrySize = maxEntrySize > 0 ? maxEntrySize : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<String> transformLogBlocking(String logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return Collections.singletonList(truncate(Buffer.buffer(logToTransform)).toString());
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfError(truncateRaw(logToTransform), ex.getMessage());
+        }
+    }
+
+    /**
+     * Transforms the provided UTF-8 encoded log without converting it to a String. The returned log entry is
+     * UTF-8 encoded as well.
+     */
+    @Override
+    public List<Buffer> transformBufferBlocking(Buffer logToTransform) {
+        try {
+            if(logToTransform == null){
+                throw new LogContentException("Log was null and therefore could not be converted to JSON");
+            }
+            return Collections.singletonList(truncate(logToTransform));
+        } catch (LogContentException ex) {
+            return doNothingInCaseOfBufferError(truncateRaw(logToTransform), ex.getMessage());
+        }
+    }
+
+    /**
+     * Truncates the provided parsed log entry. The document is returned as is when nothing has to be truncated.
+     * Otherwise, the truncated values and their parents are copied, so nested values are never changed in place.
+     */
+    @Override
+    public List<JsonObject> transformDocument(JsonObject document) {
+        DocumentTruncator truncator = new DocumentTruncator();
+        JsonObject truncated = truncator.truncateObject(document);
+        if (truncator.entryTruncated) {
+            truncated.put(PROP_TRUNCATED, true);
+        }
+        return Collections.singletonList(truncated);
+    }
+
+    private String truncateRaw(String log) {
+        if (log == null || (long) log.length() * 3 <= maxEntrySize) {
+            return log;
+        }
+        Buffer buffer = Buffer.buffer(log);
+        Buffer truncated = truncateRaw(buffer);
+        return truncated == buffer ? log : truncated.toString();
+    }
+
+    /**
+     * Cuts the provided log to the max entry size on a UTF-8 character boundary
+     */
+    private Buffer truncateRaw(Buffer log) {
+        if (log == null || log.length() <= maxEntrySize) {
+            return log;
+        }
+        int end = maxEntrySize;
+        while (end > 0 && (log.getByte(end) & 0xC0) == 0x80) {
+            end--;
+        }
+        return log.getBuffer(0, end).appendBytes(TRUNCATED_SUFFIX_BYTES);
+    }
+
+    private Buffer truncate(Buffer log) throws LogContentException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(log.length(), maxEntrySize) + 64);
+        try (JsonParser parser = JacksonCodec.createParser(log);
+             JsonGenerator generator = StorageExpandEntryTemplate.JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            new LogCopier(log, parser, generator, out).copy();
+        } catch (DecodeException | IOException ex) {
+            throw new LogContentException("Log could not be converted to JSON", ex);
+        }
+        return Buffer.buffer(out.toByteArray());
+    }
+
+    /**
+     * Copies a single log from the parser to the generator
+     */
+    private class LogCopier {
+        private final Buffer log;
+        private final JsonParser parser;
+        private final JsonGenerator generator;
+        private final ByteArrayOutputStream out;
+        private boolean entryTruncated = false;
+        private ByteArrayOutputStream existingTruncated;
+
+        LogCopier(Buffer log, JsonParser parser, JsonGenerator generator, ByteArrayOutputStream out) {
+            this.log = log;
+            this.parser = parser;
+            this.generator = generator;
+            this.out = out;
+        }
+
+        void copy() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodeException("Log is not a JSON object");
+            }
+            copyObject();
+            if (parser.nextToken() != null) {
+                throw new DecodeException("Unexpected content after JSON object");
+            }
+        }
+
+        private void copyObject() throws IOException {
+            boolean root = parser.getParsingContext().getParent().inRoot();
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                if (entryTruncated || isEntryFull()) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                } else if (root && PROP_TRUNCATED.equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    captureExistingTruncated();
+                } else {
+                    generator.writeFieldName(parser.getCurrentName());
+                    copyValue(parser.nextToken());
+                }
+            }
+            if (root && entryTruncated) {
+                generator.writeBooleanField(PROP_TRUNCATED, true);
+            } else if (root && existingTruncated != null) {
+                generator.writeFieldName(PROP_TRUNCATED);
+                generator.writeRawValue(existingTruncated.toString(StandardCharsets.UTF_8));
+            }
+            generator.writeEndObject();
+        }
+
+        /**
+         * Keeps the value of an existing {@value #PROP_TRUNCATED} property of the log entry. It is written after the
+         * other properties unless it is replaced because the log entry is truncated.
+         */
+        private void captureExistingTruncated() throws IOException {
+            existingTruncated = new ByteArrayOutputStream();
+            try (JsonGenerator valueGenerator = StorageExpandEntryTemplate.JSON_FACTORY.createGenerator(existingTruncated, JsonEncoding.UTF8)) {
+                valueGenerator.copyCurrentStructure(parser);
+            }
+        }
+
+        private void copyArray() throws IOException {
+            generator.writeStartArray();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (entryTruncated || isEntryFull()) {
+                    parser.skipChildren();
+                } else {
+                    copyValue(token);
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        private void copyValue(JsonToken token) throws IOException {
+            if (token == JsonToken.START_OBJECT) {
+                copyObject();
+            } else if (token == JsonToken.START_ARRAY) {
+                copyArray();
+            } else if (token == JsonToken.VALUE_STRING) {
+                copyString();
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+
+        /**
+         * Copies the raw bytes of the current string token up to the max field size. The string is not decoded, the
+         * parser only skips the remaining bytes when reading the next token.
+         */
+        private void copyString() throws IOException {
+            int start = (int) parser.getTokenLocation().getByteOffset();
+            if (start < 0 || start >= log.length() || log.getByte(start) != '"') {
+                generator.copyCurrentEvent(parser);
+                return;
+            }
+            int limit = (int) Math.min((long) start + 1 + maxFieldSize, log.length());
+            int end = start + 1;
+            while (end < log.length()) {
+                byte b = log.getByte(end);
+                if (b == '"') {
+                    generator.writeRawUTF8String(log.getBytes(start + 1, end), 0, end - start - 1);
+                    return;
+                }
+                int length = b == '\\' ? escapeLength(end) : utf8Length(b);
+                if (end + length > limit) {
+                    byte[] truncated = new byte[end - start - 1 + TRUNCATED_SUFFIX_BYTES.length];
+                    log.getBytes(start + 1, end, truncated, 0);
+                    System.arraycopy(TRUNCATED_SUFFIX_BYTES, 0, truncated, end - start - 1, TRUNCATED_SUFFIX_BYTES.length);
+                    generator.writeRawUTF8String(truncated, 0, truncated.length);
+                    return;
+                }
+                end += length;
+            }
+            // unterminated string, let the parser report the error
+            generator.copyCurrentEvent(parser);
+        }
+
+        private int escapeLength(int index) {
+            return index + 1 < log.length() && log.getByte(index + 1) == 'u' ? 6 : 2;
+        }
+
+        private boolean isEntryFull() {
+            entryTruncated = out.size() + generator.getOutputBuffered() >= maxEntrySize;
+            return entryTruncated;
+        }
+    }
+
+    /**
+     * Truncates a parsed log entry. Values are only copied when they have to be truncated, the size of the log entry
+     * is estimated while walking the values.
+     */
+    private class DocumentTruncator {
+        private long size = 2;
+        private boolean entryTruncated = false;
+
+        JsonObject truncateObject(JsonObject object) {
+            Map<String, Object> map = object.getMap();
+            Map<String, Object> truncated = null;
+            int index = 0;
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                if (entryTruncated || isEntryFull()) {
+                    if (truncated == null) {
+                        truncated = copyOf(map, index);
+                    }
+                    break;
+                }
+                size += utf8Length(entry.getKey()) + 4;
+                Object value = truncateValue(entry.getValue());
+                if (truncated == null && value != entry.getValue()) {
+                    truncated = copyOf(map, index);
+                }
+                if (truncated != null) {
+                    truncated.put(entry.getKey(), value);
+                }
+                index++;
+            }
+            return truncated == null ? object : new JsonObject(truncated);
+        }
+
+        private JsonArray truncateArray(JsonArray array) {
+            List<Object> list = array.getList();
+            List<Object> truncated = null;
+            int index = 0;
+            for (Object element : list) {
+                if (entryTruncated || isEntryFull()) {
+                    if (truncated == null) {
+                        truncated = new ArrayList<>(list.subList(0, index));
+                    }
+                    break;
+                }
+                size += 1;
+                Object value = truncateValue(element);
+                if (truncated == null && value != element) {
+                    truncated = new ArrayList<>(list.subList(0, index));
+                }
+                if (truncated != null) {
+                    truncated.add(value);
+                }
+                index++;
+            }
+            return truncated == null ? array : new JsonArray(truncated);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object truncateValue(Object value) {
+            if (value instanceof JsonObject) {
+                return truncateObject((JsonObject) value);
+            } else if (value instanceof Map) {
+                JsonObject object = new JsonObject((Map<String, Object>) value);
+                JsonObject truncated = truncateObject(object);
+                return truncated == object ? value : truncated;
+            } else if (value instanceof JsonArray) {
+                return truncateArray((JsonArray) value);
+            } else if (value instanceof List) {
+                JsonArray array = new JsonArray((List<Object>) value);
+                JsonArray truncated = truncateArray(array);
+                return truncated == array ? value : truncated;
+            } else if (value instanceof String) {
+                return truncateString((String) value);
+            }
+            size += String.valueOf(value).length();
+            return value;
+        }
+
+        private String truncateString(String value) {
+            int bytes = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                int length = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+                if (bytes + length > maxFieldSize) {
+                    size += bytes + TRUNCATED_SUFFIX_BYTES.length + 2;
+                    return value.substring(0, i) + TRUNCATED_SUFFIX;
+                }
+                bytes += length;
+                if (length == 4) {
+                    i++;
+                }
+            }
+            size += bytes + 2;
+            return value;
+        }
+
+        private boolean isEntryFull() {
+            entryTruncated = size >= maxEntrySize;
+            return entryTruncated;
+        }
+
+        private Map<String, Object> copyOf(Map<String, Object> map, int count) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+            for (int i = 0; i < count; i++) {
+                Map.Entry<String, Object> entry = entries.next();
+                copy.put(entry.getKey(), entry.getValue());
+            }
+            return copy;
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(byte b) {
+        if ((b & 0xE0) == 0xC0) {
+            return 2;
+        } else if ((b & 0xF0) == 0xE0) {
+            return 3;
+        } else if ((b & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,129 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.streams.ReadStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Limits the number of messages being transformed and logged concurrently.
+ * </p>
+ * <p>
+ * When the max number of in-flight messages is reached, the provided stream (e.g. the event bus consumer) is paused
+ * until half of the in-flight messages have completed. With load shedding enabled, the stream is never paused.
+ * Messages exceeding the limit are rejected instead.
+ * </p>
+ * <p>
+ * Further streams sharing the same limit (e.g. the consumer of the batch address) are added with
+ * {@link #addStream(ReadStream)}. All streams are paused and resumed together.
+ * </p>
+ * <p>
+ * {@link #tryAcquire()} must be called on the context of the streams, {@link #release()} can be called from any thread.
+ * Every admitted message must be released exactly once, also when its processing fails with an {@link Error}.
+ * Otherwise the permit leaks and the streams eventually stay paused.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class AdmissionController {
+
+    private final Logger log = LoggerFactory.getLogger(AdmissionController.class);
+
+    private final Context context;
+    private final List<ReadStream<?>> streams = new CopyOnWriteArrayList<>();
+    private final int maxInFlight;
+    private final int resumeThreshold;
+    private final boolean loadShedding;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean paused = false;
+
+    /**
+     * @param context the context of the stream
+     * @param stream the stream to pause and resume
+     * @param maxInFlight the max number of in-flight messages. 0 or less for no limit
+     * @param loadShedding true to reject messages exceeding the limit instead of pausing the stream
+     */
+    public AdmissionController(Context context, ReadStream<?> stream, int maxInFlight, boolean loadShedding) {
+        this.context = context;
+        this.streams.add(stream);
+        this.maxInFlight = maxInFlight;
+        this.resumeThreshold = maxInFlight / 2;
+        this.loadShedding = loadShedding;
+    }
+
+    /**
+     * Adds a stream sharing the limit of this controller. Must be called on the context of the streams.
+     *
+     * @param stream the stream to pause and resume
+     */
+    public void addStream(ReadStream<?> stream) {
+        streams.add(stream);
+        if (paused) {
+            stream.pause();
+        }
+    }
+
+    /**
+     * Admits a message.
+     *
+     * @return true when the message has been admitted and {@link #release()} has to be called once the message has
+     * completed. false when the message has to be rejected
+     */
+    public boolean tryAcquire() {
+        if (maxInFlight <= 0) {
+            inFlight.incrementAndGet();
+            return true;
+        }
+        if (loadShedding) {
+            if (inFlight.get() >= maxInFlight) {
+                rejected.increment();
+                return false;
+            }
+            inFlight.incrementAndGet();
+            return true;
+        }
+        if (inFlight.incrementAndGet() >= maxInFlight && !paused) {
+            log.warn("Max number of " + maxInFlight + " in-flight messages reached. Pausing consumption of messages");
+            paused = true;
+            streams.forEach(ReadStream::pause);
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted message.
+     */
+    public void release() {
+        if (inFlight.decrementAndGet() <= resumeThreshold && paused) {
+            context.runOnContext(v -> {
+                if (paused && inFlight.get() <= resumeThreshold) {
+                    log.info("In-flight messages drained. Resuming consumption of messages");
+                    paused = false;
+                    streams.forEach(ReadStream::resume);
+                }
+            });
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the number of rejected messages
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+}
@@ -0,0 +1,54 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Utility class providing handy methods to convert between String and {@link Buffer} log entries.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class BufferUtils {
+
+    private BufferUtils() {
+        // prevent instantiation
+    }
+
+    /**
+     * Converts the provided UTF-8 encoded buffers into Strings.
+     *
+     * @param buffers the buffers to convert
+     * @return the converted Strings or null when the provided buffers were null
+     */
+    public static List<String> toStrings(List<Buffer> buffers) {
+        if (buffers == null) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(buffers.size());
+        for (Buffer buffer : buffers) {
+            strings.add(buffer == null ? null : buffer.toString());
+        }
+        return strings;
+    }
+
+    /**
+     * Converts the provided Strings into UTF-8 encoded buffers.
+     *
+     * @param strings the Strings to convert
+     * @return the converted buffers or null when the provided Strings were null
+     */
+    public static List<Buffer> toBuffers(List<String> strings) {
+        if (strings == null) {
+            return null;
+        }
+        List<Buffer> buffers = new ArrayList<>(strings.size());
+        for (String string : strings) {
+            buffers.add(string == null ? null : Buffer.buffer(string));
+        }
+        return buffers;
+    }
+}
@@ -0,0 +1,55 @@
+package org.swisspush.logtransformer.util;
+
+import org.slf4j.Logger;
+
+/**
+ * <p>
+ * Caches whether the info level of a {@link Logger} is enabled. SLF4J does not notify about level changes, so the
+ * cached value is refreshed when it is older than the refresh interval. A changed level is therefore picked up within
+ * the refresh interval.
+ * </p>
+ * <p>
+ * The check is thread-safe. Concurrent refreshes are harmless, since they read the same level.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class CachedLogLevel {
+
+    public static final long DEFAULT_REFRESH_INTERVAL_MS = 1000;
+
+    private final Logger log;
+    private final long refreshIntervalMs;
+    private volatile boolean infoEnabled;
+    private volatile long refreshedAt;
+
+    public CachedLogLevel(Logger log) {
+        this(log, DEFAULT_REFRESH_INTERVAL_MS);
+    }
+
+    /**
+     * @param log the logger to check the level of
+     * @param refreshIntervalMs the max age in milliseconds of the cached value
+     */
+    public CachedLogLevel(Logger log, long refreshIntervalMs) {
+        this.log = log;
+        this.refreshIntervalMs = refreshIntervalMs;
+        refresh(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the cached result of {@link Logger#isInfoEnabled()}
+     */
+    public boolean isInfoEnabled() {
+        long now = System.currentTimeMillis();
+        if (now - refreshedAt >= refreshIntervalMs) {
+            refresh(now);
+        }
+        return infoEnabled;
+    }
+
+    private void refresh(long now) {
+        infoEnabled = log.isInfoEnabled();
+        refreshedAt = now;
+    }
+}
@@ -1,6 +1,13 @@
 package org.swisspush.logtransformer.util;
 
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.json.JsonObject;
+import org.swisspush.logtransformer.logger.MappedSegmentLogTransformLogger.ForcePolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author https://github.com/mcweba [Marc-Andre Weber]
@@ -9,10 +16,117 @@ public class Configuration {
     private String address;
     private String loggerName;
     private String strategyHeader;
+    private Map<String, ThreadingModel> strategyThreadingModels;
+    private Map<String, String> strategies;
+    private ThreadingModel loggerThreadingModel;
+    private boolean fusedPipeline;
+    private LoggerType loggerType;
+    private int loggerQueueSize;
+    private int loggerBatchSize;
+    private long loggerFlushInterval;
+    private String loggerDirectory;
+    private long loggerSegmentSize;
+    private ForcePolicy loggerForcePolicy;
+    private int loggerBlockSize;
+    private long loggerRollSize;
+    private long loggerRollInterval;
+    private String metricsAddress;
+    private int maxInFlight;
+    private boolean loadShedding;
+    private String batchAddress;
+    private ReplyMode replyMode;
+    private int parallelSplitThreshold;
+    private long dedupWindow;
+    private int dedupCacheSize;
+    private long dedupReportInterval;
+    private int truncateFieldSize;
+    private int truncateEntrySize;
+    private int spillThreshold;
+    private long spillMaxSize;
+    private Map<String, Integer> strategyWorkerPoolSizes;
+    private int loggerWorkerPoolSize;
+    private long workerPoolMaxExecuteTime;
+    private int warmupIterations;
+    private Map<String, String> warmupSamples;
+    private long jfrThreshold;
 
     public static final String PROP_ADDRESS = "address";
     public static final String PROP_LOGGER_NAME = "loggerName";
     public static final String PROP_STRATEGY_HEADER = "strategyHeader";
+    public static final String PROP_STRATEGY_THREADING_MODELS = "strategyThreadingModels";
+    public static final String PROP_STRATEGIES = "strategies";
+    public static final String PROP_LOGGER_THREADING_MODEL = "loggerThreadingModel";
+    public static final String PROP_FUSED_PIPELINE = "fusedPipeline";
+    public static final String PROP_LOGGER_TYPE = "loggerType";
+    public static final String PROP_LOGGER_QUEUE_SIZE = "loggerQueueSize";
+    public static final String PROP_LOGGER_BATCH_SIZE = "loggerBatchSize";
+    public static final String PROP_LOGGER_FLUSH_INTERVAL = "loggerFlushInterval";
+    public static final String PROP_LOGGER_DIRECTORY = "loggerDirectory";
+    public static final String PROP_LOGGER_SEGMENT_SIZE = "loggerSegmentSize";
+    public static final String PROP_LOGGER_FORCE_POLICY = "loggerForcePolicy";
+    public static final String PROP_LOGGER_BLOCK_SIZE = "loggerBlockSize";
+    public static final String PROP_LOGGER_ROLL_SIZE = "loggerRollSize";
+    public static final String PROP_LOGGER_ROLL_INTERVAL = "loggerRollInterval";
+    public static final String PROP_METRICS_ADDRESS = "metricsAddress";
+    public static final String PROP_MAX_IN_FLIGHT = "maxInFlight";
+    public static final String PROP_LOAD_SHEDDING = "loadShedding";
+    public static final String PROP_BATCH_ADDRESS = "batchAddress";
+    public static final String PROP_REPLY_MODE = "replyMode";
+    public static final String PROP_PARALLEL_SPLIT_THRESHOLD = "parallelSplitThreshold";
+    public static final String PROP_DEDUP_WINDOW = "dedupWindow";
+    public static final String PROP_DEDUP_CACHE_SIZE = "dedupCacheSize";
+    public static final String PROP_DEDUP_REPORT_INTERVAL = "dedupReportInterval";
+    public static final String PROP_TRUNCATE_FIELD_SIZE = "truncateFieldSize";
+    public static final String PROP_TRUNCATE_ENTRY_SIZE = "truncateEntrySize";
+    public static final String PROP_SPILL_THRESHOLD = "spillThreshold";
+    public static final String PROP_SPILL_MAX_SIZE = "spillMaxSize";
+    public static final String PROP_STRATEGY_WORKER_POOL_SIZES = "strategyWorkerPoolSizes";
+    public static final String PROP_LOGGER_WORKER_POOL_SIZE = "loggerWorkerPoolSize";
+    public static final String PROP_WORKER_POOL_MAX_EXECUTE_TIME = "workerPoolMaxExecuteTime";
+    public static final String PROP_WARMUP_ITERATIONS = "warmupIterations";
+    public static final String PROP_WARMUP_SAMPLES = "warmupSamples";
+    public static final String PROP_JFR_THRESHOLD = "jfrThreshold";
+
+    /**
+     * The type of the logger used when no custom logger is provided
+     */
+    public enum LoggerType {
+        /**
+         * Logs every message in a separate task, see {@link org.swisspush.logtransformer.logger.DefaultLogTransformLogger}
+         */
+        DEFAULT,
+        /**
+         * Logs the messages in batches on a dedicated thread, see {@link org.swisspush.logtransformer.logger.BatchingLogTransformLogger}
+         */
+        BATCHING,
+        /**
+         * Appends the log entries directly into memory-mapped segment files, see {@link org.swisspush.logtransformer.logger.MappedSegmentLogTransformLogger}
+         */
+        MAPPED_SEGMENT,
+        /**
+         * Writes the log entries in batches into rolling GZIP compressed files, see {@link org.swisspush.logtransformer.logger.CompressedRollingLogTransformLogger}
+         */
+        COMPRESSED_ROLLING
+    }
+
+    /**
+     * Defines when the messages are replied
+     */
+    public enum ReplyMode {
+        /**
+         * Every message is replied
+         */
+        ALWAYS,
+        /**
+         * Only messages sent with a reply address (e.g. with <code>request()</code>) are replied. Published messages
+         * are not replied
+         */
+        WHEN_REQUESTED,
+        /**
+         * No message is replied, not even failed messages. Requests will time out
+         */
+        NEVER
+    }
 
     /**
      * Constructor with default values. Use the {@link ConfigurationBuilder} class
@@ -23,9 +137,7 @@ public class Configuration {
     }
 
     public Configuration(String address, String loggerName, String strategyHeader) {
-        this.address = address;
-        this.loggerName = loggerName;
-        this.strategyHeader = strategyHeader;
+        this(new ConfigurationBuilder().address(address).loggerName(loggerName).strategyHeader(strategyHeader));
     }
 
     public String getLoggerName() {
@@ -38,6 +150,165 @@ public class Configuration {
 
     public String getStrategyHeader() { return strategyHeader; }
 
+    /**
+     * @return the {@link ThreadingModel} per strategy name. Strategies not contained use {@link ThreadingModel#WORKER}
+     */
+    public Map<String, ThreadingModel> getStrategyThreadingModels() { return strategyThreadingModels; }
+
+    /**
+     * @return the fully qualified class name of custom {@link org.swisspush.logtransformer.strategy.TransformStrategy}
+     * implementations per strategy name
+     */
+    public Map<String, String> getStrategies() { return strategies; }
+
+    public ThreadingModel getLoggerThreadingModel() { return loggerThreadingModel; }
+
+    /**
+     * @return true when the transformation and the logging should be executed in a single task, when supported by
+     * the strategy and the logger
+     */
+    public boolean isFusedPipeline() { return fusedPipeline; }
+
+    public LoggerType getLoggerType() { return loggerType; }
+
+    /**
+     * @return the max number of pending messages of a {@link LoggerType#BATCHING} logger
+     */
+    public int getLoggerQueueSize() { return loggerQueueSize; }
+
+    /**
+     * @return the max number of log entries written in a single batch by a {@link LoggerType#BATCHING} logger
+     */
+    public int getLoggerBatchSize() { return loggerBatchSize; }
+
+    /**
+     * @return the max time in milliseconds a {@link LoggerType#BATCHING} logger waits for more log entries before writing a batch
+     */
+    public long getLoggerFlushInterval() { return loggerFlushInterval; }
+
+    /**
+     * @return the directory of the files of a {@link LoggerType#MAPPED_SEGMENT} or {@link LoggerType#COMPRESSED_ROLLING} logger
+     */
+    public String getLoggerDirectory() { return loggerDirectory; }
+
+    /**
+     * @return the size in bytes of the segment files of a {@link LoggerType#MAPPED_SEGMENT} logger
+     */
+    public long getLoggerSegmentSize() { return loggerSegmentSize; }
+
+    /**
+     * @return the {@link ForcePolicy} of a {@link LoggerType#MAPPED_SEGMENT} logger
+     */
+    public ForcePolicy getLoggerForcePolicy() { return loggerForcePolicy; }
+
+    /**
+     * @return the uncompressed size in bytes of a compressed block of a {@link LoggerType#COMPRESSED_ROLLING} logger
+     */
+    public int getLoggerBlockSize() { return loggerBlockSize; }
+
+    /**
+     * @return the compressed size in bytes after which a {@link LoggerType#COMPRESSED_ROLLING} logger starts a new file
+     */
+    public long getLoggerRollSize() { return loggerRollSize; }
+
+    /**
+     * @return the time in milliseconds after which a {@link LoggerType#COMPRESSED_ROLLING} logger starts a new file
+     */
+    public long getLoggerRollInterval() { return loggerRollInterval; }
+
+    /**
+     * @return the event bus address replying with a snapshot of the metrics or null when disabled
+     */
+    public String getMetricsAddress() { return metricsAddress; }
+
+    /**
+     * @return the max number of messages transformed and logged concurrently. 0 or less for no limit
+     */
+    public int getMaxInFlight() { return maxInFlight; }
+
+    /**
+     * @return true when messages exceeding the {@link #getMaxInFlight()} limit should be rejected instead of pausing
+     * the consumption of messages
+     */
+    public boolean isLoadShedding() { return loadShedding; }
+
+    /**
+     * @return the event bus address to listen on for batches of logs or null when disabled
+     */
+    public String getBatchAddress() { return batchAddress; }
+
+    public ReplyMode getReplyMode() { return replyMode; }
+
+    /**
+     * @return the min number of sub-resources of a storageExpand log to split it in parallel. 0 or less to disable
+     */
+    public int getParallelSplitThreshold() { return parallelSplitThreshold; }
+
+    /**
+     * @return the time in milliseconds in which identical log entries are logged only once. 0 or less to disable
+     */
+    public long getDedupWindow() { return dedupWindow; }
+
+    /**
+     * @return the max number of log entries remembered to suppress duplicates
+     */
+    public int getDedupCacheSize() { return dedupCacheSize; }
+
+    /**
+     * @return the interval in milliseconds to log the number of suppressed duplicates. 0 or less to disable
+     */
+    public long getDedupReportInterval() { return dedupReportInterval; }
+
+    /**
+     * @return the max size in bytes of a single value in a log entry of the TruncatingTransformStrategy. 0 or less for no limit
+     */
+    public int getTruncateFieldSize() { return truncateFieldSize; }
+
+    /**
+     * @return the max size in bytes of a log entry of the TruncatingTransformStrategy. 0 or less for no limit
+     */
+    public int getTruncateEntrySize() { return truncateEntrySize; }
+
+    /**
+     * @return the max number of log entries in-flight in the logger before log entries are spilled into a journal file. 0 or less to disable
+     */
+    public int getSpillThreshold() { return spillThreshold; }
+
+    /**
+     * @return the max size in bytes of the spill journal file
+     */
+    public long getSpillMaxSize() { return spillMaxSize; }
+
+    /**
+     * @return the size of the dedicated worker pool per strategy name. Strategies not contained use the shared Vert.x worker pool
+     */
+    public Map<String, Integer> getStrategyWorkerPoolSizes() { return strategyWorkerPoolSizes; }
+
+    /**
+     * @return the size of the dedicated worker pool of the logger. 0 or less to use the shared Vert.x worker pool
+     */
+    public int getLoggerWorkerPoolSize() { return loggerWorkerPoolSize; }
+
+    /**
+     * @return the max time in milliseconds a task of a dedicated worker pool may run before a warning is logged
+     */
+    public long getWorkerPoolMaxExecuteTime() { return workerPoolMaxExecuteTime; }
+
+    /**
+     * @return the number of times every strategy transforms its sample log before the LogTransformer starts. 0 or less to disable
+     */
+    public int getWarmupIterations() { return warmupIterations; }
+
+    /**
+     * @return the sample log per strategy name used for the warm-up. Built-in strategies not contained use a built-in storageExpand log, other strategies are not warmed up
+     */
+    public Map<String, String> getWarmupSamples() { return warmupSamples; }
+
+    /**
+     * @return the min duration in milliseconds of a message to record its JDK Flight Recorder events. 0 to record all messages
+     */
+    public long getJfrThreshold() { return jfrThreshold; }
+
     public static ConfigurationBuilder with(){
         return new ConfigurationBuilder();
     }
@@ -47,9 +318,49 @@ public class Configuration {
         obj.put(PROP_ADDRESS, getAddress());
         obj.put(PROP_LOGGER_NAME, getLoggerName());
         obj.put(PROP_STRATEGY_HEADER, getStrategyHeader());
+        JsonObject strategyThreadingModelsObj = new JsonObject();
+        getStrategyThreadingModels().forEach((strategy, threadingModel) -> strategyThreadingModelsObj.put(strategy, threadingModel.name()));
+        obj.put(PROP_STRATEGY_THREADING_MODELS, strategyThreadingModelsObj);
+        obj.put(PROP_STRATEGIES, new JsonObject(new HashMap<>(getStrategies())));
+        obj.put(PROP_LOGGER_THREADING_MODEL, getLoggerThreadingModel().name());
+        obj.put(PROP_FUSED_PIPELINE, isFusedPipeline());
+        obj.put(PROP_LOGGER_TYPE, getLoggerType().name());
+        obj.put(PROP_LOGGER_QUEUE_SIZE, getLoggerQueueSize());
+        obj.put(PROP_LOGGER_BATCH_SIZE, getLoggerBatchSize());
+        obj.put(PROP_LOGGER_FLUSH_INTERVAL, getLoggerFlushInterval());
+        obj.put(PROP_LOGGER_DIRECTORY, getLoggerDirectory());
+        obj.put(PROP_LOGGER_SEGMENT_SIZE, getLoggerSegmentSize());
+        obj.put(PROP_LOGGER_FORCE_POLICY, getLoggerForcePolicy().name());
+        obj.put(PROP_LOGGER_BLOCK_SIZE, getLoggerBlockSize());
+        obj.put(PROP_LOGGER_ROLL_SIZE, getLoggerRollSize());
+        obj.put(PROP_LOGGER_ROLL_INTERVAL, getLoggerRollInterval());
+        obj.put(PROP_METRICS_ADDRESS, getMetricsAddress());
+        obj.put(PROP_MAX_IN_FLIGHT, getMaxInFlight());
+        obj.put(PROP_LOAD_SHEDDING, isLoadShedding());
+        obj.put(PROP_BATCH_ADDRESS, getBatchAddress());
+        obj.put(PROP_REPLY_MODE, getReplyMode().name());
+        obj.put(PROP_PARALLEL_SPLIT_THRESHOLD, getParallelSplitThreshold());
+        obj.put(PROP_DEDUP_WINDOW, getDedupWindow());
+        obj.put(PROP_DEDUP_CACHE_SIZE, getDedupCacheSize());
+        obj.put(PROP_DEDUP_REPORT_INTERVAL, getDedupReportInterval());
+        obj.put(PROP_TRUNCATE_FIELD_SIZE, getTruncateFieldSize());
+        obj.put(PROP_TRUNCATE_ENTRY_SIZE, getTruncateEntrySize());
+        obj.put(PROP_SPILL_THRESHOLD, getSpillThreshold());
+        obj.put(PROP_SPILL_MAX_SIZE, getSpillMaxSize());
+        obj.put(PROP_STRATEGY_WORKER_POOL_SIZES, new JsonObject(new HashMap<>(getStrategyWorkerPoolSizes())));
+        obj.put(PROP_LOGGER_WORKER_POOL_SIZE, getLoggerWorkerPoolSize());
+        obj.put(PROP_WORKER_POOL_MAX_EXECUTE_TIME, getWorkerPoolMaxExecuteTime());
+        obj.put(PROP_WARMUP_ITERATIONS, getWarmupIterations());
+        obj.put(PROP_WARMUP_SAMPLES, new JsonObject(new HashMap<>(getWarmupSamples())));
+        obj.put(PROP_JFR_THRESHOLD, getJfrThreshold());
         return obj;
     }
 
+    /**
+     * @param json the configuration
+     * @return the configuration parsed from the provided json
+     * @throws IllegalArgumentException when a property has an unsupported value
+     */
     public static Configuration fromJsonObject(JsonObject json){
         ConfigurationBuilder builder = Configuration.with();
         if(json.containsKey(PROP_ADDRESS)){
@@ -61,11 +372,167 @@ public class Configuration {
         if(json.containsKey(PROP_STRATEGY_HEADER)){
             builder.strategyHeader(json.getString(PROP_STRATEGY_HEADER));
         }
+        if(json.containsKey(PROP_STRATEGY_THREADING_MODELS)){
+            JsonObject strategyThreadingModels = json.getJsonObject(PROP_STRATEGY_THREADING_MODELS);
+            for (String strategy : strategyThreadingModels.fieldNames()) {
+                builder.strategyThreadingModel(strategy, enumValue(ThreadingModel.class,
+                        PROP_STRATEGY_THREADING_MODELS + "." + strategy, strategyThreadingModels.getString(strategy)));
+            }
+        }
+        if(json.containsKey(PROP_STRATEGIES)){
+            JsonObject strategies = json.getJsonObject(PROP_STRATEGIES);
+            for (String strategy : strategies.fieldNames()) {
+                builder.strategy(strategy, strategies.getString(strategy));
+            }
+        }
+        if(json.containsKey(PROP_LOGGER_THREADING_MODEL)){
+            builder.loggerThreadingModel(enumValue(ThreadingModel.class, PROP_LOGGER_THREADING_MODEL, json.getString(PROP_LOGGER_THREADING_MODEL)));
+        }
+        if(json.containsKey(PROP_FUSED_PIPELINE)){
+            builder.fusedPipeline(json.getBoolean(PROP_FUSED_PIPELINE));
+        }
+        if(json.containsKey(PROP_LOGGER_TYPE)){
+            builder.loggerType(enumValue(LoggerType.class, PROP_LOGGER_TYPE, json.getString(PROP_LOGGER_TYPE)));
+        }
+        if(json.containsKey(PROP_LOGGER_QUEUE_SIZE)){
+            builder.loggerQueueSize(json.getInteger(PROP_LOGGER_QUEUE_SIZE));
+        }
+        if(json.containsKey(PROP_LOGGER_BATCH_SIZE)){
+            builder.loggerBatchSize(json.getInteger(PROP_LOGGER_BATCH_SIZE));
+        }
+        if(json.containsKey(PROP_LOGGER_FLUSH_INTERVAL)){
+            builder.loggerFlushInterval(json.getLong(PROP_LOGGER_FLUSH_INTERVAL));
+        }
+        if(json.containsKey(PROP_LOGGER_DIRECTORY)){
+            builder.loggerDirectory(json.getString(PROP_LOGGER_DIRECTORY));
+        }
+        if(json.containsKey(PROP_LOGGER_SEGMENT_SIZE)){
+            builder.loggerSegmentSize(json.getLong(PROP_LOGGER_SEGMENT_SIZE));
+        }
+        if(json.containsKey(PROP_LOGGER_FORCE_POLICY)){
+            builder.loggerForcePolicy(enumValue(ForcePolicy.class, PROP_LOGGER_FORCE_POLICY, json.getString(PROP_LOGGER_FORCE_POLICY)));
+        }
+        if(json.containsKey(PROP_LOGGER_BLOCK_SIZE)){
+            builder.loggerBlockSize(json.getInteger(PROP_LOGGER_BLOCK_SIZE));
+        }
+        if(json.containsKey(PROP_LOGGER_ROLL_SIZE)){
+            builder.loggerRollSize(json.getLong(PROP_LOGGER_ROLL_SIZE));
+        }
+        if(json.containsKey(PROP_LOGGER_ROLL_INTERVAL)){
+            builder.loggerRollInterval(json.getLong(PROP_LOGGER_ROLL_INTERVAL));
+        }
+        if(json.containsKey(PROP_METRICS_ADDRESS)){
+            builder.metricsAddress(json.getString(PROP_METRICS_ADDRESS));
+        }
+        if(json.containsKey(PROP_MAX_IN_FLIGHT)){
+            builder.maxInFlight(json.getInteger(PROP_MAX_IN_FLIGHT));
+        }
+        if(json.containsKey(PROP_LOAD_SHEDDING)){
+            builder.loadShedding(json.getBoolean(PROP_LOAD_SHEDDING));
+        }
+        if(json.containsKey(PROP_BATCH_ADDRESS)){
+            builder.batchAddress(json.getString(PROP_BATCH_ADDRESS));
+        }
+        if(json.containsKey(PROP_REPLY_MODE)){
+            builder.replyMode(enumValue(ReplyMode.class, PROP_REPLY_MODE, json.getString(PROP_REPLY_MODE)));
+        }
+        if(json.containsKey(PROP_PARALLEL_SPLIT_THRESHOLD)){
+            builder.parallelSplitThreshold(json.getInteger(PROP_PARALLEL_SPLIT_THRESHOLD));
+        }
+        if(json.containsKey(PROP_DEDUP_WINDOW)){
+            builder.dedupWindow(json.getLong(PROP_DEDUP_WINDOW));
+        }
+        if(json.containsKey(PROP_DEDUP_CACHE_SIZE)){
+            builder.dedupCacheSize(json.getInteger(PROP_DEDUP_CACHE_SIZE));
+        }
+        if(json.containsKey(PROP_DEDUP_REPORT_INTERVAL)){
+            builder.dedupReportInterval(json.getLong(PROP_DEDUP_REPORT_INTERVAL));
+        }
+        if(json.containsKey(PROP_TRUNCATE_FIELD_SIZE)){
+            builder.truncateFieldSize(json.getInteger(PROP_TRUNCATE_FIELD_SIZE));
+        }
+        if(json.containsKey(PROP_TRUNCATE_ENTRY_SIZE)){
+            builder.truncateEntrySize(json.getInteger(PROP_TRUNCATE_ENTRY_SIZE));
+        }
+        if(json.containsKey(PROP_SPILL_THRESHOLD)){
+            builder.spillThreshold(json.getInteger(PROP_SPILL_THRESHOLD));
+        }
+        if(json.containsKey(PROP_SPILL_MAX_SIZE)){
+            builder.spillMaxSize(json.getLong(PROP_SPILL_MAX_SIZE));
+        }
+        if(json.containsKey(PROP_STRATEGY_WORKER_POOL_SIZES)){
+            JsonObject strategyWorkerPoolSizes = json.getJsonObject(PROP_STRATEGY_WORKER_POOL_SIZES);
+            for (String strategy : strategyWorkerPoolSizes.fieldNames()) {
+                builder.strategyWorkerPoolSize(strategy, strategyWorkerPoolSizes.getInteger(strategy));
+            }
+        }
+        if(json.containsKey(PROP_LOGGER_WORKER_POOL_SIZE)){
+            builder.loggerWorkerPoolSize(json.getInteger(PROP_LOGGER_WORKER_POOL_SIZE));
+        }
+        if(json.containsKey(PROP_WORKER_POOL_MAX_EXECUTE_TIME)){
+            builder.workerPoolMaxExecuteTime(json.getLong(PROP_WORKER_POOL_MAX_EXECUTE_TIME));
+        }
+        if(json.containsKey(PROP_WARMUP_ITERATIONS)){
+            builder.warmupIterations(json.getInteger(PROP_WARMUP_ITERATIONS));
+        }
+        if(json.containsKey(PROP_WARMUP_SAMPLES)){
+            JsonObject warmupSamples = json.getJsonObject(PROP_WARMUP_SAMPLES);
+            for (String strategy : warmupSamples.fieldNames()) {
+                builder.warmupSample(strategy, warmupSamples.getString(strategy));
+            }
+        }
+        if(json.containsKey(PROP_JFR_THRESHOLD)){
+            builder.jfrThreshold(json.getLong(PROP_JFR_THRESHOLD));
+        }
         return builder.build();
     }
 
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String property, String value){
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' of configuration property '" + property
+                    + "'. Supported values are " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
     private Configuration(ConfigurationBuilder builder){
-        this(builder.address, builder.loggerName, builder.strategyHeader);
+        this.address = builder.address;
+        this.loggerName = builder.loggerName;
+        this.strategyHeader = builder.strategyHeader;
+        this.strategyThreadingModels = Collections.unmodifiableMap(new HashMap<>(builder.strategyThreadingModels));
+        this.strategies = Collections.unmodifiableMap(new HashMap<>(builder.strategies));
+        this.loggerThreadingModel = builder.loggerThreadingModel;
+        this.fusedPipeline = builder.fusedPipeline;
+        this.loggerType = builder.loggerType;
+        this.loggerQueueSize = builder.loggerQueueSize;
+        this.loggerBatchSize = builder.loggerBatchSize;
+        this.loggerFlushInterval = builder.loggerFlushInterval;
+        this.loggerDirectory = builder.loggerDirectory;
+        this.loggerSegmentSize = builder.loggerSegmentSize;
+        this.loggerForcePolicy = builder.loggerForcePolicy;
+        this.loggerBlockSize = builder.loggerBlockSize;
+        this.loggerRollSize = builder.loggerRollSize;
+        this.loggerRollInterval = builder.loggerRollInterval;
+        this.metricsAddress = builder.metricsAddress;
+        this.maxInFlight = builder.maxInFlight;
+        this.loadShedding = builder.loadShedding;
+        this.batchAddress = builder.batchAddress;
+        this.replyMode = builder.replyMode;
+        this.parallelSplitThreshold = builder.parallelSplitThreshold;
+        this.dedupWindow = builder.dedupWindow;
+        this.dedupCacheSize = builder.dedupCacheSize;
+        this.dedupReportInterval = builder.dedupReportInterval;
+        this.truncateFieldSize = builder.truncateFieldSize;
+        this.truncateEntrySize = builder.truncateEntrySize;
+        this.spillThreshold = builder.spillThreshold;
+        this.spillMaxSize = builder.spillMaxSize;
+        this.strategyWorkerPoolSizes = Collections.unmodifiableMap(new HashMap<>(builder.strategyWorkerPoolSizes));
+        this.loggerWorkerPoolSize = builder.loggerWorkerPoolSize;
+        this.workerPoolMaxExecuteTime = builder.workerPoolMaxExecuteTime;
+        this.warmupIterations = builder.warmupIterations;
+        this.warmupSamples = Collections.unmodifiableMap(new HashMap<>(builder.warmupSamples));
+        this.jfrThreshold = builder.jfrThreshold;
     }
 
     @Override
@@ -82,6 +549,9 @@ public class Configuration {
      *      .address("eventBus_address")
      *      .loggerName("myLogTransformerLogger")
      *      .strategyHeader("myCustomStrategyHeader")
+     *      .strategyThreadingModel("DoNothingTransformStrategy", ThreadingModel.EVENT_LOOP)
+     *      .strategy("MyCustomStrategy", "com.example.MyCustomStrategy")
+     *      .loggerThreadingModel(ThreadingModel.WORKER)
      *      .build();
      * </pre>
      */
@@ -89,11 +559,77 @@ public class Configuration {
         private String address;
         private String loggerName;
         private String strategyHeader;
+        private Map<String, ThreadingModel> strategyThreadingModels;
+        private Map<String, String> strategies;
+        private ThreadingModel loggerThreadingModel;
+        private boolean fusedPipeline;
+        private LoggerType loggerType;
+        private int loggerQueueSize;
+        private int loggerBatchSize;
+        private long loggerFlushInterval;
+        private String loggerDirectory;
+        private long loggerSegmentSize;
+        private ForcePolicy loggerForcePolicy;
+        private int loggerBlockSize;
+        private long loggerRollSize;
+        private long loggerRollInterval;
+        private String metricsAddress;
+        private int maxInFlight;
+        private boolean loadShedding;
+        private String batchAddress;
+        private ReplyMode replyMode;
+        private int parallelSplitThreshold;
+        private long dedupWindow;
+        private int dedupCacheSize;
+        private long dedupReportInterval;
+        private int truncateFieldSize;
+        private int truncateEntrySize;
+        private int spillThreshold;
+        private long spillMaxSize;
+        private Map<String, Integer> strategyWorkerPoolSizes;
+        private int loggerWorkerPoolSize;
+        private long workerPoolMaxExecuteTime;
+        private int warmupIterations;
+        private Map<String, String> warmupSamples;
+        private long jfrThreshold;
 
         public ConfigurationBuilder() {
             this.address = "swisspush.logtransformer";
             this.loggerName = "LogTransformerLogger";
             this.strategyHeader = "transformStrategy";
+            this.strategyThreadingModels = new HashMap<>();
+            this.strategies = new HashMap<>();
+            this.loggerThreadingModel = ThreadingModel.WORKER;
+            this.fusedPipeline = true;
+            this.loggerType = LoggerType.DEFAULT;
+            this.loggerQueueSize = 10000;
+            this.loggerBatchSize = 1000;
+            this.loggerFlushInterval = 10;
+            this.loggerDirectory = "logs";
+            this.loggerSegmentSize = 64 * 1024 * 1024;
+            this.loggerForcePolicy = ForcePolicy.ON_ROLL;
+            this.loggerBlockSize = 1024 * 1024;
+            this.loggerRollSize = 256 * 1024 * 1024;
+            this.loggerRollInterval = 60 * 60 * 1000;
+            this.metricsAddress = "swisspush.logtransformer.metrics";
+            this.maxInFlight = 0;
+            this.loadShedding = false;
+            this.batchAddress = "swisspush.logtransformer.batch";
+            this.replyMode = ReplyMode.WHEN_REQUESTED;
+            this.parallelSplitThreshold = 0;
+            this.dedupWindow = 0;
+            this.dedupCacheSize = 65536;
+            this.dedupReportInterval = 60000;
+            this.truncateFieldSize = 64 * 1024;
+            this.truncateEntrySize = 1024 * 1024;
+            this.spillThreshold = 0;
+            this.spillMaxSize = 1024L * 1024 * 1024;
+            this.strategyWorkerPoolSizes = new HashMap<>();
+            this.loggerWorkerPoolSize = 0;
+            this.workerPoolMaxExecuteTime = 60000;
+            this.warmupIterations = 0;
+            this.warmupSamples = new HashMap<>();
+            this.jfrThreshold = 0;
         }
 
         public ConfigurationBuilder address(String address){
@@ -111,6 +647,171 @@ public class Configuration {
             return this;
         }
 
+        public ConfigurationBuilder strategyThreadingModel(String strategyName, ThreadingModel threadingModel){
+            this.strategyThreadingModels.put(strategyName, threadingModel);
+            return this;
+        }
+
+        public ConfigurationBuilder strategy(String strategyName, String strategyClassName){
+            this.strategies.put(strategyName, strategyClassName);
+            return this;
+        }
+
+        public ConfigurationBuilder loggerThreadingModel(ThreadingModel loggerThreadingModel){
+            this.loggerThreadingModel = loggerThreadingModel;
+            return this;
+        }
+
+        public ConfigurationBuilder fusedPipeline(boolean fusedPipeline){
+            this.fusedPipeline = fusedPipeline;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerType(LoggerType loggerType){
+            this.loggerType = loggerType;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerQueueSize(int loggerQueueSize){
+            this.loggerQueueSize = loggerQueueSize;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerBatchSize(int loggerBatchSize){
+            this.loggerBatchSize = loggerBatchSize;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerFlushInterval(long loggerFlushInterval){
+            this.loggerFlushInterval = loggerFlushInterval;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerDirectory(String loggerDirectory){
+            this.loggerDirectory = loggerDirectory;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerSegmentSize(long loggerSegmentSize){
+            this.loggerSegmentSize = loggerSegmentSize;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerForcePolicy(ForcePolicy loggerForcePolicy){
+            this.loggerForcePolicy = loggerForcePolicy;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerBlockSize(int loggerBlockSize){
+            this.loggerBlockSize = loggerBlockSize;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerRollSize(long loggerRollSize){
+            this.loggerRollSize = loggerRollSize;
+            return this;
+        }
+
+        public ConfigurationBuilder loggerRollInterval(long loggerRollInterval){
+            this.loggerRollInterval = loggerRollInterval;
+            return this;
+        }
+
+        public ConfigurationBuilder metricsAddress(String metricsAddress){
+            this.metricsAddress = metricsAddress;
+            return this;
+        }
+
+        public ConfigurationBuilder maxInFlight(int maxInFlight){
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public ConfigurationBuilder loadShedding(boolean loadShedding){
+            this.loadShedding = loadShedding;
+            return this;
+        }
+
+        public ConfigurationBuilder batchAddress(String batchAddress){
+            this.batchAddress = batchAddress;
+            return this;
+        }
+
+        public ConfigurationBuilder replyMode(ReplyMode replyMode){
+            this.replyMode = replyMode;
+            return this;
+        }
+
+        public ConfigurationBuilder parallelSplitThreshold(int parallelSplitThreshold){
+            this.parallelSplitThreshold = parallelSplitThreshold;
+            return this;
+        }
+
+        public ConfigurationBuilder dedupWindow(long dedupWindow){
+            this.dedupWindow = dedupWindow;
+            return this;
+        }
+
+        public ConfigurationBuilder dedupCacheSize(int dedupCacheSize){
+            this.dedupCacheSize = dedupCacheSize;
+            return this;
+        }
+
+        public ConfigurationBuilder dedupReportInterval(long dedupReportInterval){
+            this.dedupReportInterval = dedupReportInterval;
+            return this;
+        }
+
+        public ConfigurationBuilder truncateFieldSize(int truncateFieldSize){
+            this.truncateFieldSize = truncateFieldSize;
+            return this;
+        }
+
+        public ConfigurationBuilder truncateEntrySize(int truncateEntrySize){
+            this.truncateEntrySize = truncateEntrySize;
+            return this;
+        }
+
+        public ConfigurationBuilder spillThreshold(int spillThreshold){
+            this.spillThreshold = spillThreshold;
+            return this;
+        }
+
+        public ConfigurationBuilder spillMaxSize(long spillMaxSize){
+            this.spillMaxSize = spillMaxSize;
+            return this;
+        }
+
+        public ConfigurationBuilder strategyWorkerPoolSize(String strategyName, int poolSize){
+            this.strategyWorkerPoolSizes.put(strategyName, poolSize);
+            return this;
+        }
+
+        public ConfigurationBuilder loggerWorkerPoolSize(int loggerWorkerPoolSize){
+            this.loggerWorkerPoolSize = loggerWorkerPoolSize;
+            return this;
+        }
+
+        public ConfigurationBuilder workerPoolMaxExecuteTime(long workerPoolMaxExecuteTime){
+            this.workerPoolMaxExecuteTime = workerPoolMaxExecuteTime;
+            return this;
+        }
+
+        public ConfigurationBuilder warmupIterations(int warmupIterations){
+            this.warmupIterations = warmupIterations;
+            return this;
+        }
+
+        public ConfigurationBuilder warmupSample(String strategyName, String sampleLog){
+            this.warmupSamples.put(strategyName, sampleLog);
+            return this;
+        }
+
+        public ConfigurationBuilder jfrThreshold(long jfrThreshold){
+            this.jfrThreshold = jfrThreshold;
+            return this;
+        }
+
         public Configuration build(){
             return new Configuration(this);
         }
@@ -0,0 +1,96 @@
+package org.swisspush.logtransformer.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.JacksonCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The {@link LogEntry} implementations created by the factory methods of {@link LogEntry}.
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+final class LogEntries {
+
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private LogEntries() {
+        // prevent instantiation
+    }
+
+    /**
+     * Log entry writing a JsonObject
+     */
+    static final class JsonObjectLogEntry implements LogEntry {
+        private final JsonObject logEntry;
+
+        JsonObjectLogEntry(JsonObject logEntry) {
+            this.logEntry = logEntry;
+        }
+
+        @Override
+        public void writeTo(JsonGenerator generator) throws IOException {
+            JacksonCodec.encodeJson(logEntry, generator);
+        }
+
+        @Override
+        public Buffer toBuffer() {
+            return logEntry.toBuffer();
+        }
+
+        @Override
+        public String encode() {
+            return logEntry.encode();
+        }
+
+        @Override
+        public String toString() {
+            return encode();
+        }
+    }
+
+    /**
+     * Log entry providing an already encoded log entry. The log entry is copied token by token when written to a
+     * generator, so it has to be valid JSON in this case. It is written as is to a stream.
+     */
+    static final class EncodedLogEntry implements LogEntry {
+        private final Buffer logEntry;
+
+        EncodedLogEntry(Buffer logEntry) {
+            this.logEntry = logEntry;
+        }
+
+        @Override
+        public void writeTo(JsonGenerator generator) throws IOException {
+            try (JsonParser parser = JacksonCodec.createParser(logEntry)) {
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(logEntry.getBytes());
+        }
+
+        @Override
+        public Buffer toBuffer() {
+            return logEntry;
+        }
+
+        @Override
+        public String encode() {
+            return logEntry.toString();
+        }
+
+        @Override
+        public String toString() {
+            return encode();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.swisspush.logtransformer.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A transformed log entry which is encoded by the logger instead of the strategy. This allows structured loggers to
+ * serialize the log entry straight into their output without an intermediate String.
+ * </p>
+ * <p>
+ * A log entry is created from a {@link JsonObject} with {@link #of(JsonObject)}, from an already encoded log entry
+ * with {@link #of(Buffer)} or by implementing {@link #writeTo(JsonGenerator)} as a callback.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@FunctionalInterface
+public interface LogEntry {
+
+    /**
+     * Writes the log entry as a single JSON value to the provided generator.
+     *
+     * @param generator the generator to write to
+     * @throws IOException when the log entry could not be written, e.g. because an encoded log entry is no valid JSON
+     */
+    void writeTo(JsonGenerator generator) throws IOException;
+
+    /**
+     * Writes the UTF-8 encoded log entry to the provided stream. The default implementation writes the log entry with
+     * {@link #writeTo(JsonGenerator)}, an already encoded log entry is written as is.
+     *
+     * @param out the stream to write to. The stream is not closed
+     * @throws IOException when the log entry could not be written
+     */
+    default void writeTo(OutputStream out) throws IOException {
+        try (JsonGenerator generator = LogEntries.JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            writeTo(generator);
+        }
+    }
+
+    /**
+     * The default implementation writes the log entry with {@link #writeTo(OutputStream)} into a new buffer.
+     *
+     * @return the UTF-8 encoded log entry
+     */
+    default Buffer toBuffer() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeTo(out);
+        } catch (IOException ex) {
+            throw new EncodeException("Log entry could not be encoded: " + ex.getMessage(), ex);
+        }
+        return Buffer.buffer(out.toByteArray());
+    }
+
+    /**
+     * @return the encoded log entry
+     */
+    default String encode() {
+        return toBuffer().toString();
+    }
+
+    /**
+     * The log entry is encoded by the logger. The JsonObject must not be modified afterwards.
+     *
+     * @param logEntry the log entry
+     * @return the log entry writing the provided JsonObject
+     */
+    static LogEntry of(JsonObject logEntry) {
+        return new LogEntries.JsonObjectLogEntry(logEntry);
+    }
+
+    /**
+     * @param logEntry the UTF-8 encoded log entry
+     * @return the log entry providing the provided buffer as is
+     */
+    static LogEntry of(Buffer logEntry) {
+        return new LogEntries.EncodedLogEntry(logEntry);
+    }
+
+    /**
+     * @param logEntries the UTF-8 encoded log entries
+     * @return the log entries or null when the provided log entries were null
+     */
+    static List<LogEntry> ofBuffers(List<Buffer> logEntries) {
+        if (logEntries == null) {
+            return null;
+        }
+        List<LogEntry> entries = new ArrayList<>(logEntries.size());
+        for (Buffer logEntry : logEntries) {
+            entries.add(of(logEntry));
+        }
+        return entries;
+    }
+
+    /**
+     * @param logEntries the log entries
+     * @return the UTF-8 encoded log entries or null when the provided log entries were null
+     */
+    static List<Buffer> toBuffers(List<LogEntry> logEntries) {
+        if (logEntries == null) {
+            return null;
+        }
+        List<Buffer> buffers = new ArrayList<>(logEntries.size());
+        for (LogEntry logEntry : logEntries) {
+            buffers.add(logEntry.toBuffer());
+        }
+        return buffers;
+    }
+}
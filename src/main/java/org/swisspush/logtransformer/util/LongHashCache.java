@@ -0,0 +1,132 @@
+package org.swisspush.logtransformer.util;
+
+/**
+ * <p>
+ * Bounded cache of 64-bit hashes remembering when a hash has been seen. The memory used by the cache is allocated
+ * once and does not grow.
+ * </p>
+ * <p>
+ * The cache is divided into independently locked segments. Within a segment, a hash can be stored in one of
+ * {@value #WAYS} slots of its bucket. When all slots of the bucket are occupied, the slot seen longest ago is evicted.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class LongHashCache {
+
+    static final int WAYS = 4;
+    static final int MAX_CAPACITY = 1 << 30;
+    private static final int MAX_SEGMENTS = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long windowMs;
+
+    /**
+     * @param capacity the max number of hashes in the cache. Rounded up to a power of two and limited to
+     *                 {@value #MAX_CAPACITY}
+     * @param windowMs the time in milliseconds a hash is considered as seen
+     */
+    public LongHashCache(int capacity, long windowMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        int slots = Math.max(WAYS, powerOfTwo(capacity));
+        int segmentCount = Math.min(MAX_SEGMENTS, slots / WAYS);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slots / segmentCount);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Checks whether the provided hash has been marked as seen within the window without marking it.
+     *
+     * @param hash the hash to check
+     * @param nowMs the current time in milliseconds
+     * @return true when the hash has been marked as seen within the window
+     */
+    public boolean isSeen(long hash, long nowMs) {
+        long mixed = mix(hash);
+        return segments[(int) (mixed >>> 58) & segmentMask].isSeen(hash, (int) mixed, nowMs, windowMs);
+    }
+
+    /**
+     * Marks the provided hash as seen. A hash is seen again only when it has been marked within the window. Marking a
+     * hash seen again does not extend the window, so a hash is reported as not seen at least once per window.
+     *
+     * @param hash the hash to mark as seen
+     * @param nowMs the current time in milliseconds
+     * @return true when the hash has already been seen within the window
+     */
+    public boolean markSeen(long hash, long nowMs) {
+        long mixed = mix(hash);
+        return segments[(int) (mixed >>> 58) & segmentMask].markSeen(hash, (int) mixed, nowMs, windowMs);
+    }
+
+    /**
+     * @return the max number of hashes in the cache
+     */
+    public int getCapacity() {
+        return segments.length * segments[0].hashes.length;
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static int powerOfTwo(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        int highestOneBit = Integer.highestOneBit(capacity);
+        return highestOneBit == capacity ? capacity : highestOneBit << 1;
+    }
+
+    private static final class Segment {
+        private final long[] hashes;
+        private final long[] seen;
+        private final int bucketMask;
+
+        Segment(int slots) {
+            this.hashes = new long[slots];
+            this.seen = new long[slots];
+            this.bucketMask = slots / WAYS - 1;
+        }
+
+        synchronized boolean isSeen(long hash, int index, long nowMs, long windowMs) {
+            int start = (index & bucketMask) * WAYS;
+            for (int slot = start; slot < start + WAYS; slot++) {
+                if (seen[slot] != 0 && hashes[slot] == hash) {
+                    return nowMs - seen[slot] < windowMs;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean markSeen(long hash, int index, long nowMs, long windowMs) {
+            int start = (index & bucketMask) * WAYS;
+            int oldest = start;
+            for (int slot = start; slot < start + WAYS; slot++) {
+                if (seen[slot] != 0 && hashes[slot] == hash) {
+                    if (nowMs - seen[slot] < windowMs) {
+                        return true;
+                    }
+                    seen[slot] = nowMs;
+                    return false;
+                }
+                if (seen[slot] < seen[oldest]) {
+                    oldest = slot;
+                }
+            }
+            hashes[oldest] = hash;
+            seen[oldest] = nowMs;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * <p>
+ * Executes tasks based on the configured {@link ThreadingModel}:
+ * </p>
+ * <ul>
+ *     <li>{@link ThreadingModel#EVENT_LOOP}: The task is executed inline on the calling thread</li>
+ *     <li>{@link ThreadingModel#WORKER}: The task is executed on the Vert.x worker pool or on the provided
+ *     {@link WorkerPool}</li>
+ *     <li>{@link ThreadingModel#VIRTUAL_THREAD}: The task is executed on a virtual thread. Falls back to
+ *     {@link ThreadingModel#WORKER} when virtual threads are not available</li>
+ * </ul>
+ * <p>
+ * The result handler is always called on the context of the caller.
+ * </p>
+ * <p>
+ * The virtual threads are provided by a verticle deployed with {@link ThreadingModel#VIRTUAL_THREAD} on the first
+ * task. The verticle is undeployed with {@link #close()} or when Vert.x is closed.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class TaskExecutor {
+
+    private final Logger log = LoggerFactory.getLogger(TaskExecutor.class);
+
+    private final Vertx vertx;
+    private final ThreadingModel threadingModel;
+    private final WorkerPool workerPool;
+    private Future<Context> virtualThreadContext;
+
+    /**
+     * Virtual threads are available as of Java 21
+     */
+    private static final int VIRTUAL_THREAD_JAVA_VERSION = 21;
+
+    public TaskExecutor(Vertx vertx, ThreadingModel threadingModel) {
+        this(vertx, threadingModel, null);
+    }
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param threadingModel the threading model
+     * @param workerPool the dedicated pool used for {@link ThreadingModel#WORKER} or null to use the Vert.x worker pool
+     */
+    public TaskExecutor(Vertx vertx, ThreadingModel threadingModel, WorkerPool workerPool) {
+        this.vertx = vertx;
+        this.threadingModel = resolveThreadingModel(threadingModel);
+        this.workerPool = workerPool;
+    }
+
+    public ThreadingModel getThreadingModel() {
+        return threadingModel;
+    }
+
+    /**
+     * Executes the provided task and calls the resultHandler with the result of the task.
+     *
+     * @param task the task to execute
+     * @param resultHandler the handler receiving the result of the task
+     * @param <T> the type of the result
+     */
+    public <T> void execute(Callable<T> task, Handler<AsyncResult<T>> resultHandler) {
+        switch (threadingModel) {
+            case EVENT_LOOP:
+                resultHandler.handle(call(task));
+                break;
+            case VIRTUAL_THREAD:
+                Context callerContext = vertx.getOrCreateContext();
+                executeOnVirtualThread(task)
+                        .onComplete(result -> callerContext.runOnContext(v -> resultHandler.handle(result)));
+                break;
+            default:
+                if (workerPool != null) {
+                    workerPool.executeBlocking(task).onComplete(resultHandler);
+                } else {
+                    vertx.executeBlocking(task, resultHandler);
+                }
+        }
+    }
+
+    /**
+     * Executes the provided task without notifying the caller about the completion. The task has to handle its
+     * result and its failures itself. In contrast to {@link #execute(Callable, Handler)}, no context switch back
+     * to the caller is made after the task has been executed.
+     *
+     * @param task the task to execute
+     */
+    public void execute(Runnable task) {
+        Callable<Void> callable = () -> {
+            task.run();
+            return null;
+        };
+        switch (threadingModel) {
+            case EVENT_LOOP:
+                task.run();
+                break;
+            case VIRTUAL_THREAD:
+                executeOnVirtualThread(callable);
+                break;
+            default:
+                if (workerPool != null) {
+                    workerPool.executeBlocking(callable);
+                } else {
+                    vertx.executeBlocking(callable);
+                }
+        }
+    }
+
+    /**
+     * Undeploys the verticle providing the virtual threads. Tasks executed afterwards fail.
+     *
+     * @return a future completed when the verticle has been undeployed
+     */
+    public Future<Void> close() {
+        Future<Context> context;
+        synchronized (this) {
+            context = virtualThreadContext;
+        }
+        if (context == null) {
+            return Future.succeededFuture();
+        }
+        return context.compose(ctx -> ctx != null ? vertx.undeploy(ctx.deploymentID()) : Future.succeededFuture());
+    }
+
+    /**
+     * Combines the provided threading models into the one able to execute the work of both. A virtual thread is used
+     * when one of the threading models requires a virtual thread, a worker thread when one of the threading models
+     * requires a worker thread and the event loop otherwise.
+     *
+     * @param threadingModel the first threading model
+     * @param otherThreadingModel the second threading model
+     * @return the combined threading model
+     */
+    public static ThreadingModel combine(ThreadingModel threadingModel, ThreadingModel otherThreadingModel) {
+        if (threadingModel == ThreadingModel.VIRTUAL_THREAD || otherThreadingModel == ThreadingModel.VIRTUAL_THREAD) {
+            return ThreadingModel.VIRTUAL_THREAD;
+        } else if (threadingModel == ThreadingModel.WORKER || otherThreadingModel == ThreadingModel.WORKER) {
+            return ThreadingModel.WORKER;
+        }
+        return ThreadingModel.EVENT_LOOP;
+    }
+
+    private static <T> Future<T> call(Callable<T> task) {
+        try {
+            return Future.succeededFuture(task.call());
+        } catch (Throwable t) {
+            return Future.failedFuture(t);
+        }
+    }
+
+    private <T> Future<T> executeOnVirtualThread(Callable<T> task) {
+        Future<Context> context = virtualThreadContext();
+        if (context.isComplete()) {
+            return executeOnVirtualThread(context.result(), task);
+        }
+        return context.compose(ctx -> executeOnVirtualThread(ctx, task));
+    }
+
+    /**
+     * @param context the context of the virtual thread verticle or null when it could not be deployed
+     */
+    private <T> Future<T> executeOnVirtualThread(Context context, Callable<T> task) {
+        if (context == null) {
+            return vertx.executeBlocking(task);
+        }
+        return context.executeBlocking(task, false);
+    }
+
+    private synchronized Future<Context> virtualThreadContext() {
+        if (virtualThreadContext == null) {
+            VirtualThreadVerticle verticle = new VirtualThreadVerticle();
+            virtualThreadContext = vertx.deployVerticle(verticle, new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD))
+                    .map(deploymentId -> verticle.getContext())
+                    .otherwise(cause -> {
+                        log.warn("Could not deploy virtual thread verticle. Using threading model " + ThreadingModel.WORKER
+                                + " instead: " + cause.getMessage());
+                        return null;
+                    });
+        }
+        return virtualThreadContext;
+    }
+
+    private ThreadingModel resolveThreadingModel(ThreadingModel threadingModel) {
+        if (threadingModel == null) {
+            return ThreadingModel.WORKER;
+        }
+        if (threadingModel == ThreadingModel.VIRTUAL_THREAD && Runtime.version().feature() < VIRTUAL_THREAD_JAVA_VERSION) {
+            log.warn("Virtual threads are not available. Using threading model " + ThreadingModel.WORKER + " instead");
+            return ThreadingModel.WORKER;
+        }
+        return threadingModel;
+    }
+
+    /**
+     * Provides the context executing tasks on virtual threads
+     */
+    private static class VirtualThreadVerticle extends AbstractVerticle {
+        Context getContext() {
+            return context;
+        }
+    }
+}
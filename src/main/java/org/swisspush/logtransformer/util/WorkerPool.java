@@ -0,0 +1,126 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A named Vert.x {@link WorkerExecutor} of a fixed size, used to isolate the blocking work of a strategy or the logger
+ * from the shared Vert.x worker pool and from each other. A slow strategy then only queues up its own tasks.
+ * </p>
+ * <p>
+ * The pool counts the queued, active and completed tasks and the time tasks waited for a thread. Vert.x shares worker
+ * executors with the same name, so the pools of multiple LogTransformer instances use the same threads. The pool is
+ * released with {@link #close()}.
+ * </p>
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+public class WorkerPool implements AutoCloseable {
+
+    private final String name;
+    private final int requestedPoolSize;
+    private final boolean ordered;
+    private final WorkerExecutor workerExecutor;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+
+    /**
+     * @param vertx the Vert.x instance
+     * @param name the name of the pool, also used as prefix of the thread names
+     * @param poolSize the number of threads. Ignored when a pool with the same name already exists
+     * @param maxExecuteTime the max time in milliseconds a task may run before the blocked thread checker logs a warning
+     * @param ordered whether the tasks of the same context are executed one after the other in submission order
+     */
+    public WorkerPool(Vertx vertx, String name, int poolSize, long maxExecuteTime, boolean ordered) {
+        this.name = name;
+        this.requestedPoolSize = poolSize;
+        this.ordered = ordered;
+        this.workerExecutor = vertx.createSharedWorkerExecutor(name, poolSize, maxExecuteTime, TimeUnit.MILLISECONDS);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the pool size provided when this pool was created. Vert.x keeps the size of the first created pool with
+     * the same name, so the actual number of threads may differ
+     */
+    public int getRequestedPoolSize() {
+        return requestedPoolSize;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return the number of tasks currently executed
+     */
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * @return the total number of executed tasks
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * @return the total time in nanoseconds the executed tasks waited for a thread
+     */
+    public long getQueueNanos() {
+        return queueNanos.sum();
+    }
+
+    /**
+     * Executes the provided task on a thread of this pool. The tasks of an ordered pool are executed one after the
+     * other per context, so the threads are shared by multiple contexts. Otherwise, up to pool size tasks of the same
+     * context are executed concurrently and may complete in any order.
+     *
+     * @param task the task to execute
+     * @param <T> the type of the result
+     * @return the result of the task, completed on the context of the caller
+     */
+    public <T> Future<T> executeBlocking(Callable<T> task) {
+        long submitted = System.nanoTime();
+        queued.incrementAndGet();
+        return workerExecutor.executeBlocking(() -> {
+            queued.decrementAndGet();
+            queueNanos.add(System.nanoTime() - submitted);
+            active.incrementAndGet();
+            try {
+                return task.call();
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+            }
+        }, ordered);
+    }
+
+    /**
+     * Releases this pool. The threads are stopped when no other instance uses a pool with the same name.
+     */
+    @Override
+    public void close() {
+        workerExecutor.close();
+    }
+}
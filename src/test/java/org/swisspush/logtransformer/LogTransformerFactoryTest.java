@@ -0,0 +1,104 @@
+package org.swisspush.logtransformer;
+
+import io.vertx.core.*;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.logger.BatchingLogTransformLogger;
+import org.swisspush.logtransformer.logger.LogTransformLogger;
+import org.swisspush.logtransformer.strategy.DefaultTransformStrategyFinder;
+import org.swisspush.logtransformer.strategy.TransformStrategy;
+import org.swisspush.logtransformer.util.Configuration;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tests for the {@link LogTransformerFactory} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class LogTransformerFactoryTest {
+
+    private Vertx vertx;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testSharedComponentsFromConfiguration(TestContext context) throws Exception {
+        Configuration config = Configuration.with().loggerType(Configuration.LoggerType.BATCHING).build();
+        LogTransformerFactory factory = new LogTransformerFactory(vertx, config);
+        context.assertTrue(factory.getLogTransformLogger() instanceof BatchingLogTransformLogger);
+        context.assertTrue(factory.getTransformStrategyFinder() instanceof DefaultTransformStrategyFinder);
+        context.assertNotEquals(factory.get(), factory.get());
+        factory.close();
+    }
+
+    @Test
+    public void testLoggerIsClosedWhenSpillJournalCannotBeOpened(TestContext context) throws Exception {
+        Path directory = Files.createTempDirectory("log-transformer");
+        // a directory in place of the journal file cannot be opened
+        Files.createDirectory(directory.resolve("spill-failure-spill.journal"));
+        Configuration config = Configuration.with().loggerType(Configuration.LoggerType.BATCHING)
+                .loggerName("spill-failure").loggerDirectory(directory.toString()).spillThreshold(10).build();
+        try {
+            LogTransformerFactory.createLogTransformLogger(vertx, config);
+            context.fail("Expected an UncheckedIOException");
+        } catch (UncheckedIOException ex) {
+            context.assertTrue(ex.getMessage().startsWith("Could not open the spill journal"));
+        }
+        context.assertFalse(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("log-transformer-batching-spill-failure")));
+    }
+
+    @Test
+    public void testMessagesAreDistributedBetweenInstances(TestContext context){
+        int instances = 4;
+        int messages = 100;
+        Async async = context.async(messages);
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        Set<String> loggingThreads = ConcurrentHashMap.newKeySet();
+        LogTransformLogger logger = (logEntries, resultHandler) -> {
+            loggingThreads.add(Thread.currentThread().getName());
+            resultHandler.handle(Future.succeededFuture());
+        };
+        TransformStrategy strategy = (logToTransform, resultHandler)
+                -> resultHandler.handle(Future.succeededFuture(Collections.singletonList(logToTransform)));
+        LogTransformerFactory factory = new LogTransformerFactory(logger, headers -> strategy);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config).setInstances(instances);
+        vertx.deployVerticle(factory, options, context.asyncAssertSuccess(id -> {
+            for (int i = 0; i < messages; i++) {
+                vertx.eventBus().request("new_address", "some logs " + i, context.asyncAssertSuccess(res -> async.countDown()));
+            }
+        }));
+        async.await();
+        context.assertTrue(loggingThreads.size() > 1, "Messages should be consumed on multiple event loops");
+        context.assertEquals((long) messages, factory.getMetrics().snapshot().getJsonObject("strategies")
+                .getJsonObject(strategy.getClass().getSimpleName()).getLong("messagesOut"));
+    }
+}
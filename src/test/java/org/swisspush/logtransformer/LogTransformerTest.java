@@ -1,6 +1,11 @@
 package org.swisspush.logtransformer;
 
 import io.vertx.core.*;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -9,13 +14,25 @@ import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.logger.BlockingLogTransformLogger;
 import org.swisspush.logtransformer.logger.LogTransformLogger;
+import org.swisspush.logtransformer.logger.SpillingLogTransformLogger;
+import org.swisspush.logtransformer.logger.StructuredLogTransformLogger;
+import org.swisspush.logtransformer.strategy.BlockingTransformStrategy;
 import org.swisspush.logtransformer.strategy.TransformStrategy;
 import org.swisspush.logtransformer.strategy.TransformStrategyFinder;
 import org.swisspush.logtransformer.util.Configuration;
+import org.swisspush.logtransformer.util.LogEntry;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests for the {@link LogTransformer} class
@@ -44,6 +61,13 @@ public class LogTransformerTest {
         });
     }
 
+    @Test
+    public void testInvalidConfigurationFailsDeployment(TestContext context){
+        JsonObject config = new JsonObject().put(Configuration.PROP_LOGGER_THREADING_MODEL, "VIRTUAL");
+        vertx.deployVerticle(new LogTransformer(), new DeploymentOptions().setConfig(config), context.asyncAssertFailure(cause ->
+                context.assertTrue(cause.getMessage().contains("'loggerThreadingModel'"))));
+    }
+
     @Test
     public void testDefaultTransformStrategyDoesNotChangeLog(TestContext context){
         Async async = context.async();
@@ -61,6 +85,23 @@ public class LogTransformerTest {
         });
     }
 
+    @Test
+    public void testDefaultTransformStrategyDoesNotChangeBufferLog(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        LogTransformer transformer = new LogTransformer(new TestLogger(true, context, "some logs", null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", Buffer.buffer("some logs"), res -> {
+                context.assertTrue(res.succeeded());
+                async.complete();
+            });
+        });
+    }
+
     @Test
     public void testFailDuringLogTransformation(TestContext context){
         Async async = context.async();
@@ -124,6 +165,802 @@ public class LogTransformerTest {
         });
     }
 
+    @Test
+    public void testErrorReleasesPermit(TestContext context){
+        for (boolean fusedPipeline : new boolean[]{true, false}) {
+            Async async = context.async();
+            JsonObject config = Configuration.with().address("address_" + fusedPipeline).fusedPipeline(fusedPipeline)
+                    .maxInFlight(1).loadShedding(true).build().asJsonObject();
+
+            LogTransformer transformer = new LogTransformer(new TestBlockingLogger(null), headers -> new TestBlockingTransformStrategy(null) {
+                @Override
+                public List<String> transformLogBlocking(String logToTransform) {
+                    throw new StackOverflowError();
+                }
+            });
+
+            vertx.deployVerticle(transformer, new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(id ->
+                    vertx.eventBus().request("address_" + fusedPipeline, "some logs", res -> {
+                        context.assertEquals("java.lang.StackOverflowError", res.cause().getMessage());
+                        vertx.eventBus().request("address_" + fusedPipeline, "some logs", res2 -> {
+                            context.assertEquals(0, ((ReplyException) res2.cause()).failureCode());
+                            async.complete();
+                        });
+                    })));
+        }
+    }
+
+    @Test
+    public void testFusedPipeline(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(0, logTransformLogger.asyncCalls);
+                context.assertTrue(logTransformLogger.loggingThread.contains("worker"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testStrategyWorkerPool(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address")
+                .strategyWorkerPoolSize("TestBlockingTransformStrategy", 2).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(1, logTransformLogger.asyncCalls);
+                JsonObject workerPool = transformer.getMetrics().snapshot().getJsonObject("workerPools")
+                        .getJsonObject("log-transformer-strategy-TestBlockingTransformStrategy");
+                context.assertEquals(2L, workerPool.getLong("requestedPoolSize"));
+                context.assertEquals(1L, workerPool.getLong("completed"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testStrategyWorkerPoolOfRegisteredNames(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address")
+                .strategy("passThrough", "org.swisspush.logtransformer.strategy.DoNothingTransformStrategy")
+                .strategyWorkerPoolSize("passThrough", 1)
+                .strategyWorkerPoolSize("passThrough|DoNothingTransformStrategy", 1)
+                .build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs",
+                    new DeliveryOptions().addHeader("transformStrategy", "PASSTHROUGH"), res -> {
+                context.assertTrue(res.succeeded());
+                JsonObject workerPools = transformer.getMetrics().snapshot().getJsonObject("workerPools");
+                context.assertEquals(1L, workerPools.getJsonObject("log-transformer-strategy-passThrough").getLong("completed"));
+                vertx.eventBus().request("new_address", "some logs",
+                        new DeliveryOptions().addHeader("transformStrategy", "passthrough | donothingtransformstrategy"), chainRes -> {
+                    context.assertTrue(chainRes.succeeded());
+                    JsonObject chainWorkerPools = transformer.getMetrics().snapshot().getJsonObject("workerPools");
+                    context.assertEquals(1L, chainWorkerPools.getJsonObject("log-transformer-strategy-passThrough").getLong("completed"));
+                    context.assertEquals(1L, chainWorkerPools.getJsonObject("log-transformer-strategy-passThrough|DoNothingTransformStrategy")
+                            .getLong("completed"));
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void testFusedPipelineWithoutStrategyWorkerPoolUsesSharedPool(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").loggerWorkerPoolSize(1).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertTrue(logTransformLogger.loggingThread.startsWith("vert.x-worker-thread"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testLoggerWorkerPoolIsOrdered(TestContext context){
+        Async async = context.async(50);
+        JsonObject config = Configuration.with().address("new_address").fusedPipeline(false)
+                .loggerWorkerPoolSize(4).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestWorkerLogger();
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, context.asyncAssertSuccess(deploymentId -> {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                expected.add("LOG-" + i);
+                vertx.eventBus().request("new_address", "log-" + i, res -> {
+                    context.assertTrue(res.succeeded());
+                    if(async.count() == 1){
+                        context.assertEquals(expected, logTransformLogger.loggedEntries);
+                        context.assertTrue(logTransformLogger.loggingThread.startsWith("log-transformer-logger-"));
+                    }
+                    async.countDown();
+                });
+            }
+        }));
+    }
+
+    @Test
+    public void testStrategyWorkerPoolKeepsLoggingOrdered(TestContext context){
+        Async async = context.async(50);
+        JsonObject config = Configuration.with().address("new_address")
+                .strategyWorkerPoolSize("TestBlockingTransformStrategy", 4).loggerWorkerPoolSize(4).build().asJsonObject();
+
+        ConcurrencyCheckingWorkerLogger logTransformLogger = new ConcurrencyCheckingWorkerLogger();
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, context.asyncAssertSuccess(deploymentId -> {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                expected.add("LOG-" + i);
+                vertx.eventBus().request("new_address", "log-" + i, res -> {
+                    context.assertTrue(res.succeeded());
+                    if(async.count() == 1){
+                        // the transformations complete in any order, the logging is executed one at a time
+                        List<String> logged = new ArrayList<>(((TestBlockingLogger) logTransformLogger).loggedEntries);
+                        logged.sort(Comparator.comparingInt(entry -> Integer.parseInt(entry.substring(4))));
+                        context.assertEquals(expected, logged);
+                        context.assertEquals(1, logTransformLogger.maxConcurrentCalls.get());
+                        context.assertTrue(((TestBlockingLogger) logTransformLogger).loggingThread.startsWith("log-transformer-logger-"));
+                    }
+                    async.countDown();
+                });
+            }
+        }));
+    }
+
+    @Test
+    public void testSpillWhenFusedTasksQueueUpBehindStalledLogger(TestContext context) throws Exception {
+        Async async = context.async(10);
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        StallingWorkerLogger delegate = new StallingWorkerLogger();
+        Path journalFile = Files.createTempDirectory("log-transformer").resolve("spill.journal");
+        SpillingLogTransformLogger logTransformLogger = SpillingLogTransformLogger.create(delegate, journalFile, 2, 1024 * 1024, 10);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        Async deployed = context.async();
+        vertx.deployVerticle(transformer, options, context.asyncAssertSuccess(deploymentId -> deployed.complete()));
+        deployed.await();
+        vertx.eventBus().request("new_address", "log-0", context.asyncAssertSuccess(res -> async.countDown()));
+        delegate.entered.await();
+        // the logger is stalled, the other messages wait in the task queue of the fused pipeline
+        for (int i = 1; i < 10; i++) {
+            vertx.eventBus().request("new_address", "log-" + i, context.asyncAssertSuccess(res -> async.countDown()));
+        }
+        while (logTransformLogger.getQueued() < 9) {
+            Thread.sleep(10);
+        }
+        delegate.stalled.countDown();
+        async.await();
+        context.assertEquals(9L, logTransformLogger.getSpilled());
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            expected.add("LOG-" + i);
+        }
+        while (logTransformLogger.getReplayed() < 9) {
+            Thread.sleep(10);
+        }
+        logTransformLogger.close();
+        context.assertEquals(expected, ((TestBlockingLogger) delegate).loggedEntries);
+    }
+
+    @Test
+    public void testStrategyWorkerPoolWithFusedPipelineDisabled(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").fusedPipeline(false)
+                .strategyWorkerPoolSize("TestBlockingTransformStrategy", 1).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", Buffer.buffer("some logs"), res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(1, logTransformLogger.asyncCalls);
+                context.assertEquals(1L, transformer.getMetrics().snapshot().getJsonObject("workerPools")
+                        .getJsonObject("log-transformer-strategy-TestBlockingTransformStrategy").getLong("completed"));
+                vertx.undeploy(deployEvent.result(), undeployEvent -> {
+                    context.assertTrue(transformer.getMetrics().snapshot().getJsonObject("workerPools").isEmpty());
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void testFusedPipelineWithBufferLog(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", Buffer.buffer("some logs"), res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(0, logTransformLogger.asyncCalls);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testStructuredLoggerReceivesLogEntriesOfBufferLogs(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        TestStructuredLogger logTransformLogger = new TestStructuredLogger();
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "string logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("STRING LOGS"), ((TestBlockingLogger) logTransformLogger).loggedEntries);
+                context.assertTrue(logTransformLogger.structuredEntries.isEmpty());
+                vertx.eventBus().request("new_address", Buffer.buffer("buffer logs"), res2 -> {
+                    context.assertTrue(res2.succeeded());
+                    context.assertEquals(Collections.singletonList("BUFFER LOGS"), logTransformLogger.structuredEntries);
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void testFusedPipelineDisabled(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").fusedPipeline(false).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(1, logTransformLogger.asyncCalls);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testFailDuringFusedLogTransformation(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        LogTransformer transformer = new LogTransformer(new TestBlockingLogger(null),
+                headers -> new TestBlockingTransformStrategy(new IllegalStateException("something went wrong during transformation")));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertFalse(res.succeeded());
+                context.assertEquals("something went wrong during transformation", res.cause().getMessage());
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testFailDuringFusedLogging(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        LogTransformer transformer = new LogTransformer(new TestBlockingLogger(new IllegalStateException("something went wrong during logging")),
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertFalse(res.succeeded());
+                context.assertEquals("something went wrong during logging", res.cause().getMessage());
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testMetrics(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").metricsAddress("new_metrics_address").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger);
+
+        DeliveryOptions options = new DeliveryOptions().addHeader("transformStrategy", "SplitStorageExpandLogStrategy");
+        DeploymentOptions deploymentOptions = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, deploymentOptions, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "a non-json log entry", options, res -> {
+                context.assertTrue(res.succeeded());
+                vertx.eventBus().<JsonObject>request("new_metrics_address", null, metricsRes -> {
+                    context.assertTrue(metricsRes.succeeded());
+                    JsonObject strategyMetrics = metricsRes.result().body().getJsonObject("strategies")
+                            .getJsonObject("SplitStorageExpandLogStrategy");
+                    context.assertEquals(1L, strategyMetrics.getLong("messagesIn"));
+                    context.assertEquals(1L, strategyMetrics.getLong("messagesOut"));
+                    context.assertEquals(0L, strategyMetrics.getLong("failures"));
+                    context.assertEquals(1L, strategyMetrics.getLong("entries"));
+                    context.assertEquals(1L, strategyMetrics.getLong("fallbacks"));
+                    context.assertEquals(1L, strategyMetrics.getJsonObject("transformTime").getLong("count"));
+                    context.assertEquals(1L, strategyMetrics.getJsonObject("logTime").getLong("count"));
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void testMetricsOfFailedMessage(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").build().asJsonObject();
+
+        TransformStrategyFinder transformStrategyFinder
+                = new TestTransformStrategyFinder(false, null, new IllegalStateException("something went wrong during transformation"));
+        LogTransformer transformer = new LogTransformer(new TestLogger(true, context, "some logs", null), transformStrategyFinder);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertFalse(res.succeeded());
+                JsonObject strategyMetrics = transformer.getMetrics().snapshot().getJsonObject("strategies")
+                        .getJsonObject("TestTransformStrategy");
+                context.assertEquals(1L, strategyMetrics.getLong("messagesIn"));
+                context.assertEquals(0L, strategyMetrics.getLong("messagesOut"));
+                context.assertEquals(1L, strategyMetrics.getLong("failures"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testLoadShedding(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").maxInFlight(1).loadShedding(true).build().asJsonObject();
+
+        List<Handler<AsyncResult<Void>>> pendingLogs = new ArrayList<>();
+        LogTransformer transformer = new LogTransformer((logEntries, resultHandler) -> {
+                    if(pendingLogs.isEmpty()){
+                        pendingLogs.add(resultHandler);
+                    } else {
+                        resultHandler.handle(Future.succeededFuture());
+                    }
+                }, new TestTransformStrategyFinder(true, Collections.singletonList("some logs"), null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "first logs", res -> {
+                context.assertTrue(res.succeeded());
+                vertx.eventBus().request("new_address", "third logs", thirdRes -> {
+                    context.assertTrue(thirdRes.succeeded());
+                    async.complete();
+                });
+            });
+            vertx.eventBus().request("new_address", "second logs", res -> {
+                context.assertFalse(res.succeeded());
+                context.assertEquals(LogTransformer.OVERLOADED_FAILURE_CODE, ((ReplyException) res.cause()).failureCode());
+                context.assertEquals(1, pendingLogs.size());
+                pendingLogs.get(0).handle(Future.succeededFuture());
+            });
+        });
+    }
+
+    @Test
+    public void testBatch(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            JsonArray batch = new JsonArray().add("first logs").add(new JsonObject().put("log", "second logs"));
+            vertx.eventBus().<JsonObject>request("new_batch_address", batch, res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(new JsonObject().put("status", "ok").put("items", 2).put("entries", 2), res.result().body());
+                context.assertEquals(Arrays.asList("FIRST LOGS", "SECOND LOGS"), logTransformLogger.loggedEntries);
+                context.assertEquals(0, logTransformLogger.asyncCalls);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testBatchWithItemsWithoutLogOrFailingWithoutMessage(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger, headers -> new TestBlockingTransformStrategy(null) {
+            @Override
+            public List<String> transformLogBlocking(String logToTransform) {
+                if("npe".equals(logToTransform)){
+                    throw new NullPointerException();
+                }
+                return super.transformLogBlocking(logToTransform);
+            }
+        });
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, context.asyncAssertSuccess(id -> {
+            JsonArray batch = new JsonArray().add("first logs")
+                    .add(new JsonObject().put("headers", new JsonObject().put("x", 1)))
+                    .add(new JsonObject().put("log", "npe"));
+            vertx.eventBus().<JsonObject>request("new_batch_address", batch, res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(new JsonObject().put("status", "partial").put("items", 3).put("entries", 1)
+                        .put("failedItems", new JsonArray()
+                                .add(new JsonObject().put("index", 1).put("error", "Batch item has no log"))
+                                .add(new JsonObject().put("index", 2).put("error", "java.lang.NullPointerException"))),
+                        res.result().body());
+                context.assertEquals(Collections.singletonList("FIRST LOGS"), logTransformLogger.loggedEntries);
+                async.complete();
+            });
+        }));
+    }
+
+    @Test
+    public void testBatchUsesStrategyWorkerPool(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address")
+                .strategyWorkerPoolSize("TestBlockingTransformStrategy", 1).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger,
+                headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, context.asyncAssertSuccess(id ->
+                vertx.eventBus().<JsonObject>request("new_batch_address", new JsonArray().add("first logs").add("second logs"), res -> {
+                    context.assertTrue(res.succeeded());
+                    context.assertEquals(Arrays.asList("FIRST LOGS", "SECOND LOGS"), logTransformLogger.loggedEntries);
+                    context.assertEquals(1, logTransformLogger.asyncCalls);
+                    context.assertEquals(2L, transformer.getMetrics().snapshot().getJsonObject("workerPools")
+                            .getJsonObject("log-transformer-strategy-TestBlockingTransformStrategy").getLong("completed"));
+                    async.complete();
+                })));
+    }
+
+    @Test
+    public void testBatchWithItemHeaders(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        List<List<String>> loggedBatches = new ArrayList<>();
+        LogTransformer transformer = new LogTransformer((logEntries, resultHandler) -> {
+            loggedBatches.add(logEntries);
+            resultHandler.handle(Future.succeededFuture());
+        });
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            JsonArray batch = new JsonArray()
+                    .add(new JsonObject().put("log", "a non-json log entry")
+                            .put("headers", new JsonObject().put("transformStrategy", "SplitStorageExpandLogStrategy")))
+                    .add("some logs");
+            vertx.eventBus().<JsonObject>request("new_batch_address", batch, res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals("ok", res.result().body().getString("status"));
+                context.assertEquals(Collections.singletonList(Arrays.asList("a non-json log entry", "some logs")), loggedBatches);
+                JsonObject strategies = transformer.getMetrics().snapshot().getJsonObject("strategies");
+                context.assertEquals(1L, strategies.getJsonObject("SplitStorageExpandLogStrategy").getLong("fallbacks"));
+                context.assertEquals(1L, strategies.getJsonObject("DoNothingTransformStrategy").getLong("messagesOut"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testBatchWithFailingItem(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        TransformStrategy failingStrategy = new TestTransformStrategy(false, null, new IllegalStateException("something went wrong during transformation"));
+        TransformStrategy succeedingStrategy = new TestTransformStrategy(true, Collections.singletonList("some logs"), null);
+        LogTransformer transformer = new LogTransformer(new TestLogger(true, context, "some logs", null),
+                headers -> headers.contains("fail") ? failingStrategy : succeedingStrategy);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            JsonArray batch = new JsonArray()
+                    .add("some logs")
+                    .add(new JsonObject().put("log", "some logs").put("headers", new JsonObject().put("fail", true)));
+            vertx.eventBus().<JsonObject>request("new_batch_address", batch, res -> {
+                context.assertTrue(res.succeeded());
+                JsonObject reply = res.result().body();
+                context.assertEquals("partial", reply.getString("status"));
+                context.assertEquals(1, reply.getInteger("entries"));
+                context.assertEquals(new JsonArray().add(new JsonObject().put("index", 1).put("error", "something went wrong during transformation")),
+                        reply.getJsonArray("failedItems"));
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testBatchMustBeJsonArray(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(new LogTransformer(), options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_batch_address", "some logs", res -> {
+                context.assertFalse(res.succeeded());
+                context.assertEquals("Batch must be a JsonArray", res.cause().getMessage());
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testReplyModeNever(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").replyMode(Configuration.ReplyMode.NEVER).build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        LogTransformer transformer = new LogTransformer(logTransformLogger, headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().request("new_address", "some logs", new DeliveryOptions().setSendTimeout(500), res -> {
+                context.assertFalse(res.succeeded());
+                context.assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) res.cause()).failureType());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testReplyIsNotShared(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").replyMode(Configuration.ReplyMode.ALWAYS).build().asJsonObject();
+
+        LogTransformer transformer = new LogTransformer(new TestBlockingLogger(null), headers -> new TestBlockingTransformStrategy(null));
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().<JsonObject>request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                res.result().body().put("status", "modified");
+                vertx.eventBus().<JsonObject>request("new_address", "some logs", res2 -> {
+                    context.assertTrue(res2.succeeded());
+                    context.assertEquals(new JsonObject().put("status", "ok"), res2.result().body());
+                    async.complete();
+                });
+            });
+        });
+    }
+
+    @Test
+    public void testWarmUpBeforeStart(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").warmupIterations(3)
+                .warmupSample("upper", "warm-up log").build().asJsonObject();
+
+        TestBlockingLogger logTransformLogger = new TestBlockingLogger(null);
+        List<String> transformedLogs = Collections.synchronizedList(new ArrayList<>());
+        TestBlockingTransformStrategy strategy = new TestBlockingTransformStrategy(null) {
+            @Override
+            public List<String> transformLogBlocking(String logToTransform) {
+                transformedLogs.add(logToTransform);
+                return super.transformLogBlocking(logToTransform);
+            }
+        };
+        LogTransformer transformer = new LogTransformer(logTransformLogger, headers -> strategy);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            // every iteration transforms the sample as String and as Buffer
+            context.assertEquals(6, transformedLogs.size());
+            context.assertEquals("warm-up log", transformedLogs.get(0));
+            context.assertTrue(logTransformLogger.loggedEntries.isEmpty());
+            vertx.eventBus().request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(Collections.singletonList("SOME LOGS"), logTransformLogger.loggedEntries);
+                async.complete();
+            });
+        });
+    }
+
+    class TestBlockingTransformStrategy implements BlockingTransformStrategy {
+
+        private RuntimeException exception;
+
+        public TestBlockingTransformStrategy(RuntimeException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            if(exception != null){
+                throw exception;
+            }
+            return Collections.singletonList(logToTransform.toUpperCase());
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.WORKER;
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            resultHandler.handle(Future.succeededFuture(transformLogBlocking(logToTransform)));
+        }
+    }
+
+    class TestBlockingLogger implements BlockingLogTransformLogger {
+
+        private RuntimeException exception;
+        private final List<String> loggedEntries = new ArrayList<>();
+        private int asyncCalls = 0;
+        private String loggingThread;
+
+        public TestBlockingLogger(RuntimeException exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            if(exception != null){
+                throw exception;
+            }
+            loggingThread = Thread.currentThread().getName();
+            loggedEntries.addAll(logEntries);
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+
+        @Override
+        public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+            asyncCalls++;
+            doLogBlocking(logEntries);
+            resultHandler.handle(Future.succeededFuture());
+        }
+    }
+
+    class TestWorkerLogger extends TestBlockingLogger {
+
+        public TestWorkerLogger() {
+            super(null);
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.WORKER;
+        }
+    }
+
+    class StallingWorkerLogger extends TestWorkerLogger {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch stalled = new CountDownLatch(1);
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            entered.countDown();
+            try {
+                stalled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            super.doLogBlocking(logEntries);
+        }
+    }
+
+    class ConcurrencyCheckingWorkerLogger extends TestWorkerLogger {
+
+        private final AtomicInteger concurrentCalls = new AtomicInteger();
+        private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+                super.doLogBlocking(logEntries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                concurrentCalls.decrementAndGet();
+            }
+        }
+    }
+
+    class TestStructuredLogger extends TestBlockingLogger implements StructuredLogTransformLogger {
+
+        private final List<String> structuredEntries = new ArrayList<>();
+
+        public TestStructuredLogger() {
+            super(null);
+        }
+
+        @Override
+        public void doLogEntriesBlocking(List<LogEntry> logEntries) {
+            for (LogEntry logEntry : logEntries) {
+                structuredEntries.add(logEntry.encode());
+            }
+        }
+    }
 
     class TestTransformStrategy implements TransformStrategy {
 
@@ -155,6 +992,46 @@ public class LogTransformerTest {
         }
     }
 
+    @Test
+    public void testDisabledLoggerSkipsTransformation(TestContext context){
+        Async async = context.async();
+        JsonObject config = Configuration.with().address("new_address").batchAddress("new_batch_address").build().asJsonObject();
+
+        LogTransformLogger logTransformLogger = new LogTransformLogger() {
+            @Override
+            public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+                context.fail("disabled logger should not be called");
+            }
+
+            @Override
+            public boolean isEnabled() {
+                return false;
+            }
+        };
+        TransformStrategyFinder transformStrategyFinder = headers -> {
+            context.fail("no strategy should be looked up for a disabled logger");
+            return null;
+        };
+        LogTransformer transformer = new LogTransformer(logTransformLogger, transformStrategyFinder);
+
+        DeploymentOptions options = new DeploymentOptions().setConfig(config);
+        vertx.deployVerticle(transformer, options, deployEvent -> {
+            context.assertTrue(deployEvent.succeeded());
+            vertx.eventBus().<JsonObject>request("new_address", "some logs", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals("ok", res.result().body().getString("status"));
+                JsonArray batch = new JsonArray().add("first logs").add("second logs");
+                vertx.eventBus().<JsonObject>request("new_batch_address", batch, batchRes -> {
+                    context.assertTrue(batchRes.succeeded());
+                    context.assertEquals(new JsonObject().put("status", "ok").put("items", 2).put("entries", 0), batchRes.result().body());
+                    context.assertEquals(2L, transformer.getMetrics().getSkipped());
+                    context.assertEquals(2L, transformer.getMetrics().snapshot().getLong("skipped"));
+                    async.complete();
+                });
+            });
+        });
+    }
+
     class TestTransformStrategyFinder implements TransformStrategyFinder {
 
         private boolean success;
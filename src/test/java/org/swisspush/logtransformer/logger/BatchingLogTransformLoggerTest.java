@@ -0,0 +1,224 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for the {@link AbstractBatchingLogTransformLogger} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class BatchingLogTransformLoggerTest {
+
+    private Vertx vertx;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testLogEntriesAreWrittenInBatches(TestContext context) throws Exception {
+        Async async = context.async(3);
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 10, 100, 200);
+        logger.start();
+        vertx.runOnContext(v -> {
+            logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess(r -> async.countDown()));
+            logger.doLog(Collections.singletonList("c"), context.asyncAssertSuccess(r -> async.countDown()));
+            logger.doLog(Collections.singletonList("d"), context.asyncAssertSuccess(r -> async.countDown()));
+        });
+        async.await();
+        logger.close();
+        context.assertEquals(1, logger.batches.size());
+        context.assertEquals(Arrays.asList("a", "b", "c", "d"), logger.batches.get(0));
+    }
+
+    @Test
+    public void testBatchIsWrittenWhenBatchSizeIsReached(TestContext context) throws Exception {
+        Async async = context.async(2);
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 10, 2, 60000);
+        logger.start();
+        vertx.runOnContext(v -> {
+            logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess(r -> async.countDown()));
+            logger.doLog(Arrays.asList("c", "d"), context.asyncAssertSuccess(r -> async.countDown()));
+        });
+        async.await();
+        logger.close();
+        context.assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")), logger.batches);
+    }
+
+    @Test
+    public void testFailWhenQueueIsFull(TestContext context) throws Exception {
+        Async async = context.async();
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 1, 1, 0);
+        logger.start();
+        logger.blockWriting();
+        logger.doLog(Collections.singletonList("a"), r -> {});
+        logger.awaitWriting();
+        logger.doLog(Collections.singletonList("b"), r -> {});
+        logger.doLog(Collections.singletonList("c"), context.asyncAssertFailure(t -> {
+            context.assertEquals("Logger queue is full", t.getMessage());
+            async.complete();
+        }));
+        async.await();
+        logger.unblockWriting();
+        logger.close();
+    }
+
+    @Test
+    public void testFailWhenWritingFails(TestContext context){
+        Async async = context.async();
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 10, 10, 0);
+        logger.start();
+        logger.failure = new IllegalStateException("disk full");
+        vertx.runOnContext(v -> logger.doLog(Collections.singletonList("a"), context.asyncAssertFailure(t -> {
+            context.assertEquals("disk full", t.getMessage());
+            async.complete();
+        })));
+    }
+
+    @Test
+    public void testFailWhenClosed(TestContext context) throws Exception {
+        Async async = context.async();
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 10, 10, 0);
+        logger.close();
+        logger.doLog(Collections.singletonList("a"), context.asyncAssertFailure(t -> {
+            context.assertEquals("Logger is closed", t.getMessage());
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testFailPendingLogEntriesWhenInterrupted(TestContext context) throws Exception {
+        Async async = context.async();
+        CountDownLatch logged = new CountDownLatch(1);
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, "test-interrupted-batching-logger", 10, 10, 60000);
+        logger.start();
+        vertx.runOnContext(v -> {
+            logger.doLog(Collections.singletonList("a"), context.asyncAssertFailure(t -> {
+            context.assertEquals("Logger was interrupted", t.getMessage());
+                logger.doLog(Collections.singletonList("b"), context.asyncAssertFailure(t2 -> {
+                    context.assertEquals("Logger is closed", t2.getMessage());
+                    async.complete();
+                }));
+            }));
+            logged.countDown();
+        });
+        // wait until the drain thread holds "a" and waits for more log entries to complete the batch
+        logged.await();
+        Thread.sleep(100);
+        Thread drainThread = findThread("test-interrupted-batching-logger");
+        while (drainThread.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        drainThread.interrupt();
+        async.await();
+        logger.close();
+        context.assertTrue(logger.batches.isEmpty());
+    }
+
+    @Test
+    public void testDrainThreadIsStartedByStart(TestContext context) throws Exception {
+        Async async = context.async();
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, "test-started-batching-logger", 10, 10, 0);
+        context.assertFalse(threadExists("test-started-batching-logger"));
+        vertx.runOnContext(v -> logger.doLog(Collections.singletonList("a"), context.asyncAssertSuccess(r -> async.complete())));
+        logger.start();
+        context.assertTrue(threadExists("test-started-batching-logger"));
+        async.await();
+        logger.close();
+        context.assertEquals(Collections.singletonList(Collections.singletonList("a")), logger.batches);
+        try {
+            logger.start();
+            context.fail("Expected an IllegalStateException");
+        } catch (IllegalStateException ex) {
+            context.assertEquals("Logger is already started", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testPendingLogEntriesAreWrittenWhenClosedBeforeStart(TestContext context) throws Exception {
+        Async async = context.async();
+        TestBatchingLogger logger = new TestBatchingLogger(vertx, 10, 10, 0);
+        logger.doLog(Collections.singletonList("a"), context.asyncAssertSuccess(r -> async.complete()));
+        logger.close();
+        async.await();
+        context.assertEquals(Collections.singletonList(Collections.singletonList("a")), logger.batches);
+    }
+
+    private static boolean threadExists(String name) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> name.equals(thread.getName()));
+    }
+
+    private static Thread findThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> name.equals(thread.getName()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+    }
+
+    private static class TestBatchingLogger extends AbstractBatchingLogTransformLogger {
+
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        private volatile RuntimeException failure;
+        private volatile CountDownLatch writing;
+        private volatile CountDownLatch unblock;
+
+        TestBatchingLogger(Vertx vertx, int queueSize, int batchSize, long flushIntervalMs) {
+            this(vertx, "test-batching-logger", queueSize, batchSize, flushIntervalMs);
+        }
+
+        TestBatchingLogger(Vertx vertx, String name, int queueSize, int batchSize, long flushIntervalMs) {
+            super(vertx, name, queueSize, batchSize, flushIntervalMs);
+        }
+
+        void blockWriting() {
+            writing = new CountDownLatch(1);
+            unblock = new CountDownLatch(1);
+        }
+
+        void awaitWriting() throws InterruptedException {
+            writing.await();
+        }
+
+        void unblockWriting() {
+            unblock.countDown();
+        }
+
+        @Override
+        protected void writeBatch(List<String> logEntries) throws Exception {
+            if (unblock != null) {
+                writing.countDown();
+                unblock.await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            batches.add(new ArrayList<>(logEntries));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.util.ResourcesUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for the {@link CompressedRollingLogTransformLogger} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class CompressedRollingLogTransformLoggerTest {
+
+    private Vertx vertx;
+    private Path directory;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        vertx = Vertx.vertx();
+        directory = temporaryFolder.newFolder("compressed").toPath();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testLogEntriesAreWrittenCompressed(TestContext context) throws Exception {
+        CompressedRollingLogTransformLogger logger = createLogger(1024 * 1024, Long.MAX_VALUE, Long.MAX_VALUE);
+        log(context, logger, Arrays.asList("a", "äöü"));
+        log(context, logger, Arrays.asList("c", "d"));
+        logger.close();
+
+        List<Path> files = files();
+        context.assertEquals(1, files.size());
+        context.assertEquals("a\näöü\nc\nd\n", decompress(files.get(0)));
+    }
+
+    @Test
+    public void testBlocksAreCompressedIndependently(TestContext context) throws Exception {
+        CompressedRollingLogTransformLogger logger = createLogger(4, Long.MAX_VALUE, Long.MAX_VALUE);
+        log(context, logger, Arrays.asList("1234", "5678", "90"));
+        logger.close();
+
+        List<Path> files = files();
+        context.assertEquals(1, files.size());
+        byte[] compressed = Files.readAllBytes(files.get(0));
+        int members = 0;
+        for (int i = 0; i < compressed.length - 1; i++) {
+            if (compressed[i] == (byte) 0x1f && compressed[i + 1] == (byte) 0x8b) {
+                members++;
+            }
+        }
+        context.assertEquals(3, members);
+        context.assertEquals("1234\n5678\n90\n", decompress(files.get(0)));
+    }
+
+    @Test
+    public void testRollBySize(TestContext context) throws Exception {
+        CompressedRollingLogTransformLogger logger = createLogger(1, 1, Long.MAX_VALUE);
+        log(context, logger, Arrays.asList("a", "b", "c"));
+        logger.close();
+
+        List<String> contents = new ArrayList<>();
+        for (Path file : files()) {
+            contents.add(decompress(file));
+        }
+        context.assertEquals(Arrays.asList("a\n", "b\n", "c\n"), contents);
+    }
+
+    @Test
+    public void testRollByTime(TestContext context) throws Exception {
+        CompressedRollingLogTransformLogger logger = createLogger(1024 * 1024, Long.MAX_VALUE, 50);
+        log(context, logger, Arrays.asList("a", "b"));
+        Thread.sleep(100);
+        log(context, logger, Arrays.asList("c"));
+        logger.close();
+
+        List<String> contents = new ArrayList<>();
+        for (Path file : files()) {
+            contents.add(decompress(file));
+        }
+        context.assertEquals(Arrays.asList("a\nb\n", "c\n"), contents);
+    }
+
+    @Test
+    public void testCompressionOfSplitLogEntries(TestContext context) throws Exception {
+        String logEntry = ResourcesUtils.loadResource("valid_storageExpand_resource", true);
+        List<String> logEntries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            logEntries.add(logEntry.replace("70000007", String.valueOf(i)));
+        }
+        CompressedRollingLogTransformLogger logger = createLogger(1024 * 1024, Long.MAX_VALUE, Long.MAX_VALUE);
+        log(context, logger, logEntries);
+        logger.close();
+
+        long uncompressedSize = 0;
+        for (String entry : logEntries) {
+            uncompressedSize += entry.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        long compressedSize = Files.size(files().get(0));
+        context.assertTrue(uncompressedSize / compressedSize >= 10, "Compression ratio is " + uncompressedSize / compressedSize);
+        context.assertEquals(String.join("\n", logEntries) + "\n", decompress(files().get(0)));
+    }
+
+    @Test
+    public void testDirectoryIsCreated(TestContext context) throws Exception {
+        Path nested = directory.resolve("nested");
+        CompressedRollingLogTransformLogger logger = CompressedRollingLogTransformLogger.create(vertx, nested, "test",
+                100, 1000, 10, 1024, Long.MAX_VALUE, Long.MAX_VALUE);
+        log(context, logger, Collections.singletonList("a"));
+        logger.close();
+
+        try (Stream<Path> files = Files.list(nested)) {
+            List<Path> created = files.collect(Collectors.toList());
+            context.assertEquals(1, created.size());
+            context.assertEquals("a\n", decompress(created.get(0)));
+        }
+    }
+
+    private void log(TestContext context, CompressedRollingLogTransformLogger logger, List<String> logEntries) {
+        Async async = context.async();
+        vertx.runOnContext(v -> logger.doLog(logEntries, context.asyncAssertSuccess(r -> async.complete())));
+        async.await();
+    }
+
+    private CompressedRollingLogTransformLogger createLogger(int blockSize, long rollSize, long rollIntervalMs) throws IOException {
+        return CompressedRollingLogTransformLogger.create(vertx, directory, "test", 100, 1000, 10, blockSize, rollSize, rollIntervalMs);
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private String decompress(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the {@link DeduplicatingLogTransformLogger} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class DeduplicatingLogTransformLoggerTest {
+
+    private Vertx vertx;
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testDuplicatesAreSuppressed(TestContext context) throws Exception {
+        RecordingLogger delegate = new RecordingLogger();
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 60000, 0);
+        logger.doLog(Arrays.asList("a", "b", "a"), context.asyncAssertSuccess());
+        logger.doLog(Arrays.asList("b", "c"), context.asyncAssertSuccess());
+        logger.doLogBuffers(Arrays.asList(Buffer.buffer("c"), Buffer.buffer("d")), context.asyncAssertSuccess());
+        logger.close();
+
+        context.assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c"), Arrays.asList("d")), delegate.logged);
+        context.assertEquals(3L, logger.getSuppressed());
+    }
+
+    @Test
+    public void testDuplicatesAreLoggedAfterWindow(TestContext context) throws Exception {
+        RecordingLogger delegate = new RecordingLogger();
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 50, 0);
+        logger.doLog(Arrays.asList("a"), context.asyncAssertSuccess());
+        Thread.sleep(100);
+        logger.doLog(Arrays.asList("a"), context.asyncAssertSuccess());
+        logger.close();
+
+        context.assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("a")), delegate.logged);
+        context.assertEquals(0L, logger.getSuppressed());
+    }
+
+    @Test
+    public void testBlockingDelegate(TestContext context) throws Exception {
+        RecordingLogger delegate = new RecordingLogger();
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 60000, 0);
+        context.assertTrue(logger instanceof BlockingLogTransformLogger);
+        BlockingLogTransformLogger blockingLogger = (BlockingLogTransformLogger) logger;
+        context.assertEquals(ThreadingModel.EVENT_LOOP, blockingLogger.getThreadingModel());
+        blockingLogger.doLogBlocking(Arrays.asList("a", "a"));
+        blockingLogger.doLogBuffersBlocking(Arrays.asList(Buffer.buffer("a"), Buffer.buffer("b")));
+
+        context.assertEquals(Arrays.asList(Arrays.asList("a"), Arrays.asList("b")), delegate.logged);
+        context.assertEquals(2L, logger.getSuppressed());
+    }
+
+    @Test
+    public void testFailedLogEntriesAreNotSuppressed(TestContext context) throws Exception {
+        RecordingLogger delegate = new RecordingLogger();
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 60000, 0);
+        delegate.failure = new IllegalStateException("disk full");
+        logger.doLog(Arrays.asList("a", "b"), context.asyncAssertFailure());
+        delegate.failure = null;
+        logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess());
+        logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess());
+
+        BlockingLogTransformLogger blockingLogger = (BlockingLogTransformLogger) logger;
+        delegate.failure = new IllegalStateException("disk full");
+        try {
+            blockingLogger.doLogBlocking(Arrays.asList("c"));
+            context.fail("Expected an IllegalStateException");
+        } catch (IllegalStateException ex) {
+            context.assertEquals("disk full", ex.getMessage());
+        }
+        delegate.failure = null;
+        blockingLogger.doLogBlocking(Arrays.asList("c", "c"));
+        logger.close();
+
+        context.assertEquals(Arrays.asList(Arrays.asList("a", "b"), Collections.emptyList(), Arrays.asList("c")), delegate.logged);
+        context.assertEquals(3L, logger.getSuppressed());
+    }
+
+    @Test
+    public void testStructuredDelegate(TestContext context) throws Exception {
+        RecordingLogger delegate = new StructuredRecordingLogger();
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 60000, 0);
+        context.assertTrue(logger instanceof StructuredLogTransformLogger);
+        StructuredLogTransformLogger structuredLogger = (StructuredLogTransformLogger) logger;
+        structuredLogger.doLogEntriesBlocking(Arrays.asList(LogEntry.of(new JsonObject().put("a", 1)),
+                LogEntry.of(Buffer.buffer("{\"a\":1}")), LogEntry.of(new JsonObject().put("b", 2))));
+        structuredLogger.doLogBlocking(Arrays.asList("{\"b\":2}", "{\"c\":3}"));
+
+        context.assertEquals(Arrays.asList(Arrays.asList("{\"a\":1}", "{\"b\":2}"), Arrays.asList("{\"c\":3}")), delegate.logged);
+        context.assertEquals(2L, logger.getSuppressed());
+    }
+
+    @Test
+    public void testNonBlockingDelegate(TestContext context) {
+        LogTransformLogger delegate = (logEntries, resultHandler) -> resultHandler.handle(Future.succeededFuture());
+        DeduplicatingLogTransformLogger logger = DeduplicatingLogTransformLogger.create(vertx, delegate, 1024, 60000, 0);
+        context.assertFalse(logger instanceof BlockingLogTransformLogger);
+        context.assertEquals(delegate, logger.getDelegate());
+    }
+
+    private static class RecordingLogger implements BlockingLogTransformLogger {
+
+        private final List<List<String>> logged = new ArrayList<>();
+        private RuntimeException failure;
+
+        @Override
+        public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+            try {
+                doLogBlocking(logEntries);
+            } catch (RuntimeException ex) {
+                resultHandler.handle(Future.failedFuture(ex));
+                return;
+            }
+            resultHandler.handle(Future.succeededFuture());
+        }
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            if (failure != null) {
+                throw failure;
+            }
+            logged.add(new ArrayList<>(logEntries));
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+    }
+
+    private static class StructuredRecordingLogger extends RecordingLogger implements StructuredLogTransformLogger {
+
+        @Override
+        public void doLogEntriesBlocking(List<LogEntry> logEntries) {
+            List<String> encoded = new ArrayList<>(logEntries.size());
+            for (LogEntry logEntry : logEntries) {
+                encoded.add(logEntry.encode());
+            }
+            doLogBlocking(encoded);
+        }
+    }
+}
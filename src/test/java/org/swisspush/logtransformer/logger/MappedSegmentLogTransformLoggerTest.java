@@ -0,0 +1,203 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.logger.MappedSegmentLogTransformLogger.ForcePolicy;
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the {@link MappedSegmentLogTransformLogger} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class MappedSegmentLogTransformLoggerTest {
+
+    private Vertx vertx;
+    private Path directory;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException {
+        vertx = Vertx.vertx();
+        directory = temporaryFolder.newFolder("segments").toPath();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testLogEntriesAreAppendedToSegment(TestContext context) throws Exception {
+        Async async = context.async();
+        MappedSegmentLogTransformLogger logger = createLogger(1024, ForcePolicy.ON_ROLL);
+        logger.doLog(Arrays.asList("a", "äöü"), context.asyncAssertSuccess(r -> {
+            logger.doLogBuffers(Collections.singletonList(Buffer.buffer("c")), context.asyncAssertSuccess(r2 -> async.complete()));
+        }));
+        async.await();
+        logger.close();
+
+        List<Path> segments = segments();
+        context.assertEquals(1, segments.size());
+        context.assertEquals("a\näöü\nc\n", new String(Files.readAllBytes(segments.get(0)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testStructuredLogEntriesAreAppendedToSegment(TestContext context) throws Exception {
+        MappedSegmentLogTransformLogger logger = createLogger(1024, ForcePolicy.NEVER);
+        logger.doLogEntriesBlocking(Arrays.asList(LogEntry.of(new JsonObject().put("a", "ä")), LogEntry.of(Buffer.buffer("b"))));
+        logger.close();
+
+        List<Path> segments = segments();
+        context.assertEquals(1, segments.size());
+        context.assertEquals("{\"a\":\"ä\"}\nb\n", new String(Files.readAllBytes(segments.get(0)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSegmentIsRolledWhenFull(TestContext context) throws Exception {
+        MappedSegmentLogTransformLogger logger = createLogger(10, ForcePolicy.NEVER);
+        logger.doLogBlocking(Arrays.asList("1234", "5678"));
+        logger.doLogBlocking(Collections.singletonList("abc"));
+        logger.doLogBlocking(Arrays.asList("de", "fghij", "klmnopq"));
+        logger.close();
+
+        List<String> contents = new ArrayList<>();
+        for (Path segment : segments()) {
+            contents.add(new String(Files.readAllBytes(segment), StandardCharsets.UTF_8));
+        }
+        context.assertEquals(Arrays.asList("1234\n5678\n", "abc\nde\n", "fghij\n", "klmnopq\n"), contents);
+    }
+
+    @Test
+    public void testFailWhenLogEntryExceedsSegmentSize(TestContext context) throws Exception {
+        Async async = context.async();
+        MappedSegmentLogTransformLogger logger = createLogger(4, ForcePolicy.NEVER);
+        logger.doLog(Collections.singletonList("12345"), context.asyncAssertFailure(t -> {
+            context.assertEquals("Log entry of 5 bytes exceeds the segment size of 4 bytes", t.getMessage());
+            async.complete();
+        }));
+        async.await();
+        logger.close();
+    }
+
+    @Test
+    public void testFailWhenClosed(TestContext context) throws Exception {
+        Async async = context.async();
+        MappedSegmentLogTransformLogger logger = createLogger(1024, ForcePolicy.NEVER);
+        logger.close();
+        logger.doLog(Collections.singletonList("a"), context.asyncAssertFailure(t -> {
+            context.assertEquals("Logger is closed", t.getMessage());
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testSegmentIsCompletedWhenClosedOnEventLoop(TestContext context) throws Exception {
+        Async async = context.async();
+        MappedSegmentLogTransformLogger logger = createLogger(1024, ForcePolicy.ON_ROLL);
+        logger.doLogBlocking(Collections.singletonList("a"));
+        vertx.runOnContext(v -> {
+            logger.close();
+            vertx.setPeriodic(10, timerId -> {
+                try {
+                    if (Files.size(segments().get(0)) == 2) {
+                        vertx.cancelTimer(timerId);
+                        async.complete();
+                    }
+                } catch (IOException e) {
+                    context.fail(e);
+                }
+            });
+        });
+        async.await();
+        context.assertEquals("a\n", new String(Files.readAllBytes(segments().get(0)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLoggersUseSeparateSegments(TestContext context) throws Exception {
+        MappedSegmentLogTransformLogger logger1 = createLogger(1024, ForcePolicy.NEVER);
+        MappedSegmentLogTransformLogger logger2 = createLogger(1024, ForcePolicy.NEVER);
+        logger1.doLogBlocking(Collections.singletonList("a"));
+        logger2.doLogBlocking(Collections.singletonList("b"));
+        logger1.close();
+        logger2.close();
+
+        Set<String> contents = new HashSet<>();
+        for (Path segment : segments()) {
+            contents.add(new String(Files.readAllBytes(segment), StandardCharsets.UTF_8));
+        }
+        context.assertEquals(new HashSet<>(Arrays.asList("a\n", "b\n")), contents);
+    }
+
+    @Test
+    public void testConcurrentWriters(TestContext context) throws Exception {
+        MappedSegmentLogTransformLogger logger = createLogger(4096, ForcePolicy.ON_ROLL);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            String prefix = "thread-" + thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    logger.doLogBlocking(Arrays.asList(prefix + "-entry-" + i + "-a", prefix + "-entry-" + i + "-b"));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        logger.close();
+
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments()) {
+            lines.addAll(Files.readAllLines(segment, StandardCharsets.UTF_8));
+        }
+        context.assertEquals(16000, lines.size());
+        context.assertEquals(16000, new HashSet<>(lines).size());
+        for (int i = 0; i < lines.size(); i += 2) {
+            // the entries of a single call are written contiguously
+            context.assertTrue(lines.get(i).endsWith("-a"));
+            context.assertEquals(lines.get(i).replace("-a", "-b"), lines.get(i + 1));
+        }
+    }
+
+    private MappedSegmentLogTransformLogger createLogger(long segmentSize, ForcePolicy forcePolicy) throws IOException {
+        return new MappedSegmentLogTransformLogger(vertx, ThreadingModel.WORKER, directory, "test", segmentSize, forcePolicy);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the {@link SpillJournal} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class SpillJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testJournalIsCompactedUnderSustainedLoad(TestContext context) throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        try (SpillJournal journal = new SpillJournal(file, 100)) {
+            journal.append(Collections.singletonList(Buffer.buffer("entry-0")));
+            for (int i = 1; i < 100; i++) {
+                journal.append(Collections.singletonList(Buffer.buffer("entry-" + i)));
+                SpillJournal.Batch batch = journal.read(1);
+                context.assertEquals("entry-" + (i - 1), batch.getLogEntries().get(0).toString());
+                journal.commit(batch);
+                context.assertTrue(Files.size(file) <= 150);
+            }
+            context.assertEquals("entry-99", journal.read(10).getLogEntries().get(0).toString());
+        }
+        // committed log entries not yet compacted are read again after a restart
+        try (SpillJournal reopened = new SpillJournal(file, 100)) {
+            List<Buffer> logEntries = reopened.read(100).getLogEntries();
+            context.assertTrue(logEntries.size() < 10);
+            context.assertEquals("entry-99", logEntries.get(logEntries.size() - 1).toString());
+        }
+    }
+
+    @Test
+    public void testJournalFull(TestContext context) throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        try (SpillJournal journal = new SpillJournal(file, 20)) {
+            journal.append(Collections.singletonList(Buffer.buffer("0123456789")));
+            try {
+                journal.append(Collections.singletonList(Buffer.buffer("0123456789")));
+                context.fail("journal should be full");
+            } catch (IOException ex) {
+                context.assertTrue(ex.getMessage().endsWith("is full"));
+            }
+            journal.commit(journal.read(1));
+            journal.append(Collections.singletonList(Buffer.buffer("0123456789")));
+        }
+    }
+
+    @Test
+    public void testJournalFileIsLocked(TestContext context) throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        try (SpillJournal journal = new SpillJournal(file, 100)) {
+            try {
+                new SpillJournal(file, 100);
+                context.fail("journal file should be locked");
+            } catch (IOException ex) {
+                context.assertTrue(ex.getMessage().endsWith("is used by another logger"));
+            }
+        }
+        new SpillJournal(file, 100).close();
+    }
+}
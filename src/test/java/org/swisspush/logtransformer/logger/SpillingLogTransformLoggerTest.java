@@ -0,0 +1,258 @@
+package org.swisspush.logtransformer.logger;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.util.LogEntry;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests for the {@link SpillingLogTransformLogger} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class SpillingLogTransformLoggerTest {
+
+    @Rule
+    public Timeout rule = Timeout.seconds(10);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testSpillAndReplay(TestContext context) throws Exception {
+        StallingLogger delegate = new StallingLogger();
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(delegate, journalFile, 2, 1024 * 1024, 10);
+        context.assertFalse(logger instanceof BlockingLogTransformLogger);
+
+        logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess());
+        logger.doLog(Collections.singletonList("c"), context.asyncAssertSuccess());
+        logger.doLogBuffers(Collections.singletonList(Buffer.buffer("d")), context.asyncAssertSuccess());
+        awaitCondition(() -> logger.getSpilled() == 2);
+        context.assertTrue(logger.getJournalSize() > 0);
+        context.assertEquals(1, delegate.pending.size());
+
+        delegate.recover();
+        awaitCondition(() -> logger.getReplayed() == 2);
+        logger.close();
+
+        context.assertEquals(Arrays.asList("a", "b", "c", "d"), delegate.logged);
+        context.assertEquals(0L, logger.getJournalSize());
+        context.assertEquals(0L, Files.size(journalFile));
+    }
+
+    @Test
+    public void testJournalIsReplayedAfterRestart(TestContext context) throws Exception {
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(new StallingLogger(), journalFile, 1, 1024 * 1024, 10);
+        logger.doLog(Collections.singletonList("stalled"), result -> context.fail("should not be completed"));
+        logger.doLog(Arrays.asList("{\n  \"multi\": \"line\"\n}", "b"), context.asyncAssertSuccess());
+        logger.close();
+
+        StallingLogger delegate = new StallingLogger();
+        delegate.recover();
+        SpillingLogTransformLogger restarted = SpillingLogTransformLogger.create(delegate, journalFile, 1, 1024 * 1024, 10);
+        awaitCondition(() -> restarted.getReplayed() == 2);
+        restarted.close();
+
+        context.assertEquals(Arrays.asList("{\n  \"multi\": \"line\"\n}", "b"), delegate.logged);
+    }
+
+    @Test
+    public void testJournalIsReplayedToBlockingDelegateAfterRestart(TestContext context) throws Exception {
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(new StallingLogger(), journalFile, 1, 1024 * 1024, 10);
+        logger.doLog(Collections.singletonList("stalled"), result -> context.fail("should not be completed"));
+        logger.doLog(Arrays.asList("a", "b"), context.asyncAssertSuccess());
+        logger.close();
+
+        BlockingRecordingLogger delegate = new BlockingRecordingLogger();
+        SpillingLogTransformLogger restarted = SpillingLogTransformLogger.create(delegate, journalFile, 1, 1024 * 1024, 10);
+        awaitCondition(() -> restarted.getReplayed() == 2);
+        restarted.close();
+
+        context.assertEquals(Arrays.asList("a", "b"), delegate.logged);
+    }
+
+    @Test
+    public void testFailedReplayIsRetried(TestContext context) throws Exception {
+        StallingLogger delegate = new StallingLogger();
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(delegate, journalFile, 1, 1024 * 1024, 10);
+        logger.doLog(Collections.singletonList("a"), context.asyncAssertSuccess());
+        logger.doLog(Collections.singletonList("b"), context.asyncAssertSuccess());
+
+        delegate.failures = 1;
+        delegate.recover();
+        awaitCondition(() -> logger.getReplayed() == 1);
+        logger.close();
+
+        context.assertEquals(Arrays.asList("a", "b"), delegate.logged);
+    }
+
+    @Test
+    public void testJournalFull(TestContext context) throws Exception {
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(new StallingLogger(), journalFile, 1, 10, 10);
+        logger.doLog(Collections.singletonList("a"), result -> {});
+        logger.doLog(Collections.singletonList("bbbb"), context.asyncAssertSuccess());
+        logger.doLog(Collections.singletonList("cccc"), context.asyncAssertFailure(cause ->
+                context.assertTrue(cause.getMessage().endsWith("is full"))));
+        logger.close();
+        logger.doLog(Collections.singletonList("d"), context.asyncAssertFailure());
+    }
+
+    @Test
+    public void testSpilledOnWriterThread(TestContext context) throws Exception {
+        Vertx vertx = Vertx.vertx();
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        List<String> appendThreads = new ArrayList<>();
+        SpillingLogTransformLogger logger = new SpillingLogTransformLogger(new StallingLogger(), journalFile, 1, 1024 * 1024, 10) {
+            @Override
+            protected AsyncResult<Void> append(List<Buffer> logEntries) {
+                appendThreads.add(Thread.currentThread().getName());
+                return super.append(logEntries);
+            }
+        };
+        Async async = context.async();
+        Context vertxContext = vertx.getOrCreateContext();
+        vertxContext.runOnContext(v -> {
+            logger.doLog(Collections.singletonList("a"), result -> {});
+            Thread caller = Thread.currentThread();
+            logger.doLog(Collections.singletonList("b"), context.asyncAssertSuccess(r -> {
+                context.assertEquals(vertxContext, Vertx.currentContext());
+                context.assertEquals(caller, Thread.currentThread());
+                context.assertEquals(1L, logger.getSpilled());
+                context.assertEquals(Collections.singletonList("log-transformer-spill-writer-test-spill.journal"), appendThreads);
+                async.complete();
+            }));
+        });
+        async.await();
+        logger.close();
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testBlockingDelegate(TestContext context) throws Exception {
+        BlockingRecordingLogger delegate = new BlockingRecordingLogger();
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(delegate, journalFile, 10, 1024 * 1024, 10);
+        context.assertTrue(logger instanceof BlockingLogTransformLogger);
+        BlockingLogTransformLogger blockingLogger = (BlockingLogTransformLogger) logger;
+        context.assertEquals(ThreadingModel.EVENT_LOOP, blockingLogger.getThreadingModel());
+        blockingLogger.doLogBlocking(Arrays.asList("a", "b"));
+        blockingLogger.doLogBuffersBlocking(Collections.singletonList(Buffer.buffer("c")));
+        logger.close();
+
+        context.assertEquals(Arrays.asList("a", "b", "c"), delegate.logged);
+        context.assertEquals(0L, logger.getSpilled());
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Holds the result handlers until it has recovered
+     */
+    @Test
+    public void testStructuredDelegate(TestContext context) throws Exception {
+        StructuredRecordingLogger delegate = new StructuredRecordingLogger();
+        Path journalFile = temporaryFolder.getRoot().toPath().resolve("test-spill.journal");
+        SpillingLogTransformLogger logger = SpillingLogTransformLogger.create(delegate, journalFile, 2, 1024 * 1024, 10);
+        context.assertTrue(logger instanceof StructuredLogTransformLogger);
+        ((StructuredLogTransformLogger) logger).doLogEntriesBlocking(Arrays.asList(LogEntry.of(new JsonObject().put("a", 1)),
+                LogEntry.of(Buffer.buffer("{\"b\":2}"))));
+        logger.close();
+
+        context.assertEquals(1, delegate.structuredCalls);
+        context.assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}"), ((BlockingRecordingLogger) delegate).logged);
+        context.assertEquals(0L, logger.getSpilled());
+    }
+
+    private static class StallingLogger implements LogTransformLogger {
+
+        private final List<String> logged = Collections.synchronizedList(new ArrayList<>());
+        private final List<Handler<AsyncResult<Void>>> pending = new ArrayList<>();
+        private volatile boolean recovered = false;
+        private volatile int failures = 0;
+
+        @Override
+        public synchronized void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+            if (!recovered) {
+                logged.addAll(logEntries);
+                pending.add(resultHandler);
+            } else if (failures > 0) {
+                failures--;
+                resultHandler.handle(Future.failedFuture("sink unavailable"));
+            } else {
+                logged.addAll(logEntries);
+                resultHandler.handle(Future.succeededFuture());
+            }
+        }
+
+        synchronized void recover() {
+            recovered = true;
+            pending.forEach(handler -> handler.handle(Future.succeededFuture()));
+            pending.clear();
+        }
+    }
+
+    private static class BlockingRecordingLogger implements BlockingLogTransformLogger {
+
+        private final List<String> logged = new ArrayList<>();
+
+        @Override
+        public void doLog(List<String> logEntries, Handler<AsyncResult<Void>> resultHandler) {
+            doLogBlocking(logEntries);
+            resultHandler.handle(Future.succeededFuture());
+        }
+
+        @Override
+        public void doLogBlocking(List<String> logEntries) {
+            logged.addAll(logEntries);
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+    }
+
+    private static class StructuredRecordingLogger extends BlockingRecordingLogger implements StructuredLogTransformLogger {
+
+        private int structuredCalls = 0;
+
+        @Override
+        public void doLogEntriesBlocking(List<LogEntry> logEntries) {
+            structuredCalls++;
+            for (LogEntry logEntry : logEntries) {
+                doLogBlocking(Collections.singletonList(logEntry.encode()));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link LatencyHistogram} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptyHistogram(TestContext context){
+        JsonObject snapshot = new LatencyHistogram().snapshot();
+        context.assertEquals(0L, snapshot.getLong("count"));
+        context.assertEquals(0L, snapshot.getLong("meanMicros"));
+        context.assertEquals(0L, snapshot.getLong("p99Micros"));
+    }
+
+    @Test
+    public void testRecordedValues(TestContext context){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+
+        JsonObject snapshot = histogram.snapshot();
+        context.assertEquals(100L, snapshot.getLong("count"));
+        context.assertEquals(99 * 100L + 10000L, snapshot.getLong("totalMicros"));
+        context.assertEquals(10000L, snapshot.getLong("maxMicros"));
+        context.assertEquals(127L, snapshot.getLong("p50Micros"));
+        context.assertEquals(127L, snapshot.getLong("p90Micros"));
+        context.assertEquals(127L, snapshot.getLong("p99Micros"));
+        context.assertEquals(10000L, histogram.getPercentileMicros(1.0));
+    }
+
+    @Test
+    public void testNegativeAndHugeValues(TestContext context){
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        context.assertEquals(2L, histogram.getCount());
+        context.assertEquals(0L, histogram.getPercentileMicros(0.5));
+    }
+}
@@ -0,0 +1,126 @@
+package org.swisspush.logtransformer.metrics;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the {@link MessageRecorder} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class MessageRecorderTest {
+
+    private static final String EVENT_PREFIX = "org.swisspush.logtransformer.";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDisabledWithoutRecording(TestContext context) {
+        MessageRecorder recorder = MessageRecorder.start(0);
+        context.assertFalse(recorder.isEnabled());
+        recorder.beginResolution();
+        recorder.endResolution("SomeStrategy");
+        recorder.fail();
+        recorder.commit();
+    }
+
+    @Test
+    public void testStagesAreRecorded(TestContext context) throws IOException {
+        Map<String, RecordedEvent> events = record(() -> {
+            MessageRecorder recorder = MessageRecorder.start(0);
+            recordMessage(recorder);
+            recorder.commit();
+        });
+
+        context.assertEquals(new HashSet<>(Arrays.asList("StrategyResolution", "QueueWait", "Transform", "Log")), events.keySet());
+        for (RecordedEvent event : events.values()) {
+            context.assertEquals("SomeStrategy", event.getString("strategy"));
+        }
+        RecordedEvent transform = events.get("Transform");
+        context.assertEquals(2, transform.getInt("entries"));
+        context.assertEquals(9L, transform.getLong("inputSize"));
+        context.assertEquals(8L, transform.getLong("outputSize"));
+        context.assertTrue(transform.getBoolean("succeeded"));
+        context.assertEquals(2, events.get("Log").getInt("entries"));
+    }
+
+    @Test
+    public void testFailedStage(TestContext context) throws IOException {
+        Map<String, RecordedEvent> events = record(() -> {
+            MessageRecorder recorder = MessageRecorder.start(0);
+            recorder.beginResolution();
+            recorder.endResolution("SomeStrategy");
+            recorder.beginTransform("some logs");
+            recorder.fail();
+            recorder.commit();
+        });
+
+        context.assertEquals(new HashSet<>(Arrays.asList("StrategyResolution", "Transform")), events.keySet());
+        context.assertFalse(events.get("Transform").getBoolean("succeeded"));
+    }
+
+    @Test
+    public void testFastMessagesAreNotRecorded(TestContext context) throws IOException {
+        Map<String, RecordedEvent> events = record(() -> {
+            MessageRecorder recorder = MessageRecorder.start(TimeUnit.SECONDS.toNanos(60));
+            context.assertTrue(recorder.isEnabled());
+            recordMessage(recorder);
+            recorder.commit();
+        });
+        context.assertTrue(events.isEmpty());
+    }
+
+    private static void recordMessage(MessageRecorder recorder) {
+        recorder.beginResolution();
+        recorder.endResolution("SomeStrategy");
+        recorder.beginQueueWait();
+        recorder.endQueueWait();
+        recorder.beginTransform(Buffer.buffer("some logs"));
+        recorder.endTransform(Arrays.asList(Buffer.buffer("some"), Buffer.buffer("logs")));
+        recorder.beginLog();
+        recorder.endLog(2);
+    }
+
+    /**
+     * @return the recorded events of this module by their name without prefix
+     */
+    private Map<String, RecordedEvent> record(Runnable runnable) throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : Arrays.asList("StrategyResolution", "QueueWait", "Transform", "Log")) {
+                recording.enable(EVENT_PREFIX + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        Map<String, RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.startsWith(EVENT_PREFIX)) {
+                events.put(name.substring(EVENT_PREFIX.length()), event);
+            }
+        }
+        return events;
+    }
+}
@@ -0,0 +1,199 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.util.LogEntry;
+import org.swisspush.logtransformer.util.ResourcesUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy.*;
+
+/**
+ * Tests for the {@link ChainedTransformStrategy} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class ChainedTransformStrategyTest {
+
+    private Vertx vertx;
+
+    private final String VALID_LOG_RESOURCE = ResourcesUtils.loadResource("valid_storageExpand_resource", true);
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testDocumentStagesAreChained(TestContext context) throws Exception {
+        SplitStorageExpandLogStrategy split = new SplitStorageExpandLogStrategy(vertx);
+        RemoveRequestHeadersStrategy removeHeaders = new RemoveRequestHeadersStrategy();
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(split, removeHeaders));
+
+        List<String> logEntries = chain.transformLogBlocking(VALID_LOG_RESOURCE);
+        context.assertEquals(3, logEntries.size());
+        context.assertEquals(3, removeHeaders.documents);
+        List<String> splitLogEntries = split.transformLogBlocking(VALID_LOG_RESOURCE);
+        for (int i = 0; i < logEntries.size(); i++) {
+            JsonObject expected = new JsonObject(splitLogEntries.get(i));
+            expected.getJsonObject(PROP_REQUEST).remove(PROP_HEADERS);
+            context.assertEquals(expected, new JsonObject(logEntries.get(i)));
+        }
+    }
+
+    @Test
+    public void testDocumentStagesProvideLogEntries(TestContext context) throws Exception {
+        SplitStorageExpandLogStrategy split = new SplitStorageExpandLogStrategy(vertx);
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(split, new RemoveRequestHeadersStrategy()));
+
+        List<LogEntry> logEntries = chain.transformEntriesBlocking(Buffer.buffer(VALID_LOG_RESOURCE));
+        List<String> expected = chain.transformLogBlocking(VALID_LOG_RESOURCE);
+        context.assertEquals(expected.size(), logEntries.size());
+        for (int i = 0; i < logEntries.size(); i++) {
+            context.assertEquals(expected.get(i), logEntries.get(i).encode());
+        }
+    }
+
+    @Test
+    public void testStringStagesAreChained(TestContext context) throws Exception {
+        SplitStorageExpandLogStrategy split = new SplitStorageExpandLogStrategy(vertx);
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(split, new MarkingStrategy()));
+
+        List<Buffer> logEntries = chain.transformBufferBlocking(Buffer.buffer(VALID_LOG_RESOURCE));
+        context.assertEquals(3, logEntries.size());
+        for (Buffer logEntry : logEntries) {
+            context.assertTrue(new JsonObject(logEntry).getBoolean("marked"));
+        }
+    }
+
+    @Test
+    public void testOriginalLogIsLoggedWhenStageFails(TestContext context){
+        Async async = context.async();
+        SplitStorageExpandLogStrategy split = new SplitStorageExpandLogStrategy(vertx);
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(split, split));
+        chain.transformLog(VALID_LOG_RESOURCE, context.asyncAssertSuccess(logEntries -> {
+            context.assertEquals(Collections.singletonList(VALID_LOG_RESOURCE), logEntries);
+            context.assertEquals(1L, chain.getFallbacks());
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testPassThroughStageDoesNotParseLog(TestContext context) throws Exception {
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(
+                new DoNothingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP), new SuffixStrategy()));
+        context.assertEquals(Collections.singletonList("not json-suffix"), chain.transformLogBlocking("not json"));
+        context.assertEquals(0L, chain.getFallbacks());
+    }
+
+    @Test
+    public void testPassThroughStageKeepsDocuments(TestContext context) throws Exception {
+        RemoveRequestHeadersStrategy removeHeaders = new RemoveRequestHeadersStrategy();
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(new SplitStorageExpandLogStrategy(vertx),
+                new DoNothingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP), removeHeaders));
+
+        List<LogEntry> logEntries = chain.transformEntriesBlocking(Buffer.buffer(VALID_LOG_RESOURCE));
+        context.assertEquals(3, logEntries.size());
+        context.assertEquals(3, removeHeaders.documents);
+        context.assertEquals(0L, chain.getFallbacks());
+    }
+
+    @Test
+    public void testThreadingModelIsCombined(TestContext context){
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx, Arrays.asList(
+                new DoNothingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP), new MarkingStrategy()));
+        context.assertEquals(ThreadingModel.EVENT_LOOP, chain.getThreadingModel());
+
+        chain = new ChainedTransformStrategy(vertx, Arrays.asList(
+                new DoNothingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP), new SplitStorageExpandLogStrategy(vertx)));
+        context.assertEquals(ThreadingModel.WORKER, chain.getThreadingModel());
+    }
+
+    private static class RemoveRequestHeadersStrategy implements DocumentTransformStrategy {
+
+        private int documents = 0;
+
+        @Override
+        public List<JsonObject> transformDocument(JsonObject document) {
+            documents++;
+            document.getJsonObject(PROP_REQUEST).remove(PROP_HEADERS);
+            return Collections.singletonList(document);
+        }
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            throw new IllegalStateException("should not be called in a chain");
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            throw new IllegalStateException("should not be called in a chain");
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+    }
+
+    private static class MarkingStrategy implements BlockingTransformStrategy {
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            return Collections.singletonList(new JsonObject(logToTransform).put("marked", true).encode());
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            throw new IllegalStateException("should not be called in a chain");
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+    }
+
+    private static class SuffixStrategy implements BlockingTransformStrategy {
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            return Collections.singletonList(logToTransform + "-suffix");
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            throw new IllegalStateException("should not be called in a chain");
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.EVENT_LOOP;
+        }
+    }
+}
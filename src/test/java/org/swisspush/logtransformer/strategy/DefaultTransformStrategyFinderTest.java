@@ -1,6 +1,10 @@
 package org.swisspush.logtransformer.strategy;
 
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -8,6 +12,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Tests for the {@link DefaultTransformStrategyFinder} class
  *
@@ -56,8 +66,190 @@ public class DefaultTransformStrategyFinderTest {
         assertStrategy(context, strategy, DoNothingTransformStrategy.class);
     }
 
+    @Test
+    public void testStreamingSplitStorageExpandLogStrategy(TestContext context){
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "StreamingSplitStorageExpandLogStrategy"));
+        assertStrategy(context, strategy, StreamingSplitStorageExpandLogStrategy.class);
+
+        strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "streamingsplitstorageexpandlogstrategy"));
+        assertStrategy(context, strategy, StreamingSplitStorageExpandLogStrategy.class);
+    }
+
+    @Test
+    public void testStrategyFromServiceLoader(TestContext context){
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "ServiceLoaderStrategy"));
+        assertStrategy(context, strategy, TestTransformStrategy.class);
+
+        strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "serviceloaderstrategy"));
+        assertStrategy(context, strategy, TestTransformStrategy.class);
+    }
+
+    @Test
+    public void testNullStrategyFromServiceLoaderIsNotRegistered(TestContext context){
+        context.assertFalse(finder.getStrategyNames().contains("nullstrategy"));
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "NullStrategy"));
+        assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+    }
+
+    @Test
+    public void testStrategyFromConfiguration(TestContext context){
+        finder = new DefaultTransformStrategyFinder(vertx, STRATEGY_HEADER,
+                Collections.singletonMap("ConfiguredStrategy", ThreadingModel.EVENT_LOOP),
+                Collections.singletonMap("ConfiguredStrategy", TestTransformStrategy.class.getName()));
+
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "configuredStrategy"));
+        assertStrategy(context, strategy, TestTransformStrategy.class);
+        context.assertEquals(ThreadingModel.EVENT_LOOP, ((TestTransformStrategy) strategy).threadingModel);
+        context.assertTrue(finder.getStrategyNames().contains("configuredstrategy"));
+    }
+
+    @Test
+    public void testConfigurationOverridesBuiltInStrategy(TestContext context){
+        finder = new DefaultTransformStrategyFinder(vertx, STRATEGY_HEADER, Collections.emptyMap(),
+                Collections.singletonMap("SplitStorageExpandLogStrategy", TestTransformStrategy.class.getName()));
+
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy"));
+        assertStrategy(context, strategy, TestTransformStrategy.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStrategyClassInConfiguration(){
+        new DefaultTransformStrategyFinder(vertx, STRATEGY_HEADER, Collections.emptyMap(),
+                Collections.singletonMap("InvalidStrategy", String.class.getName()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStrategyClassInConfiguration(){
+        new DefaultTransformStrategyFinder(vertx, STRATEGY_HEADER, Collections.emptyMap(),
+                Collections.singletonMap("UnknownStrategy", "org.swisspush.logtransformer.strategy.UnknownStrategy"));
+    }
+
+    @Test
+    public void testManyUnknownStrategiesProvided(TestContext context){
+        for (int i = 0; i < DefaultTransformStrategyFinder.MAX_CACHED_STRATEGY_VALUES * 2; i++) {
+            TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "unknown_strategy_" + i));
+            assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+        }
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy"));
+        assertStrategy(context, strategy, SplitStorageExpandLogStrategy.class);
+    }
+
+    @Test
+    public void testChainedStrategies(TestContext context){
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, "splitStorageExpandLogStrategy | DoNothingTransformStrategy"));
+        assertStrategy(context, strategy, ChainedTransformStrategy.class);
+        ChainedTransformStrategy chain = (ChainedTransformStrategy) strategy;
+        context.assertEquals("SplitStorageExpandLogStrategy|DoNothingTransformStrategy", chain.getName());
+        context.assertEquals(2, chain.getStages().size());
+        context.assertEquals(SplitStorageExpandLogStrategy.class, chain.getStages().get(0).getClass());
+        context.assertEquals(DoNothingTransformStrategy.class, chain.getStages().get(1).getClass());
+    }
+
+    @Test
+    public void testChainWithUnknownOrNonBlockingStrategy(TestContext context){
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy|some_unknown_strategy"));
+        assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+
+        strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy|ServiceLoaderStrategy"));
+        assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+
+        strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "|"));
+        assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+    }
+
+    @Test
+    public void testSameChainIsResolvedOnce(TestContext context){
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy|DoNothingTransformStrategy"));
+        assertStrategy(context, strategy, ChainedTransformStrategy.class);
+        context.assertTrue(strategy == finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, " splitstorageexpandlogstrategy || DONOTHINGTRANSFORMSTRATEGY ")));
+    }
+
+    @Test
+    public void testGetTransformStrategyByRegisteredName(TestContext context){
+        context.assertTrue(finder.getTransformStrategy("splitstorageexpandlogstrategy") == finder.findTransformStrategy(
+                MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "SplitStorageExpandLogStrategy")));
+        context.assertTrue(finder.getTransformStrategy("SplitStorageExpandLogStrategy|DoNothingTransformStrategy") == finder.findTransformStrategy(
+                MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, "splitstorageexpandlogstrategy | donothingtransformstrategy")));
+        context.assertNull(finder.getTransformStrategy("UnknownStrategy"));
+    }
+
+    @Test
+    public void testChainLengthIsLimited(TestContext context){
+        String chain = String.join(ChainedTransformStrategy.SEPARATOR,
+                Collections.nCopies(DefaultTransformStrategyFinder.MAX_CHAIN_LENGTH, "DoNothingTransformStrategy"));
+        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add(STRATEGY_HEADER, chain));
+        assertStrategy(context, strategy, ChainedTransformStrategy.class);
+
+        strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                .add(STRATEGY_HEADER, chain + ChainedTransformStrategy.SEPARATOR + "DoNothingTransformStrategy"));
+        assertStrategy(context, strategy, DoNothingTransformStrategy.class);
+    }
+
+    @Test
+    public void testNumberOfChainsIsLimited(TestContext context){
+        String[] names = {"DoNothingTransformStrategy", "SplitStorageExpandLogStrategy", "TruncatingTransformStrategy"};
+        Set<TransformStrategy> chains = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < DefaultTransformStrategyFinder.MAX_CHAINS * 2; i++) {
+            List<String> stages = new ArrayList<>();
+            for (int n = i; n > 0 || stages.size() < 2; n /= names.length) {
+                stages.add(names[n % names.length]);
+            }
+            TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap()
+                    .add(STRATEGY_HEADER, String.join(ChainedTransformStrategy.SEPARATOR, stages)));
+            if(strategy instanceof ChainedTransformStrategy){
+                chains.add(strategy);
+            }
+        }
+        context.assertEquals(DefaultTransformStrategyFinder.MAX_CHAINS, chains.size());
+    }
+
     private void assertStrategy(TestContext context, TransformStrategy strategy, Class clazz){
         context.assertNotNull(strategy);
         context.assertEquals(clazz, strategy.getClass());
     }
+
+    public static class TestTransformStrategy implements TransformStrategy {
+
+        private final ThreadingModel threadingModel;
+
+        public TestTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+            this.threadingModel = threadingModel;
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            resultHandler.handle(Future.succeededFuture(Collections.singletonList(logToTransform)));
+        }
+    }
+
+    public static class TestTransformStrategyProvider implements TransformStrategyProvider {
+
+        @Override
+        public String getStrategyName() {
+            return "ServiceLoaderStrategy";
+        }
+
+        @Override
+        public TransformStrategy createTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+            return new TestTransformStrategy(vertx, threadingModel);
+        }
+    }
+
+    public static class NullTransformStrategyProvider implements TransformStrategyProvider {
+
+        @Override
+        public String getStrategyName() {
+            return "NullStrategy";
+        }
+
+        @Override
+        public TransformStrategy createTransformStrategy(Vertx vertx, ThreadingModel threadingModel) {
+            return null;
+        }
+    }
 }
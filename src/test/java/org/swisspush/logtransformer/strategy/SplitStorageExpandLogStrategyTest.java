@@ -1,6 +1,8 @@
 package org.swisspush.logtransformer.strategy;
 
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
@@ -13,6 +15,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.swisspush.logtransformer.util.ResourcesUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy.*;
 
@@ -177,6 +183,111 @@ public class SplitStorageExpandLogStrategyTest {
 
     }
 
+    @Test
+    public void testTransformedLogOutputEqualsEncodedSkeleton(TestContext context){
+        Async async = context.async();
+        JsonObject log = getValidLogInput();
+        log.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY)
+                .put("quote\"and\\backslash", new JsonObject().put("dataId", 1))
+                .put("umlaut-äöü", new JsonObject().put("text", "line\nbreak"));
+        strategy.transformLog(log.encode(), context.asyncAssertSuccess(logEntries -> {
+            context.assertEquals(encodeWithSkeletonCopies(log), logEntries);
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testTransformedBufferLogOutput(TestContext context){
+        Async async = context.async();
+        strategy.transformBuffer(Buffer.buffer(VALID_LOG_RESOURCE), context.asyncAssertSuccess(logEntries -> {
+            verify(strategy, never()).doNothingInCaseOfBufferError(any(), anyString());
+            context.assertEquals(3, logEntries.size());
+            verifyLogEntry(context, logEntries.get(0).toString(), 70000009);
+            verifyLogEntry(context, logEntries.get(1).toString(), 70000008);
+            verifyLogEntry(context, logEntries.get(2).toString(), 70000007);
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testNonJsonBufferLogContent(TestContext context){
+        Async async = context.async();
+        Buffer log = Buffer.buffer("this is not json");
+        strategy.transformBuffer(log, context.asyncAssertSuccess(logEntries -> {
+            verify(strategy, times(1)).doNothingInCaseOfBufferError(eq(log), eq("Log could not be converted to JSON"));
+            context.assertEquals(1, logEntries.size());
+            context.assertEquals(log, logEntries.get(0));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testParallelSplitKeepsOrder(TestContext context){
+        Async async = context.async();
+        JsonObject log = getValidLogInput();
+        JsonObject body = log.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY);
+        for (int i = 0; i < 1000; i++) {
+            body.put("resource_" + i, new JsonObject().put("dataId", i));
+        }
+        SplitStorageExpandLogStrategy parallelStrategy = new SplitStorageExpandLogStrategy(vertx, ThreadingModel.WORKER, 100);
+        parallelStrategy.transformLog(log.encode(), context.asyncAssertSuccess(logEntries -> {
+            context.assertEquals(1003, logEntries.size());
+            context.assertEquals(encodeWithSkeletonCopies(log), logEntries);
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testParallelSplitBelowThreshold(TestContext context){
+        Async async = context.async();
+        SplitStorageExpandLogStrategy parallelStrategy = new SplitStorageExpandLogStrategy(vertx, ThreadingModel.WORKER, 4);
+        parallelStrategy.transformLog(VALID_LOG_RESOURCE, context.asyncAssertSuccess(logEntries -> {
+            context.assertEquals(encodeWithSkeletonCopies(getValidLogInput()), logEntries);
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testTransformedDocumentsEqualTransformedLogOutput(TestContext context) throws Exception {
+        JsonObject log = getValidLogInput();
+        log.put(PROP_URL, "/some/url" + PARAM_STORAGE_EXPAND + "/messages/" + PARAM_STORAGE_EXPAND);
+        JsonObject body = log.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY);
+        for (int i = 0; i < 200; i++) {
+            body.put("resource_" + i, new JsonObject().put("dataId", i));
+        }
+        for (int parallelSplitThreshold : new int[]{0, 100}) {
+            SplitStorageExpandLogStrategy documentStrategy = new SplitStorageExpandLogStrategy(vertx, ThreadingModel.WORKER, parallelSplitThreshold);
+            List<String> expected = documentStrategy.transformLogBlocking(log.encode());
+            List<String> logEntries = new ArrayList<>();
+            for (JsonObject document : documentStrategy.transformDocument(log.copy())) {
+                context.assertEquals("/some/url" + PARAM_STORAGE_EXPAND + "/messages/", document.getString(PROP_URL)
+                        .substring(0, document.getString(PROP_URL).lastIndexOf('/') + 1));
+                logEntries.add(document.encode());
+            }
+            context.assertEquals(expected, logEntries);
+        }
+    }
+
+    /**
+     * Reference implementation encoding a full copy of the skeleton for each sub-resource
+     */
+    private List<String> encodeWithSkeletonCopies(JsonObject log){
+        JsonObject skeleton = log.copy();
+        skeleton.put(PROP_METHOD, "GET");
+        skeleton.getJsonObject(PROP_REQUEST).remove(PROP_BODY);
+        skeleton.getJsonObject(PROP_RESPONSE).remove(PROP_HEADERS);
+        skeleton.getJsonObject(PROP_RESPONSE).remove(PROP_BODY);
+        List<String> logEntries = new ArrayList<>();
+        JsonObject body = log.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY);
+        for (String key : new HashMap<>(body.getMap()).keySet()) {
+            JsonObject entry = skeleton.copy();
+            entry.put(PROP_URL, entry.getString(PROP_URL).replace(PARAM_STORAGE_EXPAND, key));
+            entry.getJsonObject(PROP_RESPONSE).put(PROP_BODY, body.getJsonObject(key));
+            logEntries.add(entry.encode());
+        }
+        return logEntries;
+    }
+
     private void verifyLogEntry(TestContext context, String logEntry, int dataId){
         try{
             JsonObject obj = new JsonObject(logEntry);
@@ -0,0 +1,268 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.swisspush.logtransformer.util.ResourcesUtils;
+
+import static org.mockito.Mockito.*;
+import static org.swisspush.logtransformer.strategy.SplitStorageExpandLogStrategy.*;
+
+/**
+ * Tests for the {@link StreamingSplitStorageExpandLogStrategy} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class StreamingSplitStorageExpandLogStrategyTest {
+
+    private StreamingSplitStorageExpandLogStrategy strategy;
+    private Vertx vertx;
+
+    private final String VALID_LOG_RESOURCE = ResourcesUtils.loadResource("valid_storageExpand_resource", true);
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+        strategy = Mockito.spy(new StreamingSplitStorageExpandLogStrategy(vertx));
+    }
+
+    @Test
+    public void testJsonLogContentNull(TestContext context){
+        Async async = context.async();
+        strategy.transformLog(null, res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(0, res.result().size());
+            verify(strategy, times(1)).doNothingInCaseOfError(eq(null), eq("Log was null and therefore could not be converted to JSON"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testNonJsonLogContent(TestContext context){
+        Async async = context.async();
+        strategy.transformLog("a non-json log entry", res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(1, res.result().size());
+            context.assertEquals("a non-json log entry", res.result().get(0));
+            verify(strategy, times(1)).doNothingInCaseOfError(eq("a non-json log entry"), eq("Log could not be converted to JSON"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testIncompleteJsonLogContent(TestContext context){
+        Async async = context.async();
+        String input = VALID_LOG_RESOURCE.substring(0, VALID_LOG_RESOURCE.length() / 2);
+        strategy.transformLog(input, res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(1, res.result().size());
+            verify(strategy, times(1)).doNothingInCaseOfError(eq(input), eq("Log could not be converted to JSON"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testNoUrlPropertyInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.remove(PROP_URL);
+        assertError(context, input, "Property 'url' is missing or has invalid content");
+    }
+
+    @Test
+    public void testInvalidUrlPropertyInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.put(PROP_URL, "/some/url/without/storageexpand/param");
+        assertError(context, input, "Property 'url' is missing or has invalid content");
+    }
+
+    @Test
+    public void testInvalidUrlPropertyTypeInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.put(PROP_URL, new JsonObject());
+        assertError(context, input, "Property 'url' is missing or has invalid content");
+    }
+
+    @Test
+    public void testNoResponsePropertyInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.remove(PROP_RESPONSE);
+        assertError(context, input, "Property 'response' is missing or has invalid content");
+    }
+
+    @Test
+    public void testResponsePropertyWrongTypeInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.put(PROP_RESPONSE, 1234);
+        assertError(context, input, "Property 'response' has an unexpected type");
+    }
+
+    @Test
+    public void testNoResponseBodyPropertyInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.getJsonObject(PROP_RESPONSE).remove(PROP_BODY);
+        assertError(context, input, "Property 'response.body' is missing or has invalid content");
+    }
+
+    @Test
+    public void testResponseBodyPropertyWrongTypeInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.getJsonObject(PROP_RESPONSE).put(PROP_BODY, 1234);
+        assertError(context, input, "Property 'response.body' has an unexpected type");
+    }
+
+    @Test
+    public void testNoRequestPropertyInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.remove(PROP_REQUEST);
+        assertError(context, input, "Property 'request' is missing or has invalid content");
+    }
+
+    @Test
+    public void testSubResourceWrongTypeInLogContent(TestContext context){
+        JsonObject input = getValidLogInput();
+        input.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY).put("70000010", "not an object");
+        assertError(context, input, "Unexpected property type found");
+    }
+
+    private void assertError(TestContext context, JsonObject input, String expectedError){
+        Async async = context.async();
+        strategy.transformLog(input.encode(), res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(1, res.result().size());
+            context.assertEquals(input.encode(), res.result().get(0));
+            verify(strategy, times(1)).doNothingInCaseOfError(eq(input.encode()), eq(expectedError));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testTransformedLogOutput(TestContext context){
+        Async async = context.async();
+        strategy.transformLog(VALID_LOG_RESOURCE, res -> {
+            context.assertTrue(res.succeeded());
+            verify(strategy, never()).doNothingInCaseOfError(anyString(), anyString());
+            context.assertEquals(3, res.result().size());
+            verifyLogEntry(context, res.result().get(0), 70000007);
+            verifyLogEntry(context, res.result().get(1), 70000008);
+            verifyLogEntry(context, res.result().get(2), 70000009);
+            for (String logEntry : res.result()) {
+                context.assertFalse(logEntry.contains("\n"));
+            }
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testTransformedLogOutputEqualsSplitStorageExpandLogStrategy(TestContext context){
+        Async async = context.async();
+        String input = getValidLogInput().encode();
+        new SplitStorageExpandLogStrategy(vertx).transformLog(input, expected -> strategy.transformLog(input, res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(expected.result().size(), res.result().size());
+            for (String logEntry : res.result()) {
+                context.assertTrue(expected.result().contains(logEntry));
+            }
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testNonCompactSubResourcesAreCopiedAsIs(TestContext context){
+        Async async = context.async();
+        String input = "{\"url\":\"/some/url/" + PARAM_STORAGE_EXPAND + "\",\"request\":{},\"response\":{\"body\":{"
+                + "\"1\": { \"dataId\" : 1, \"name\" : \"\\u0041\" },"
+                + "\"2\":\t{\"dataId\":\t2}}}}";
+        new SplitStorageExpandLogStrategy(vertx).transformLog(input, expected -> strategy.transformLog(input, res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(expected.result().size(), res.result().size());
+            for (String logEntry : res.result()) {
+                context.assertFalse(expected.result().contains(logEntry));
+                context.assertTrue(expected.result().stream().anyMatch(entry -> new JsonObject(entry).equals(new JsonObject(logEntry))));
+            }
+            context.assertTrue(res.result().get(0).contains("{ \"dataId\" : 1, \"name\" : \"\\u0041\" }"));
+            context.assertTrue(res.result().get(1).contains("{\"dataId\":\t2}"));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testTransformedBufferLogOutput(TestContext context){
+        Async async = context.async();
+        strategy.transformLog(VALID_LOG_RESOURCE, expected -> strategy.transformBuffer(Buffer.buffer(VALID_LOG_RESOURCE), res -> {
+            context.assertTrue(res.succeeded());
+            verify(strategy, never()).doNothingInCaseOfBufferError(any(), anyString());
+            context.assertEquals(expected.result().size(), res.result().size());
+            for (int i = 0; i < res.result().size(); i++) {
+                context.assertEquals(expected.result().get(i), res.result().get(i).toString());
+            }
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testNonJsonBufferLogContent(TestContext context){
+        Async async = context.async();
+        Buffer input = Buffer.buffer("a non-json log entry");
+        strategy.transformBuffer(input, res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(1, res.result().size());
+            context.assertEquals(input, res.result().get(0));
+            verify(strategy, times(1)).doNothingInCaseOfBufferError(eq(input), eq("Log could not be converted to JSON"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testSubResourceNameIsEscaped(TestContext context){
+        Async async = context.async();
+        JsonObject input = getValidLogInput();
+        input.getJsonObject(PROP_RESPONSE).put(PROP_BODY, new JsonObject().put("a\"b", new JsonObject().put("dataId", 1)));
+        strategy.transformLog(input.encode(), res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals(1, res.result().size());
+            JsonObject obj = new JsonObject(res.result().get(0));
+            context.assertEquals("/some/url/that/has/messages/a\"b", obj.getString(PROP_URL));
+            async.complete();
+        });
+    }
+
+    private void verifyLogEntry(TestContext context, String logEntry, int dataId){
+        try{
+            JsonObject obj = new JsonObject(logEntry);
+
+            context.assertEquals(obj.getString(PROP_METHOD), "GET");
+
+            context.assertTrue(obj.getString(PROP_URL).endsWith(String.valueOf(dataId)));
+            context.assertFalse(obj.getString(PROP_URL).contains("/" + PARAM_STORAGE_EXPAND));
+
+            context.assertTrue(obj.containsKey(PROP_RESPONSE));
+            context.assertFalse(obj.getJsonObject(PROP_RESPONSE).containsKey(PROP_HEADERS));
+            context.assertTrue(obj.getJsonObject(PROP_RESPONSE).containsKey(PROP_BODY));
+            context.assertEquals(obj.getJsonObject(PROP_RESPONSE).getJsonObject(PROP_BODY).getInteger("dataId"), dataId);
+
+            context.assertTrue(obj.containsKey(PROP_REQUEST));
+            context.assertTrue(obj.getJsonObject(PROP_REQUEST).containsKey(PROP_HEADERS));
+            context.assertFalse(obj.getJsonObject(PROP_REQUEST).containsKey(PROP_BODY));
+
+        } catch (Exception ex){
+            context.fail(ex);
+        }
+    }
+
+    private JsonObject getValidLogInput(){
+        return new JsonObject(VALID_LOG_RESOURCE);
+    }
+}
@@ -0,0 +1,181 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.util.WorkerPool;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link TransformStrategyWarmUp} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class TransformStrategyWarmUpTest {
+
+    private Vertx vertx;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(10);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testBuiltInStrategiesAcceptDefaultSample(TestContext context){
+        DefaultTransformStrategyFinder finder = new DefaultTransformStrategyFinder(vertx, "transformStrategy");
+        new TransformStrategyWarmUp(vertx, 10).warmUp(finder, "transformStrategy", Collections.emptyMap())
+                .onComplete(context.asyncAssertSuccess(v -> {
+                    for (String name : finder.getStrategyNames()) {
+                        TransformStrategy strategy = finder.findTransformStrategy(MultiMap.caseInsensitiveMultiMap().add("transformStrategy", name));
+                        if(strategy instanceof AbstractTransformStrategy){
+                            context.assertEquals(0L, ((AbstractTransformStrategy) strategy).getFallbacks(), name);
+                        }
+                    }
+                }));
+    }
+
+    @Test
+    public void testConfiguredSamplesAndFailures(TestContext context){
+        CountingStrategy counting = new CountingStrategy();
+        FailingStrategy failing = new FailingStrategy();
+        Map<String, TransformStrategy> strategies = new HashMap<>();
+        strategies.put("counting", counting);
+        strategies.put("failing", failing);
+        TransformStrategyFinder finder = headers -> strategies.get(headers.get("transformStrategy"));
+
+        Map<String, String> samples = new HashMap<>();
+        samples.put("counting", "sample log");
+        samples.put("failing", "sample log");
+        new TransformStrategyWarmUp(vertx, 5000).warmUp(finder, "transformStrategy", samples)
+                .onComplete(context.asyncAssertSuccess(v -> {
+                    context.assertEquals(5000, counting.calls.get());
+                    context.assertEquals("sample log", counting.lastLog);
+                    context.assertEquals(1, failing.calls.get());
+                }));
+    }
+
+    @Test
+    public void testCustomStrategiesWithoutSampleAreNotWarmedUp(TestContext context){
+        Map<String, String> strategyClasses = new HashMap<>();
+        strategyClasses.put("custom", CountingStrategy.class.getName());
+        strategyClasses.put("TruncatingTransformStrategy", CountingStrategy.class.getName());
+        DefaultTransformStrategyFinder finder = new DefaultTransformStrategyFinder(vertx, "transformStrategy",
+                Collections.emptyMap(), strategyClasses);
+        new TransformStrategyWarmUp(vertx, 10).warmUp(finder, "transformStrategy", Collections.singletonMap("custom", "sample log"))
+                .onComplete(context.asyncAssertSuccess(v -> {
+                    context.assertEquals(10, ((CountingStrategy) finder.getTransformStrategy("custom")).calls.get());
+                    context.assertEquals(0, ((CountingStrategy) finder.getTransformStrategy("TruncatingTransformStrategy")).calls.get());
+                }));
+    }
+
+    @Test
+    public void testBlockingStrategyIsWarmedUpOnItsWorkerPool(TestContext context){
+        BlockingCountingStrategy strategy = new BlockingCountingStrategy();
+        WorkerPool workerPool = new WorkerPool(vertx, "warmup-test-pool", 1, 60000, false);
+        TransformStrategyWarmUp warmUp = new TransformStrategyWarmUp(vertx, 10, s -> s == strategy ? workerPool : null);
+        warmUp.warmUp(strategy, "sample log").onComplete(context.asyncAssertSuccess(v -> {
+            context.assertEquals(20, strategy.calls.get());
+            context.assertTrue(strategy.thread.startsWith("warmup-test-pool"), strategy.thread);
+            context.assertEquals(1L, workerPool.getCompleted());
+            workerPool.close();
+        }));
+    }
+
+    @Test
+    public void testSamplesOfUnknownStrategiesAreSkipped(TestContext context){
+        Map<String, String> strategyClasses = Collections.singletonMap("custom", CountingStrategy.class.getName());
+        DefaultTransformStrategyFinder finder = new DefaultTransformStrategyFinder(vertx, "transformStrategy",
+                Collections.emptyMap(), strategyClasses);
+        Map<String, String> samples = new HashMap<>();
+        samples.put("custom", "custom sample");
+        samples.put("unknown", "unknown sample");
+        TransformStrategyWarmUp warmUp = new TransformStrategyWarmUp(vertx, 10);
+
+        Map<TransformStrategy, String> strategies = warmUp.resolve(finder, "transformStrategy", samples);
+        context.assertEquals("custom sample", strategies.get(finder.getTransformStrategy("custom")));
+        context.assertFalse(strategies.containsValue("unknown sample"));
+        context.assertEquals(warmUp.resolve(finder, "transformStrategy", Collections.emptyMap()).size() + 1, strategies.size());
+    }
+
+    /**
+     * Completes synchronously, to verify that the iterations do not recurse
+     */
+    public static class CountingStrategy implements TransformStrategy {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile String lastLog;
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            calls.incrementAndGet();
+            lastLog = logToTransform;
+            resultHandler.handle(Future.succeededFuture(Collections.singletonList(logToTransform)));
+        }
+    }
+
+    private static class BlockingCountingStrategy implements BlockingTransformStrategy {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile String thread;
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            calls.incrementAndGet();
+            thread = Thread.currentThread().getName();
+            return Collections.singletonList(logToTransform);
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.WORKER;
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            resultHandler.handle(Future.failedFuture("not used"));
+        }
+    }
+
+    private static class FailingStrategy implements BlockingTransformStrategy {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<String> transformLogBlocking(String logToTransform) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }
+
+        @Override
+        public ThreadingModel getThreadingModel() {
+            return ThreadingModel.WORKER;
+        }
+
+        @Override
+        public void transformLog(String logToTransform, Handler<AsyncResult<List<String>>> resultHandler) {
+            resultHandler.handle(Future.failedFuture("not used"));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.swisspush.logtransformer.strategy;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.swisspush.logtransformer.util.ResourcesUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.swisspush.logtransformer.strategy.TruncatingTransformStrategy.PROP_TRUNCATED;
+import static org.swisspush.logtransformer.strategy.TruncatingTransformStrategy.TRUNCATED_SUFFIX;
+
+/**
+ * Tests for the {@link TruncatingTransformStrategy} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class TruncatingTransformStrategyTest {
+
+    private Vertx vertx;
+
+    private final String VALID_LOG_RESOURCE = ResourcesUtils.loadResource("valid_storageExpand_resource", true);
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testNonJsonLogContent(TestContext context){
+        Async async = context.async();
+        TruncatingTransformStrategy strategy = Mockito.spy(new TruncatingTransformStrategy(vertx));
+        strategy.transformLog("a non-json log entry", res -> {
+            context.assertTrue(res.succeeded());
+            context.assertEquals("a non-json log entry", res.result().get(0));
+            verify(strategy, times(1)).doNothingInCaseOfError(eq("a non-json log entry"), eq("Log could not be converted to JSON"));
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testNonJsonLogContentIsCut(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 0, 12);
+        context.assertEquals(Arrays.asList("a non-json l" + TRUNCATED_SUFFIX), strategy.transformLogBlocking("a non-json log entry"));
+        context.assertEquals(Arrays.asList("äöüäöü" + TRUNCATED_SUFFIX), strategy.transformLogBlocking("äöüäöüäöü"));
+        context.assertEquals(Arrays.asList(Buffer.buffer("a non-json l" + TRUNCATED_SUFFIX)),
+                strategy.transformBufferBlocking(Buffer.buffer("a non-json log entry")));
+        context.assertEquals(Arrays.asList("short"), strategy.transformLogBlocking("short"));
+        context.assertEquals(4L, strategy.getFallbacks());
+    }
+
+    @Test
+    public void testSmallLogIsNotChanged(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx);
+        List<String> logEntries = strategy.transformLogBlocking(VALID_LOG_RESOURCE);
+        context.assertEquals(1, logEntries.size());
+        context.assertEquals(new JsonObject(VALID_LOG_RESOURCE), new JsonObject(logEntries.get(0)));
+        context.assertFalse(logEntries.get(0).contains("\n"));
+    }
+
+    @Test
+    public void testStringsAreTruncated(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 10, 0);
+        JsonObject log = new JsonObject()
+                .put("short", "0123456789")
+                .put("long", "0123456789abcdef")
+                .put("escaped", "\"\"\"\"\"\"\"\"")
+                .put("unicode", "ääääääääää")
+                .put("nested", new JsonObject().put("values", new JsonArray().add("0123456789abcdef").add(42).add(true)));
+
+        List<Buffer> logEntries = strategy.transformBufferBlocking(log.toBuffer());
+        context.assertEquals(1, logEntries.size());
+        JsonObject logEntry = new JsonObject(logEntries.get(0));
+        context.assertEquals("0123456789", logEntry.getString("short"));
+        context.assertEquals("0123456789" + TRUNCATED_SUFFIX, logEntry.getString("long"));
+        context.assertEquals("\"\"\"\"\"" + TRUNCATED_SUFFIX, logEntry.getString("escaped"));
+        context.assertEquals("äääää" + TRUNCATED_SUFFIX, logEntry.getString("unicode"));
+        context.assertEquals(new JsonArray().add("0123456789" + TRUNCATED_SUFFIX).add(42).add(true),
+                logEntry.getJsonObject("nested").getJsonArray("values"));
+        context.assertNull(logEntry.getBoolean(PROP_TRUNCATED));
+    }
+
+    @Test
+    public void testEntryIsTruncated(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 0, 100);
+        JsonArray values = new JsonArray();
+        for (int i = 0; i < 100; i++) {
+            values.add("value_" + i);
+        }
+        JsonObject log = new JsonObject().put("url", "/some/url").put("values", values).put("method", "GET");
+
+        List<String> logEntries = strategy.transformLogBlocking(log.encode());
+        JsonObject logEntry = new JsonObject(logEntries.get(0));
+        context.assertTrue(logEntries.get(0).length() < 150);
+        context.assertEquals("/some/url", logEntry.getString("url"));
+        context.assertTrue(logEntry.getJsonArray("values").size() < 100);
+        context.assertEquals("value_0", logEntry.getJsonArray("values").getString(0));
+        context.assertFalse(logEntry.containsKey("method"));
+        context.assertTrue(logEntry.getBoolean(PROP_TRUNCATED));
+    }
+
+    @Test
+    public void testExistingTruncatedPropertyIsReplaced(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 0, 100);
+        JsonArray values = new JsonArray();
+        for (int i = 0; i < 100; i++) {
+            values.add("value_" + i);
+        }
+        JsonObject log = new JsonObject().put(PROP_TRUNCATED, false).put("values", values);
+
+        String logEntry = strategy.transformLogBlocking(log.encode()).get(0);
+        context.assertEquals(logEntry.indexOf("\"" + PROP_TRUNCATED + "\""), logEntry.lastIndexOf("\"" + PROP_TRUNCATED + "\""));
+        context.assertTrue(new JsonObject(logEntry).getBoolean(PROP_TRUNCATED));
+
+        log = new JsonObject().put(PROP_TRUNCATED, new JsonObject().put("by", "client")).put("url", "/some/url");
+        context.assertEquals(log, new JsonObject(strategy.transformLogBlocking(log.encode()).get(0)));
+    }
+
+    @Test
+    public void testDocumentIsTruncated(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 10, 200);
+        JsonArray values = new JsonArray();
+        for (int i = 0; i < 100; i++) {
+            values.add("value_" + i);
+        }
+        JsonObject nested = new JsonObject().put("long", "0123456789abcdef").put("unicode", "ääääääääää");
+        JsonObject document = new JsonObject().put(PROP_TRUNCATED, false).put("nested", nested)
+                .put("values", values).put("method", "GET");
+
+        List<JsonObject> logEntries = strategy.transformDocument(document);
+        context.assertEquals(1, logEntries.size());
+        JsonObject logEntry = logEntries.get(0);
+        context.assertEquals("0123456789" + TRUNCATED_SUFFIX, logEntry.getJsonObject("nested").getString("long"));
+        context.assertEquals("äääää" + TRUNCATED_SUFFIX, logEntry.getJsonObject("nested").getString("unicode"));
+        context.assertTrue(logEntry.getJsonArray("values").size() < 100);
+        context.assertFalse(logEntry.containsKey("method"));
+        context.assertTrue(logEntry.getBoolean(PROP_TRUNCATED));
+        // nested values are copied and not truncated in place
+        context.assertEquals("0123456789abcdef", nested.getString("long"));
+        context.assertEquals(100, values.size());
+
+        JsonObject small = new JsonObject().put("url", "/some/url");
+        context.assertTrue(small == strategy.transformDocument(small).get(0));
+    }
+
+    @Test
+    public void testTruncateSplitLogEntries(TestContext context){
+        TruncatingTransformStrategy truncating = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 0, 50);
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx,
+                Arrays.asList(new SplitStorageExpandLogStrategy(vertx), truncating));
+
+        List<String> logEntries = chain.transformLogBlocking(VALID_LOG_RESOURCE);
+        context.assertEquals(3, logEntries.size());
+        for (String logEntry : logEntries) {
+            JsonObject entry = new JsonObject(logEntry);
+            context.assertTrue(entry.getBoolean(PROP_TRUNCATED));
+            context.assertTrue(entry.getString("url").startsWith("/some/url/that/has/messages/"));
+        }
+        context.assertEquals(0L, chain.getFallbacks());
+    }
+
+    @Test
+    public void testInvalidContentAfterTruncatedString(TestContext context){
+        TruncatingTransformStrategy strategy = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 4, 0);
+        String log = "{\"value\":\"0123456789\", invalid}";
+        context.assertEquals(Arrays.asList(log), strategy.transformLogBlocking(log));
+        log = "{\"value\":\"0123456789";
+        context.assertEquals(Arrays.asList(log), strategy.transformLogBlocking(log));
+    }
+
+    @Test
+    public void testTruncateBeforeSplit(TestContext context){
+        TruncatingTransformStrategy truncating = new TruncatingTransformStrategy(vertx, ThreadingModel.EVENT_LOOP, 100, 0);
+        ChainedTransformStrategy chain = new ChainedTransformStrategy(vertx,
+                Arrays.asList(truncating, new SplitStorageExpandLogStrategy(vertx)));
+        JsonObject log = new JsonObject(VALID_LOG_RESOURCE);
+        char[] blob = new char[10000];
+        Arrays.fill(blob, 'x');
+        log.getJsonObject("response").getJsonObject("body").getJsonObject("70000008").put("blob", new String(blob));
+
+        List<String> logEntries = chain.transformLogBlocking(log.encode());
+        context.assertEquals(3, logEntries.size());
+        JsonObject logEntry = new JsonObject(logEntries.get(1));
+        context.assertEquals("/some/url/that/has/messages/70000008", logEntry.getString("url"));
+        context.assertEquals(new String(blob, 0, 100) + TRUNCATED_SUFFIX,
+                logEntry.getJsonObject("response").getJsonObject("body").getString("blob"));
+        context.assertEquals(0L, chain.getFallbacks());
+    }
+}
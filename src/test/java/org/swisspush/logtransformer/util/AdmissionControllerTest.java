@@ -0,0 +1,114 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.streams.ReadStream;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the {@link AdmissionController} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class AdmissionControllerTest {
+
+    private Vertx vertx;
+    private Context context;
+    private ReadStream<?> stream;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+        context = vertx.getOrCreateContext();
+        stream = mock(ReadStream.class);
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testNoLimit(TestContext testContext){
+        AdmissionController controller = new AdmissionController(context, stream, 0, false);
+        for (int i = 0; i < 100; i++) {
+            testContext.assertTrue(controller.tryAcquire());
+        }
+        testContext.assertEquals(100, controller.getInFlight());
+        testContext.assertFalse(controller.isPaused());
+        verify(stream, never()).pause();
+    }
+
+    @Test
+    public void testPauseAndResume(TestContext testContext){
+        Async async = testContext.async();
+        AdmissionController controller = new AdmissionController(context, stream, 4, false);
+        context.runOnContext(v -> {
+            for (int i = 0; i < 4; i++) {
+                testContext.assertTrue(controller.tryAcquire());
+            }
+            testContext.assertTrue(controller.isPaused());
+            verify(stream, times(1)).pause();
+
+            controller.release();
+            testContext.assertTrue(controller.isPaused());
+            controller.release();
+            context.runOnContext(v2 -> {
+                testContext.assertFalse(controller.isPaused());
+                verify(stream, times(1)).resume();
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testAddedStreamSharesLimit(TestContext testContext){
+        Async async = testContext.async();
+        ReadStream<?> batchStream = mock(ReadStream.class);
+        AdmissionController controller = new AdmissionController(context, stream, 2, false);
+        context.runOnContext(v -> {
+            controller.addStream(batchStream);
+            testContext.assertTrue(controller.tryAcquire());
+            testContext.assertTrue(controller.tryAcquire());
+            testContext.assertTrue(controller.isPaused());
+            verify(stream, times(1)).pause();
+            verify(batchStream, times(1)).pause();
+
+            controller.release();
+            context.runOnContext(v2 -> {
+                testContext.assertFalse(controller.isPaused());
+                verify(stream, times(1)).resume();
+                verify(batchStream, times(1)).resume();
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testLoadShedding(TestContext testContext){
+        AdmissionController controller = new AdmissionController(context, stream, 2, true);
+        testContext.assertTrue(controller.tryAcquire());
+        testContext.assertTrue(controller.tryAcquire());
+        testContext.assertFalse(controller.tryAcquire());
+        testContext.assertEquals(1L, controller.getRejected());
+
+        controller.release();
+        testContext.assertTrue(controller.tryAcquire());
+        testContext.assertFalse(controller.isPaused());
+        verify(stream, never()).pause();
+    }
+}
@@ -0,0 +1,38 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the {@link CachedLogLevel} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class CachedLogLevelTest {
+
+    @Test
+    public void testLevelIsCached(TestContext context){
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true, false);
+        CachedLogLevel logLevel = new CachedLogLevel(log, 60000);
+        context.assertTrue(logLevel.isInfoEnabled());
+        context.assertTrue(logLevel.isInfoEnabled());
+        verify(log, times(1)).isInfoEnabled();
+    }
+
+    @Test
+    public void testLevelIsRefreshed(TestContext context) throws InterruptedException {
+        Logger log = mock(Logger.class);
+        when(log.isInfoEnabled()).thenReturn(true, false);
+        CachedLogLevel logLevel = new CachedLogLevel(log, 10);
+        context.assertTrue(logLevel.isInfoEnabled());
+        Thread.sleep(20);
+        context.assertFalse(logLevel.isInfoEnabled());
+    }
+}
@@ -1,10 +1,12 @@
 package org.swisspush.logtransformer.util;
 
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.swisspush.logtransformer.logger.MappedSegmentLogTransformLogger.ForcePolicy;
 
 import static org.swisspush.logtransformer.util.Configuration.*;
 
@@ -22,6 +24,34 @@ public class ConfigurationTest {
         testContext.assertEquals("swisspush.logtransformer", config.getAddress());
         testContext.assertEquals("LogTransformerLogger", config.getLoggerName());
         testContext.assertEquals("transformStrategy", config.getStrategyHeader());
+        testContext.assertTrue(config.getStrategyThreadingModels().isEmpty());
+        testContext.assertTrue(config.getStrategies().isEmpty());
+        testContext.assertEquals(ThreadingModel.WORKER, config.getLoggerThreadingModel());
+        testContext.assertEquals("swisspush.logtransformer.metrics", config.getMetricsAddress());
+        testContext.assertEquals(0, config.getMaxInFlight());
+        testContext.assertFalse(config.isLoadShedding());
+        testContext.assertEquals("swisspush.logtransformer.batch", config.getBatchAddress());
+        testContext.assertEquals(ReplyMode.WHEN_REQUESTED, config.getReplyMode());
+        testContext.assertEquals(0, config.getParallelSplitThreshold());
+        testContext.assertEquals("logs", config.getLoggerDirectory());
+        testContext.assertEquals(64L * 1024 * 1024, config.getLoggerSegmentSize());
+        testContext.assertEquals(ForcePolicy.ON_ROLL, config.getLoggerForcePolicy());
+        testContext.assertEquals(1024 * 1024, config.getLoggerBlockSize());
+        testContext.assertEquals(256L * 1024 * 1024, config.getLoggerRollSize());
+        testContext.assertEquals(3600000L, config.getLoggerRollInterval());
+        testContext.assertEquals(0L, config.getDedupWindow());
+        testContext.assertEquals(65536, config.getDedupCacheSize());
+        testContext.assertEquals(60000L, config.getDedupReportInterval());
+        testContext.assertEquals(65536, config.getTruncateFieldSize());
+        testContext.assertEquals(1048576, config.getTruncateEntrySize());
+        testContext.assertEquals(0, config.getSpillThreshold());
+        testContext.assertEquals(1073741824L, config.getSpillMaxSize());
+        testContext.assertTrue(config.getStrategyWorkerPoolSizes().isEmpty());
+        testContext.assertEquals(0, config.getLoggerWorkerPoolSize());
+        testContext.assertEquals(60000L, config.getWorkerPoolMaxExecuteTime());
+        testContext.assertEquals(0, config.getWarmupIterations());
+        testContext.assertTrue(config.getWarmupSamples().isEmpty());
+        testContext.assertEquals(0L, config.getJfrThreshold());
     }
 
     @Test
@@ -30,11 +60,69 @@ public class ConfigurationTest {
                 .address("new_address")
                 .loggerName("new_loggerName")
                 .strategyHeader("new_strategyHeader")
+                .strategyThreadingModel("DoNothingTransformStrategy", ThreadingModel.EVENT_LOOP)
+                .strategy("MyStrategy", "com.example.MyStrategy")
+                .loggerThreadingModel(ThreadingModel.VIRTUAL_THREAD)
+                .metricsAddress("new_metricsAddress")
+                .maxInFlight(100)
+                .loadShedding(true)
+                .batchAddress("new_batchAddress")
+                .replyMode(ReplyMode.NEVER)
+                .parallelSplitThreshold(5000)
+                .loggerType(LoggerType.MAPPED_SEGMENT)
+                .loggerDirectory("/var/log/transformed")
+                .loggerSegmentSize(1024)
+                .loggerForcePolicy(ForcePolicy.ALWAYS)
+                .loggerBlockSize(4096)
+                .loggerRollSize(1000000)
+                .loggerRollInterval(60000)
+                .dedupWindow(5000)
+                .dedupCacheSize(1024)
+                .dedupReportInterval(10000)
+                .truncateFieldSize(1024)
+                .truncateEntrySize(8192)
+                .spillThreshold(5000)
+                .spillMaxSize(1000000)
+                .strategyWorkerPoolSize("SplitStorageExpandLogStrategy", 4)
+                .loggerWorkerPoolSize(2)
+                .workerPoolMaxExecuteTime(5000)
+                .warmupIterations(1000)
+                .warmupSample("MyStrategy", "sample log")
+                .jfrThreshold(50)
                 .build();
 
         testContext.assertEquals("new_address", config.getAddress());
         testContext.assertEquals("new_loggerName", config.getLoggerName());
         testContext.assertEquals("new_strategyHeader", config.getStrategyHeader());
+        testContext.assertEquals(ThreadingModel.EVENT_LOOP, config.getStrategyThreadingModels().get("DoNothingTransformStrategy"));
+        testContext.assertEquals("com.example.MyStrategy", config.getStrategies().get("MyStrategy"));
+        testContext.assertEquals(ThreadingModel.VIRTUAL_THREAD, config.getLoggerThreadingModel());
+        testContext.assertEquals("new_metricsAddress", config.getMetricsAddress());
+        testContext.assertEquals(100, config.getMaxInFlight());
+        testContext.assertTrue(config.isLoadShedding());
+        testContext.assertEquals("new_batchAddress", config.getBatchAddress());
+        testContext.assertEquals(ReplyMode.NEVER, config.getReplyMode());
+        testContext.assertEquals(5000, config.getParallelSplitThreshold());
+        testContext.assertEquals(LoggerType.MAPPED_SEGMENT, config.getLoggerType());
+        testContext.assertEquals("/var/log/transformed", config.getLoggerDirectory());
+        testContext.assertEquals(1024L, config.getLoggerSegmentSize());
+        testContext.assertEquals(ForcePolicy.ALWAYS, config.getLoggerForcePolicy());
+        testContext.assertEquals(4096, config.getLoggerBlockSize());
+        testContext.assertEquals(1000000L, config.getLoggerRollSize());
+        testContext.assertEquals(60000L, config.getLoggerRollInterval());
+        testContext.assertEquals(5000L, config.getDedupWindow());
+        testContext.assertEquals(1024, config.getDedupCacheSize());
+        testContext.assertEquals(10000L, config.getDedupReportInterval());
+        testContext.assertEquals(1024, config.getTruncateFieldSize());
+        testContext.assertEquals(8192, config.getTruncateEntrySize());
+        testContext.assertEquals(5000, config.getSpillThreshold());
+        testContext.assertEquals(1000000L, config.getSpillMaxSize());
+        testContext.assertEquals(4, config.getStrategyWorkerPoolSizes().get("SplitStorageExpandLogStrategy"));
+        testContext.assertEquals(2, config.getLoggerWorkerPoolSize());
+        testContext.assertEquals(5000L, config.getWorkerPoolMaxExecuteTime());
+        testContext.assertEquals(1000, config.getWarmupIterations());
+        testContext.assertEquals("sample log", config.getWarmupSamples().get("MyStrategy"));
+        testContext.assertEquals(50L, config.getJfrThreshold());
     }
 
     @Test
@@ -80,10 +168,29 @@ public class ConfigurationTest {
         json.put(PROP_ADDRESS, "new_address");
         json.put(PROP_LOGGER_NAME, "new_loggerName");
         json.put(PROP_STRATEGY_HEADER, "new_strategyHeader");
+        json.put(PROP_STRATEGY_THREADING_MODELS, new JsonObject().put("DoNothingTransformStrategy", "EVENT_LOOP"));
+        json.put(PROP_STRATEGIES, new JsonObject().put("MyStrategy", "com.example.MyStrategy"));
+        json.put(PROP_LOGGER_THREADING_MODEL, "VIRTUAL_THREAD");
+        json.put(PROP_STRATEGY_WORKER_POOL_SIZES, new JsonObject().put("SplitStorageExpandLogStrategy", 4));
 
         Configuration config = fromJsonObject(json);
         testContext.assertEquals("new_address", config.getAddress());
         testContext.assertEquals("new_loggerName", config.getLoggerName());
         testContext.assertEquals("new_strategyHeader", config.getStrategyHeader());
+        testContext.assertEquals(ThreadingModel.EVENT_LOOP, config.getStrategyThreadingModels().get("DoNothingTransformStrategy"));
+        testContext.assertEquals("com.example.MyStrategy", config.getStrategies().get("MyStrategy"));
+        testContext.assertEquals(ThreadingModel.VIRTUAL_THREAD, config.getLoggerThreadingModel());
+        testContext.assertEquals(4, config.getStrategyWorkerPoolSizes().get("SplitStorageExpandLogStrategy"));
+    }
+
+    @Test
+    public void testInvalidThreadingModelFromJsonObject(TestContext testContext){
+        JsonObject json = new JsonObject().put(PROP_STRATEGY_THREADING_MODELS, new JsonObject().put("MyStrategy", "WORKERS"));
+        try {
+            fromJsonObject(json);
+            testContext.fail("threading model should be invalid");
+        } catch (IllegalArgumentException ex) {
+            testContext.assertTrue(ex.getMessage().startsWith("Invalid value 'WORKERS' of configuration property 'strategyThreadingModels.MyStrategy'"));
+        }
     }
 }
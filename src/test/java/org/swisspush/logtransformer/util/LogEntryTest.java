@@ -0,0 +1,96 @@
+package org.swisspush.logtransformer.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link LogEntry} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class LogEntryTest {
+
+    private final JsonObject json = new JsonObject().put("url", "/some/url").put("body", new JsonObject().put("ä", 1));
+
+    @Test
+    public void testJsonObjectLogEntry(TestContext context) throws IOException {
+        LogEntry logEntry = LogEntry.of(json);
+        context.assertEquals(json.encode(), logEntry.encode());
+        context.assertEquals(json.toBuffer(), logEntry.toBuffer());
+        context.assertEquals("[" + json.encode() + "]", writeArray(logEntry));
+    }
+
+    @Test
+    public void testEncodedLogEntry(TestContext context) throws IOException {
+        Buffer encoded = json.toBuffer();
+        LogEntry logEntry = LogEntry.of(encoded);
+        context.assertTrue(encoded == logEntry.toBuffer());
+        context.assertEquals(json.encode(), logEntry.encode());
+        context.assertEquals("[" + json.encode() + "," + json.encode() + "]", writeArray(logEntry, LogEntry.of(json)));
+    }
+
+    @Test
+    public void testInvalidEncodedLogEntry(TestContext context) {
+        LogEntry logEntry = LogEntry.of(Buffer.buffer("{ not json"));
+        context.assertEquals("{ not json", logEntry.encode());
+        try {
+            writeArray(logEntry);
+            context.fail("invalid JSON should not be written");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWriteToStream(TestContext context) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LogEntry.of(json).writeTo(out);
+        LogEntry.of(Buffer.buffer("{ not json")).writeTo(out);
+        context.assertEquals(json.encode() + "{ not json", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCallbackLogEntry(TestContext context) throws IOException {
+        LogEntry logEntry = generator -> {
+            generator.writeStartObject();
+            generator.writeStringField("url", "/some/url");
+            generator.writeEndObject();
+        };
+        context.assertEquals("{\"url\":\"/some/url\"}", logEntry.encode());
+        context.assertEquals("[{\"url\":\"/some/url\"}]", writeArray(logEntry));
+    }
+
+    @Test
+    public void testConversions(TestContext context) {
+        List<Buffer> buffers = Arrays.asList(Buffer.buffer("a"), Buffer.buffer("b"));
+        context.assertEquals(buffers, LogEntry.toBuffers(LogEntry.ofBuffers(buffers)));
+        context.assertNull(LogEntry.ofBuffers(null));
+        context.assertNull(LogEntry.toBuffers(null));
+    }
+
+    private static String writeArray(LogEntry... logEntries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (LogEntry logEntry : logEntries) {
+                logEntry.writeTo(generator);
+            }
+            generator.writeEndArray();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
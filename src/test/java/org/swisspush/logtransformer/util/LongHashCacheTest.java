@@ -0,0 +1,61 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for the {@link LongHashCache} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class LongHashCacheTest {
+
+    @Test
+    public void testHashIsSeenWithinWindow(TestContext context){
+        LongHashCache cache = new LongHashCache(16, 1000);
+        context.assertFalse(cache.markSeen(42, 1000));
+        context.assertTrue(cache.markSeen(42, 1500));
+        context.assertFalse(cache.markSeen(43, 1500));
+    }
+
+    @Test
+    public void testWindowIsNotExtendedBySeenHashes(TestContext context){
+        LongHashCache cache = new LongHashCache(16, 1000);
+        context.assertFalse(cache.markSeen(42, 1000));
+        context.assertTrue(cache.markSeen(42, 1999));
+        context.assertFalse(cache.markSeen(42, 2000));
+        context.assertTrue(cache.markSeen(42, 2500));
+    }
+
+    @Test
+    public void testCapacityIsBounded(TestContext context){
+        LongHashCache cache = new LongHashCache(1000, 1000000);
+        context.assertEquals(1024, cache.getCapacity());
+        for (long hash = 0; hash < 100000; hash++) {
+            cache.markSeen(hash * 0x9E3779B97F4A7C15L, 1000 + hash);
+        }
+        context.assertEquals(1024, cache.getCapacity());
+        // the most recent hashes are still cached, the oldest ones have been evicted
+        context.assertTrue(cache.markSeen(99999 * 0x9E3779B97F4A7C15L, 200000));
+        context.assertFalse(cache.markSeen(0, 200000));
+    }
+
+    @Test
+    public void testIsSeenDoesNotMarkHash(TestContext context){
+        LongHashCache cache = new LongHashCache(16, 1000);
+        context.assertFalse(cache.isSeen(42, 1000));
+        context.assertFalse(cache.markSeen(42, 1000));
+        context.assertTrue(cache.isSeen(42, 1500));
+        context.assertFalse(cache.isSeen(42, 2000));
+    }
+
+    @Test
+    public void testCapacityIsClamped(TestContext context){
+        context.assertEquals(LongHashCache.MAX_CAPACITY, LongHashCache.powerOfTwo(Integer.MAX_VALUE));
+        context.assertEquals(LongHashCache.MAX_CAPACITY, LongHashCache.powerOfTwo(LongHashCache.MAX_CAPACITY + 1));
+        context.assertEquals(1024, LongHashCache.powerOfTwo(1000));
+    }
+}
@@ -0,0 +1,96 @@
+package org.swisspush.logtransformer.util;
+
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.Timeout;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests for the {@link TaskExecutor} class
+ *
+ * @author https://github.com/mcweba [Marc-Andre Weber]
+ */
+@RunWith(VertxUnitRunner.class)
+public class TaskExecutorTest {
+
+    private Vertx vertx;
+
+    @Rule
+    public Timeout rule = Timeout.seconds(5);
+
+    @Before
+    public void setUp(){
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown(TestContext context){
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testDefaultThreadingModel(TestContext context){
+        context.assertEquals(ThreadingModel.WORKER, new TaskExecutor(vertx, null).getThreadingModel());
+    }
+
+    @Test
+    public void testEventLoopExecutesInline(TestContext context){
+        Async async = context.async();
+        vertx.runOnContext(v -> {
+            Thread callerThread = Thread.currentThread();
+            new TaskExecutor(vertx, ThreadingModel.EVENT_LOOP).execute(Thread::currentThread, res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals(callerThread, res.result());
+                async.complete();
+            });
+        });
+    }
+
+    @Test
+    public void testWorkerExecutesOnWorkerThread(TestContext context){
+        Async async = context.async();
+        vertx.runOnContext(v -> new TaskExecutor(vertx, ThreadingModel.WORKER).execute(() -> Thread.currentThread().getName().contains("worker"), res -> {
+            context.assertTrue(res.succeeded());
+            context.assertTrue(res.result());
+            context.assertTrue(Thread.currentThread().getName().contains("eventloop"));
+            async.complete();
+        }));
+    }
+
+    @Test
+    public void testVirtualThread(TestContext context){
+        Async async = context.async();
+        TaskExecutor taskExecutor = new TaskExecutor(vertx, ThreadingModel.VIRTUAL_THREAD);
+        if(Runtime.version().feature() < 21){
+            context.assertEquals(ThreadingModel.WORKER, taskExecutor.getThreadingModel());
+        }
+        vertx.runOnContext(v -> {
+            Thread callerThread = Thread.currentThread();
+            taskExecutor.execute(() -> "done", res -> {
+                context.assertTrue(res.succeeded());
+                context.assertEquals("done", res.result());
+                context.assertEquals(callerThread, Thread.currentThread());
+                taskExecutor.close().onComplete(context.asyncAssertSuccess(closed -> async.complete()));
+            });
+        });
+    }
+
+    @Test
+    public void testFailingTask(TestContext context){
+        Async async = context.async();
+        new TaskExecutor(vertx, ThreadingModel.EVENT_LOOP).execute(() -> {
+            throw new IllegalStateException("boom");
+        }, res -> {
+            context.assertTrue(res.failed());
+            context.assertEquals("boom", res.cause().getMessage());
+            async.complete();
+        });
+    }
+}